@@ -26,16 +26,21 @@ public class HttpDriver implements Driver {
         }
     }
 
-    protected final HttpConnector connector = new HttpConnector();
-
     @Override
     public Connection connect(String url, Properties info) {
-        return wrapWithSqlException(() -> acceptsURL(url) ? connector.post(connector.buildUrl(getHttpUrl(url), "connection"), getConnectionInfo(url, info), ConnectionProxy.class) : null);
+        if (url != null && (url.startsWith("http:") || url.startsWith("https:"))) {
+            HttpConnectors.configure(getHttpUrl(url), info);
+        }
+        return wrapWithSqlException(() -> acceptsURL(url) ? connector(url).post(connector(url).buildUrl(getHttpUrl(url), "connection"), getConnectionInfo(url, info), ConnectionProxy.class).withLease() : null);
     }
 
     @Override
     public boolean acceptsURL(String url) {
-        return wrapWithSqlException(() -> url != null && (url.startsWith("http:") || url.startsWith("https:")) && connector.post(connector.buildUrl(getHttpUrl(url), "acceptsurl"), url, Boolean.class));
+        return wrapWithSqlException(() -> url != null && (url.startsWith("http:") || url.startsWith("https:")) && connector(url).post(connector(url).buildUrl(getHttpUrl(url), "acceptsurl"), url, Boolean.class));
+    }
+
+    private HttpConnector connector(String url) {
+        return HttpConnectors.get(getHttpUrl(url));
     }
 
     private <T> T wrapWithSqlException(Supplier<T> supplier) {
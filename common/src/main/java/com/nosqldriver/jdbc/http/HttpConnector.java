@@ -1,29 +1,88 @@
 package com.nosqldriver.jdbc.http;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.nosqldriver.jdbc.http.json.ObjectMapperFactory;
 import com.nosqldriver.jdbc.http.model.TransportableException;
+import com.nosqldriver.jdbc.http.transport.HttpTransport;
+import com.nosqldriver.jdbc.http.transport.HttpTransports;
+import com.nosqldriver.jdbc.http.transport.PoolStats;
+import com.nosqldriver.jdbc.http.transport.TransportConfig;
+import com.nosqldriver.jdbc.http.transport.TransportResponse;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.nosqldriver.jdbc.http.Util.toByteArray;
+import static com.nosqldriver.util.function.Configuration.getConfigurationParameter;
 import static java.lang.String.format;
 
 public class HttpConnector {
-    private final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+    public static final String STREAM_CHUNK_SIZE = "jdbc.http.stream.chunk.size";
+    private static final Map<String, String> jsonHeaders = contentHeaders("application/json");
+    private static final Map<String, Map<String, String>> contentHeaders = new ConcurrentHashMap<>();
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private static final ObjectWriter nullWriter = objectMapper.writer();
+    private static final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final HttpTransport transport;
+    private TransportConfig config;
+
+    public HttpConnector() {
+        this(HttpTransports.getDefault());
+    }
+
+    public HttpConnector(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    // A connection that does not set the transport options uses the pool of the server as it is, so connecting does not
+    // replace the pool shared with the other connections.
+    public synchronized void configure(String url, Properties props) {
+        if (config != null && !TransportConfig.isSet(props)) {
+            return;
+        }
+        TransportConfig newConfig = new TransportConfig(props);
+        if (!newConfig.equals(config)) {
+            transport.configure(url, newConfig);
+            config = newConfig;
+        }
+    }
+
+    HttpTransport getTransport() {
+        return transport;
+    }
+
+    public PoolStats getPoolStats(String url) {
+        return transport.getStats(url);
+    }
 
     public <T> T get(String url, Class<T> clazz) {
         try {
-            HttpURLConnection httpConnection = (HttpURLConnection) new URL(url).openConnection();
-            return retrieve(httpConnection, clazz);
+            return retrieve(url, transport.send("GET", url, Collections.emptyMap(), null), clazz);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Reads a stream of values lazily, so only the values that are being parsed are held in memory.
+    // The iterator must be read till the end or closed.
+    public <T> MappingIterator<T> getValues(String url, Class<T> clazz) {
+        try {
+            return reader(clazz).readValues(retrieve(url, transport.send("GET", url, Collections.emptyMap(), null), InputStream.class));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -41,26 +100,31 @@ public class HttpConnector {
         return send(url, "PUT", payload, clazz);
     }
 
+    public <T> T put(String url, byte[] content, String contentType, Class<T> clazz) {
+        try {
+            return retrieve(url, transport.send("PUT", url, contentHeaders.computeIfAbsent(contentType, HttpConnector::contentHeaders), content), clazz);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private <T> T send(String url, String method, Object payload, Class<T> clazz) {
         try {
-            HttpURLConnection httpConnection = (HttpURLConnection) new URL(url).openConnection();
-            httpConnection.setRequestMethod(method);
-            httpConnection.setRequestProperty("Accept-Charset", StandardCharsets.UTF_8.name());
-            httpConnection.setRequestProperty("Content-Type", "application/json");
-            httpConnection.setDoOutput(true);
-            httpConnection.setDoInput(true);
-            objectMapper.writeValue(httpConnection.getOutputStream(), payload);
-            return retrieve(httpConnection, clazz);
+            return retrieve(url, transport.send(method, url, jsonHeaders, writer(payload).writeValueAsBytes(payload)), clazz);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private <T> T retrieve(HttpURLConnection httpConnection, Class<T> clazz) throws IOException {
-        InputStream in = httpConnection.getInputStream();
-        int rc = httpConnection.getResponseCode();
+    private <T> T retrieve(String url, TransportResponse response, Class<T> clazz) throws IOException {
+        InputStream in = response.getBody();
+        int rc = response.getStatus();
+        if (rc >= 400) {
+            in.close();
+            throw new IOException(format("Server returned HTTP response code: %d for URL: %s", rc, url));
+        }
         if (rc == 222) {
-            SneakyThrower.sneakyThrow(objectMapper.readValue(in, TransportableException.class).getPayload());
+            SneakyThrower.sneakyThrow(reader(TransportableException.class).<TransportableException>readValue(toByteArray(in)).getPayload());
         }
         if (InputStream.class.equals(clazz)) {
             return (T)in;
@@ -68,7 +132,24 @@ public class HttpConnector {
             return (T)new InputStreamReader(in);
         }
         byte[] content = toByteArray(in);
-        return objectMapper.readValue(content, clazz);
+        try {
+            return reader(clazz).readValue(content);
+        } catch (JsonProcessingException e) {
+            for (int i = 0; i < content.length; i++) {
+                if (content[i] == TransportableException.RECORD_SEPARATOR) {
+                    SneakyThrower.sneakyThrow(reader(TransportableException.class).<TransportableException>readValue(content, i + 1, content.length - i - 1).getPayload());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static ObjectReader reader(Class<?> clazz) {
+        return readers.computeIfAbsent(clazz, objectMapper::readerFor);
+    }
+
+    private static ObjectWriter writer(Object payload) {
+        return payload == null ? nullWriter : writers.computeIfAbsent(payload.getClass(), objectMapper::writerFor);
     }
 
     public String buildUrl(String prefix, String[] ... params) {
@@ -84,4 +165,15 @@ public class HttpConnector {
         suffix = suffix.startsWith("/") ? suffix.substring(1) : suffix;
         return prefix + "/" + suffix;
     }
+
+    public static int getStreamChunkSize() {
+        return Integer.parseInt(getConfigurationParameter(STREAM_CHUNK_SIZE, "65536"));
+    }
+
+    private static Map<String, String> contentHeaders(String contentType) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept-Charset", StandardCharsets.UTF_8.name());
+        headers.put("Content-Type", contentType);
+        return Collections.unmodifiableMap(headers);
+    }
 }
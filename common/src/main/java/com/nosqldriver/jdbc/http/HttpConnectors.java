@@ -0,0 +1,44 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.transport.HttpTransport;
+import com.nosqldriver.jdbc.http.transport.HttpTransports;
+import com.nosqldriver.util.function.Configuration;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of connectors shared by all proxies that talk to the same server. Proxies are created by deserialization
+ * and resolve their connector by the base URL (scheme, host and port) of their entity URL.
+ */
+public class HttpConnectors {
+    private static final Map<String, HttpConnector> connectors = new ConcurrentHashMap<>();
+
+    private HttpConnectors() {
+    }
+
+    public static HttpConnector get(String url) {
+        return connectors.computeIfAbsent(baseUrl(url), u -> new HttpConnector());
+    }
+
+    public static HttpConnector configure(String url, Properties props) {
+        String transportName = props == null ? null : props.getProperty(HttpTransports.TRANSPORT);
+        HttpTransport transport = HttpTransports.get(transportName != null ? transportName : Configuration.getConfigurationParameter(HttpTransports.TRANSPORT, HttpTransports.HTTP1));
+        HttpConnector connector = connectors.compute(baseUrl(url), (u, existing) -> existing != null && existing.getTransport() == transport ? existing : new HttpConnector(transport));
+        connector.configure(url, props);
+        return connector;
+    }
+
+    static String baseUrl(String url) {
+        if (url == null) {
+            return "";
+        }
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) {
+            return url;
+        }
+        int pathStart = url.indexOf('/', schemeEnd + 3);
+        return pathStart < 0 ? url : url.substring(0, pathStart);
+    }
+}
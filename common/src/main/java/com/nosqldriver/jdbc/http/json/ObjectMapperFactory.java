@@ -9,6 +9,13 @@ import java.sql.Timestamp;
 import java.util.Collections;
 
 public class ObjectMapperFactory {
+    private static final ObjectMapper sharedObjectMapper = createObjectMapper();
+
+    // ObjectMapper is thread safe once configured; sharing it keeps its serializer and deserializer caches warm.
+    public static ObjectMapper getObjectMapper() {
+        return sharedObjectMapper;
+    }
+
     public static ObjectMapper createObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         SimpleModule module = new SimpleModule();
@@ -0,0 +1,64 @@
+package com.nosqldriver.jdbc.http.model;
+
+import com.nosqldriver.util.function.ThrowingSupplier;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Properties of a result set column needed to cast its values. Accessors are created once per result set when its metadata
+ * is available, so getting a value does not look up the metadata and does not resolve the column class again.
+ */
+class ColumnAccessor {
+    private final int index;
+    private final Class<?> columnClass;
+    private final int sqlType;
+    private final String typeName;
+    private final ThrowingSupplier<ResultSetMetaData, SQLException> metadata;
+
+    private ColumnAccessor(int index, Class<?> columnClass, int sqlType, String typeName, ThrowingSupplier<ResultSetMetaData, SQLException> metadata) {
+        this.index = index;
+        this.columnClass = columnClass;
+        this.sqlType = sqlType;
+        this.typeName = typeName;
+        this.metadata = metadata;
+    }
+
+    static ColumnAccessor[] of(ResultSetMetaData md, ThrowingSupplier<ResultSetMetaData, SQLException> metadata) throws SQLException {
+        int n = md.getColumnCount();
+        ColumnAccessor[] accessors = new ColumnAccessor[n];
+        for (int i = 1; i <= n; i++) {
+            String className = md.getColumnClassName(i);
+            accessors[i - 1] = new ColumnAccessor(i, className == null ? Object.class : toClass(className), md.getColumnType(i), md.getColumnTypeName(i), metadata);
+        }
+        return accessors;
+    }
+
+    private static Class<?> toClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            return Object.class;
+        }
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    Class<?> getColumnClass() {
+        return columnClass;
+    }
+
+    int getSqlType() {
+        return sqlType;
+    }
+
+    String getTypeName() {
+        return typeName;
+    }
+
+    ThrowingSupplier<ResultSetMetaData, SQLException> getMetadata() {
+        return metadata;
+    }
+}
@@ -0,0 +1,179 @@
+package com.nosqldriver.jdbc.http.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values of one column of {@link RowBatch}. Values of {@code INTEGER}, {@code BIGINT} and {@code DOUBLE} columns are
+ * kept in primitive arrays, null values are marked in a bitmap. Values of other types and values of these types that
+ * the driver returned as another class are kept as objects. String columns with few distinct values are sent as
+ * a dictionary and codes of the values in it, so each distinct string is sent and decoded once per batch.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ColumnVector {
+    @JsonProperty private final int[] ints;
+    @JsonProperty private final long[] longs;
+    @JsonProperty private final double[] doubles;
+    @JsonProperty private final Object[] values;
+    @JsonProperty private final String[] dictionary;
+    @JsonProperty private final int[] codes;
+    @JsonProperty private final byte[] nulls;
+
+    @JsonCreator
+    public ColumnVector(
+            @JsonProperty("ints") int[] ints,
+            @JsonProperty("longs") long[] longs,
+            @JsonProperty("doubles") double[] doubles,
+            @JsonProperty("values") Object[] values,
+            @JsonProperty("dictionary") String[] dictionary,
+            @JsonProperty("codes") int[] codes,
+            @JsonProperty("nulls") byte[] nulls) {
+        this.ints = ints;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.values = values;
+        this.dictionary = dictionary;
+        this.codes = codes;
+        this.nulls = nulls;
+    }
+
+    static ColumnVector of(List<Object[]> rows, int column, int sqlType, int maxDictionarySize) {
+        int n = rows.size();
+        byte[] nulls = new byte[(n + 7) / 8];
+        boolean hasNulls = false;
+        Class<?> type = primitiveType(sqlType);
+        for (int i = 0; i < n; i++) {
+            Object value = rows.get(i)[column];
+            if (value == null) {
+                nulls[i / 8] |= 1 << (i % 8);
+                hasNulls = true;
+            } else if (!value.getClass().equals(type)) {
+                type = null;
+            }
+        }
+        if (!hasNulls) {
+            nulls = null;
+        }
+        if (Integer.class.equals(type)) {
+            int[] ints = new int[n];
+            for (int i = 0; i < n; i++) {
+                Object value = rows.get(i)[column];
+                ints[i] = value == null ? 0 : (Integer)value;
+            }
+            return new ColumnVector(ints, null, null, null, null, null, nulls);
+        }
+        if (Long.class.equals(type)) {
+            long[] longs = new long[n];
+            for (int i = 0; i < n; i++) {
+                Object value = rows.get(i)[column];
+                longs[i] = value == null ? 0 : (Long)value;
+            }
+            return new ColumnVector(null, longs, null, null, null, null, nulls);
+        }
+        if (Double.class.equals(type)) {
+            double[] doubles = new double[n];
+            for (int i = 0; i < n; i++) {
+                Object value = rows.get(i)[column];
+                doubles[i] = value == null ? 0 : (Double)value;
+            }
+            return new ColumnVector(null, null, doubles, null, null, null, nulls);
+        }
+        ColumnVector encoded = encode(rows, column, maxDictionarySize, nulls);
+        if (encoded != null) {
+            return encoded;
+        }
+        Object[] values = new Object[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = rows.get(i)[column];
+        }
+        return new ColumnVector(null, null, null, values, null, null, null);
+    }
+
+    // Returns null if the column is not worth encoding: it contains not only strings or the strings are mostly distinct.
+    private static ColumnVector encode(List<Object[]> rows, int column, int maxDictionarySize, byte[] nulls) {
+        int n = rows.size();
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        int[] codes = new int[n];
+        int strings = 0;
+        for (int i = 0; i < n; i++) {
+            Object value = rows.get(i)[column];
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof String)) {
+                return null;
+            }
+            codes[i] = dictionary.computeIfAbsent((String)value, s -> dictionary.size());
+            if (dictionary.size() > maxDictionarySize) {
+                return null;
+            }
+            strings++;
+        }
+        if (dictionary.size() * 2 > strings) {
+            return null;
+        }
+        return new ColumnVector(null, null, null, null, dictionary.keySet().toArray(new String[0]), codes, nulls);
+    }
+
+    private static Class<?> primitiveType(int sqlType) {
+        switch (sqlType) {
+            case Types.INTEGER: return Integer.class;
+            case Types.BIGINT: return Long.class;
+            case Types.DOUBLE: return Double.class;
+            default: return null;
+        }
+    }
+
+    boolean isNull(int row) {
+        return values != null ? values[row] == null : nulls != null && (nulls[row / 8] & (1 << (row % 8))) != 0;
+    }
+
+    boolean hasInts() {
+        return ints != null;
+    }
+
+    boolean hasLongs() {
+        return longs != null;
+    }
+
+    boolean hasDoubles() {
+        return doubles != null;
+    }
+
+    int getInt(int row) {
+        return ints[row];
+    }
+
+    long getLong(int row) {
+        return longs[row];
+    }
+
+    double getDouble(int row) {
+        return doubles[row];
+    }
+
+    Object getValue(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        if (ints != null) {
+            return ints[row];
+        }
+        if (longs != null) {
+            return longs[row];
+        }
+        if (doubles != null) {
+            return doubles[row];
+        }
+        if (codes != null) {
+            return dictionary[codes[row]];
+        }
+        return values[row];
+    }
+}
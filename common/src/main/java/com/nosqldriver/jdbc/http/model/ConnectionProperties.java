@@ -33,8 +33,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -212,9 +214,25 @@ public class ConnectionProperties {
     }
 
     private final @JsonProperty("props") Properties props;
+    // result set casters depend on these properties only, so they are created once and shared by all result sets
+    private volatile ResultSetCasters resultSetCasters = null;
+
+    // Every result set proxy arrives with its own copy of the properties; equal properties are parsed once and shared.
+    // Only the recently used ones are kept, by an immutable copy, because the properties may contain credentials.
+    private static final int DESERIALIZED_CACHE_SIZE = 16;
+    private static final Map<Map<Object, Object>, ConnectionProperties> deserialized = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Map<Object, Object>, ConnectionProperties> eldest) {
+            return size() > DESERIALIZED_CACHE_SIZE;
+        }
+    });
 
     @JsonCreator
-    public ConnectionProperties(@JsonProperty("props") Properties props) {
+    public static ConnectionProperties of(@JsonProperty("props") Properties props) {
+        return deserialized.computeIfAbsent(Map.copyOf(props), key -> new ConnectionProperties(props));
+    }
+
+    public ConnectionProperties(Properties props) {
         this.props = props;
         this.timestampWithMillis = getBoolean(props, "timestampWithMillis", true);
         this.anyClob = getBoolean(props, "anyClob", true);
@@ -566,6 +584,13 @@ public class ConnectionProperties {
         return booleanLiterals.get(b);
     }
 
+    ResultSetCasters getResultSetCasters() {
+        if (resultSetCasters == null) {
+            resultSetCasters = new ResultSetCasters(this);
+        }
+        return resultSetCasters;
+    }
+
     public void throwIfUnsupported(String function) throws SQLFeatureNotSupportedException {
         if (unsupportedFunctions.contains(function)) {
             throw new SQLFeatureNotSupportedException(function);
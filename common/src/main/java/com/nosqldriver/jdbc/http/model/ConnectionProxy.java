@@ -3,8 +3,10 @@ package com.nosqldriver.jdbc.http.model;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nosqldriver.jdbc.http.HttpConnector;
 import com.nosqldriver.jdbc.http.Util;
 
+import java.lang.ref.WeakReference;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.CallableStatement;
@@ -19,28 +21,95 @@ import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.nosqldriver.jdbc.http.Util.encode;
+import static com.nosqldriver.util.function.Configuration.getConfigurationParameter;
 import static java.lang.String.format;
 
 public class ConnectionProxy extends WrapperProxy implements Connection {
+    // seconds between renewals of the lease of the connection on the server; 0 disables renewal
+    public static final String LEASE = "jdbc.http.connection.lease";
+    // number of prepared statements closed by the application that are kept open on server to be reused; 0 disables caching
+    public static final String STATEMENT_CACHE = "jdbc.http.statement.cache";
+    // statements are created on server by their first execution together with the options set before it
+    public static final String LAZY_STATEMENT = "jdbc.http.statement.lazy";
+    private static final ScheduledExecutorService leases = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "connection-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Lease lease;
+    private final PreparedStatementCache statementCache = new PreparedStatementCache(url -> connector.delete(url, null, Void.class));
+
     @JsonCreator
     public ConnectionProxy(@JsonProperty("entityUrl") String entityUrl) {
         super(entityUrl, Connection.class);
     }
 
+    /**
+     * Starts renewing the lease of the connection periodically, so the server does not close it as idle while the application
+     * keeps it open without using it. The renewal stops when the connection is closed or garbage collected.
+     */
+    public ConnectionProxy withLease() {
+        long period = Long.parseLong(getConfigurationParameter(LEASE, "0"));
+        if (period > 0) {
+            lease = new Lease(this, period);
+        }
+        return this;
+    }
+
+    // Refers to the connection weakly, so a connection that the application has abandoned can be collected and its lease expires on the server.
+    private static class Lease implements Runnable {
+        private final WeakReference<ConnectionProxy> connection;
+        private final HttpConnector connector;
+        private final String url;
+        private final ScheduledFuture<?> future;
+
+        private Lease(ConnectionProxy connection, long period) {
+            this.connection = new WeakReference<>(connection);
+            connector = connection.connector;
+            url = format("%s/lease", connection.entityUrl);
+            future = leases.scheduleWithFixedDelay(this, period, period, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void run() {
+            if (connection.get() == null) {
+                cancel();
+                return;
+            }
+            try {
+                if (!connector.get(url, Boolean.class)) {
+                    // the server does not have the connection anymore
+                    cancel();
+                }
+            } catch (RuntimeException e) {
+                // the server may be unavailable for a while; the lease is renewed when it is back
+            }
+        }
+
+        private void cancel() {
+            future.cancel(false);
+        }
+    }
+
     @Override
     public Statement createStatement() {
-        return connector.post(format("%s/statement", entityUrl), null, StatementProxy.class).withConnection(this);
+        return createStatement(Map.of());
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql) {
-        return connector.post(format("%s/prepared-statement", entityUrl), sql, PreparedStatementProxy.class).withConnection(this);
+        return prepare("prepared-statement", sql);
     }
 
     @Override
@@ -76,6 +145,11 @@ public class ConnectionProxy extends WrapperProxy implements Connection {
 
     @Override
     public void close() {
+        Lease lease = this.lease;
+        if (lease != null) {
+            lease.cancel();
+        }
+        statementCache.clear();
         connector.delete(entityUrl, null, Void.class);
     }
 
@@ -137,12 +211,12 @@ public class ConnectionProxy extends WrapperProxy implements Connection {
 
     @Override
     public Statement createStatement(int resultSetType, int resultSetConcurrency) {
-        return connector.post(format("%s/statement?type=%d&concurrency=%d", entityUrl, resultSetType, resultSetConcurrency), null, StatementProxy.class).withConnection(this);
+        return createStatement(Map.of("type", resultSetType, "concurrency", resultSetConcurrency));
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) {
-        return connector.post(format("%s/prepared-statement?type=%d&concurrency=%d", entityUrl, resultSetType, resultSetConcurrency), sql, PreparedStatementProxy.class).withConnection(this);
+        return prepare(format("prepared-statement?type=%d&concurrency=%d", resultSetType, resultSetConcurrency), sql);
     }
 
     @Override
@@ -195,12 +269,12 @@ public class ConnectionProxy extends WrapperProxy implements Connection {
 
     @Override
     public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) {
-        return connector.post(format("%s/statement?type=%d&concurrency=%d&holdability=%d", entityUrl, resultSetType, resultSetConcurrency, resultSetHoldability), null, StatementProxy.class).withConnection(this);
+        return createStatement(Map.of("type", resultSetType, "concurrency", resultSetConcurrency, "holdability", resultSetHoldability));
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) {
-        return connector.post(format("%s/prepared-statement?type=%d&concurrency=%d&holdability=%d", entityUrl, resultSetType, resultSetConcurrency, resultSetHoldability), sql, PreparedStatementProxy.class).withConnection(this);
+        return prepare(format("prepared-statement?type=%d&concurrency=%d&holdability=%d", resultSetType, resultSetConcurrency, resultSetHoldability), sql);
     }
 
     @Override
@@ -210,19 +284,37 @@ public class ConnectionProxy extends WrapperProxy implements Connection {
 
     @Override
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) {
-        return connector.post(format("%s/prepared-statement?keys=%d", entityUrl, autoGeneratedKeys), sql, PreparedStatementProxy.class).withConnection(this);
+        return prepare(format("prepared-statement?keys=%d", autoGeneratedKeys), sql);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int[] columnIndexes) {
         String indices = Arrays.stream(columnIndexes).mapToObj(i -> "" + i).collect(Collectors.joining(","));
-        return connector.post(format("%s/prepared-statement?indexes=%s", entityUrl, indices), sql, PreparedStatementProxy.class).withConnection(this);
+        return prepare(format("prepared-statement?indexes=%s", indices), sql);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, String[] columnNames) {
         String names = Arrays.stream(columnNames).map(n -> "" + encode(n)).collect(Collectors.joining(","));
-        return connector.post(format("%s/prepared-statement?names=%s", entityUrl, names), sql, PreparedStatementProxy.class).withConnection(this);
+        return prepare(format("prepared-statement?names=%s", names), sql);
+    }
+
+    private Statement createStatement(Map<String, Object> options) {
+        StatementProxy statement = new StatementProxy(format("%s/statement", entityUrl), options).withConnection(this);
+        return Boolean.parseBoolean(getConfigurationParameter(LAZY_STATEMENT, "false")) ? statement : statement.create();
+    }
+
+    private PreparedStatement prepare(String path, String sql) {
+        int size = Integer.parseInt(getConfigurationParameter(STATEMENT_CACHE, "0"));
+        if (size <= 0) {
+            return connector.post(format("%s/%s", entityUrl, path), sql, PreparedStatementProxy.class).withConnection(this);
+        }
+        List<String> key = List.of(path, sql);
+        String statementUrl = statementCache.take(key);
+        PreparedStatementProxy statement = statementUrl == null ?
+                connector.post(format("%s/%s", entityUrl, path), sql, PreparedStatementProxy.class) :
+                new PreparedStatementProxy(statementUrl);
+        return statement.withConnection(this).withCache(closed -> statementCache.release(key, closed.getEntityUrl(), size));
     }
 
     @Override
@@ -3,18 +3,21 @@ package com.nosqldriver.jdbc.http.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.nosqldriver.jdbc.http.HttpConnector;
+import com.nosqldriver.jdbc.http.HttpConnectors;
 
 public abstract class EntityProxy {
+    // not final: a statement created lazily gets its URL when it is created on server, see StatementProxy
     @JsonProperty
-    protected final String entityUrl;
+    protected String entityUrl;
     @JsonProperty
     protected final Class<?> clazz;
     @JsonIgnore
-    protected final HttpConnector connector = new HttpConnector();
+    protected final HttpConnector connector;
 
     protected EntityProxy(String entityUrl, Class<?> clazz) {
         this.entityUrl = entityUrl;
         this.clazz = clazz;
+        connector = HttpConnectors.get(entityUrl);
     }
 
     // setters are translated to HTTP PUT request although by the book PATCH should be used.
@@ -22,35 +25,39 @@ public abstract class EntityProxy {
     // see HttpUrlConnection:
     // private static final String[] methods = {"GET", "POST", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE"};
     protected <T> void set(int parameterIndex, Class<?> type, String typeName, T value) {
-        connector.put(entityUrl, new ParameterValue<>(parameterIndex, type, typeName, value, null), Void.class);
+        set(new ParameterValue<>(parameterIndex, type, typeName, value, null));
     }
 
     protected <T, A> void set(int parameterIndex, Class<?> type, String typeName, T value, A additionalArgument) {
-        connector.put(entityUrl, new ParameterValue<>(parameterIndex, type, typeName, value, additionalArgument), Void.class);
+        set(new ParameterValue<>(parameterIndex, type, typeName, value, additionalArgument));
     }
 
     protected <T, A> void set(int parameterIndex, Class<?> type, T value, A additionalArgument) {
-        connector.put(entityUrl, new ParameterValue<>(parameterIndex, type, value, additionalArgument), Void.class);
+        set(new ParameterValue<>(parameterIndex, type, value, additionalArgument));
     }
 
     protected <T> void set(int parameterIndex, Class<?> type, T value) {
-        connector.put(entityUrl, new ParameterValue<>(parameterIndex, type, value), Void.class);
+        set(new ParameterValue<>(parameterIndex, type, value));
     }
 
     protected <T, A> void set(String parameterName, Class<?> type, String typeName, T value) {
-        connector.put(entityUrl, new ParameterValue<>(parameterName, type, typeName, value, null), Void.class);
+        set(new ParameterValue<>(parameterName, type, typeName, value, null));
     }
 
     protected <T, A> void set(String parameterName, Class<?> type, String typeName, T value, A additionalArgument) {
-        connector.put(entityUrl, new ParameterValue<>(parameterName, type, typeName, value, additionalArgument), Void.class);
+        set(new ParameterValue<>(parameterName, type, typeName, value, additionalArgument));
     }
 
     protected <T, A> void set(String parameterName, Class<?> type, T value, A additionalArgument) {
-        connector.put(entityUrl, new ParameterValue<>(parameterName, type, value, additionalArgument), Void.class);
+        set(new ParameterValue<>(parameterName, type, value, additionalArgument));
     }
 
     protected <T> void set(String parameterName, Class<?> type, T value) {
-        connector.put(entityUrl, new ParameterValue<>(parameterName, type, value), Void.class);
+        set(new ParameterValue<>(parameterName, type, value));
+    }
+
+    protected void set(ParameterValue<?, ?> parameterValue) {
+        connector.put(entityUrl, parameterValue, Void.class);
     }
 
     public String getEntityUrl() {
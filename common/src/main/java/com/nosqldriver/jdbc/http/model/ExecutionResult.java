@@ -0,0 +1,31 @@
+package com.nosqldriver.jdbc.http.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Result of the first execution of a statement created lazily by the client: the URL of the statement that has been
+ * created on server by the execution and the value returned by it (update count or the flag returned by {@code execute()}).
+ */
+public class ExecutionResult {
+    @JsonProperty private final String statementUrl;
+    @JsonProperty private final Object value;
+
+    @JsonCreator
+    public ExecutionResult(@JsonProperty("statementUrl") String statementUrl, @JsonProperty("value") Object value) {
+        this.statementUrl = statementUrl;
+        this.value = value;
+    }
+
+    public String getStatementUrl() {
+        return statementUrl;
+    }
+
+    // Small numbers are parsed as integers even if the execution returned long.
+    public <T> T getValue(Class<T> type) {
+        if (Long.class.equals(type) && value instanceof Number) {
+            return type.cast(((Number)value).longValue());
+        }
+        return type.cast(value);
+    }
+}
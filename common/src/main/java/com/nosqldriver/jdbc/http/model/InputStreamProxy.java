@@ -4,27 +4,92 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.nosqldriver.jdbc.http.HttpConnector;
+import com.nosqldriver.jdbc.http.HttpConnectors;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+
+import static java.lang.String.format;
 
 public class InputStreamProxy extends InputStream {
     @JsonProperty
     private final String url;
     @JsonIgnore
-    protected final HttpConnector connector = new HttpConnector();
+    protected final HttpConnector connector;
+    @JsonIgnore
+    private final byte[] buffer;
+    @JsonIgnore
+    private int position = 0;
+    @JsonIgnore
+    private int limit = 0;
+    @JsonIgnore
+    private boolean eof = false;
 
     @JsonCreator
     public InputStreamProxy(@JsonProperty("url") String url) {
         this.url = url;
+        connector = HttpConnectors.get(url);
+        buffer = new byte[HttpConnector.getStreamChunkSize()];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= limit && fill() < 0) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
     }
 
     @Override
-    public int read() {
-        return connector.get(url, int.class);
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= limit) {
+            // large reads go directly to the caller's array; there is no reason to copy them through the buffer
+            if (len >= buffer.length) {
+                return eof ? -1 : readChunk(b, off, len);
+            }
+            if (fill() < 0) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
     }
 
     @Override
     public void close() {
         connector.delete(url, null, Void.class);
     }
+
+    private int fill() throws IOException {
+        if (eof) {
+            return -1;
+        }
+        position = 0;
+        limit = Math.max(readChunk(buffer, 0, buffer.length), 0);
+        return eof ? -1 : limit;
+    }
+
+    private int readChunk(byte[] b, int off, int len) throws IOException {
+        try (InputStream in = connector.get(format("%s/bytes/%d", url, len), InputStream.class)) {
+            int n = in.readNBytes(b, off, len);
+            // reaching the end of the body lets the transport reuse the connection
+            in.transferTo(OutputStream.nullOutputStream());
+            if (n == 0) {
+                eof = true;
+                return -1;
+            }
+            return n;
+        }
+    }
 }
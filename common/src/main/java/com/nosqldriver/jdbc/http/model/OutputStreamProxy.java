@@ -4,32 +4,73 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.nosqldriver.jdbc.http.HttpConnector;
+import com.nosqldriver.jdbc.http.HttpConnectors;
 
 import java.io.OutputStream;
+import java.util.Arrays;
 
 public class OutputStreamProxy extends OutputStream {
+    private static final String OCTET_STREAM = "application/octet-stream";
     @JsonProperty
     private final String url;
     @JsonIgnore
-    protected final HttpConnector connector = new HttpConnector();
+    protected final HttpConnector connector;
+    @JsonIgnore
+    private final byte[] buffer;
+    @JsonIgnore
+    private int count = 0;
 
     @JsonCreator
     public OutputStreamProxy(@JsonProperty("url") String url) {
         this.url = url;
+        connector = HttpConnectors.get(url);
+        buffer = new byte[HttpConnector.getStreamChunkSize()];
     }
 
     @Override
     public void write(int b) {
-        connector.put(url, b, Void.class);
+        if (count >= buffer.length) {
+            send();
+        }
+        buffer[count++] = (byte)b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (len >= buffer.length) {
+            send();
+            for (int chunk = off; chunk < off + len; chunk += buffer.length) {
+                connector.put(url + "/bytes", Arrays.copyOfRange(b, chunk, Math.min(chunk + buffer.length, off + len)), OCTET_STREAM, Void.class);
+            }
+            return;
+        }
+        if (len > buffer.length - count) {
+            send();
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
     }
 
     @Override
     public void flush() {
+        send();
         connector.post(url + "/flush", null, Void.class);
     }
 
     @Override
     public void close() {
-        connector.delete(url, null, Void.class);
+        try {
+            send();
+        } finally {
+            connector.delete(url, null, Void.class);
+        }
+    }
+
+    private void send() {
+        if (count > 0) {
+            byte[] content = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+            count = 0;
+            connector.put(url + "/bytes", content, OCTET_STREAM, Void.class);
+        }
     }
 }
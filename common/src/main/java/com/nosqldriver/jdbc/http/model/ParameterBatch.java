@@ -0,0 +1,66 @@
+package com.nosqldriver.jdbc.http.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact representation of rows of prepared statement parameters collected by {@code addBatch()}.
+ * Types of parameters are usually the same in all rows, so they are sent once per distinct "shape" (template),
+ * and each row contains the index of its template and the plain values only.
+ */
+public class ParameterBatch {
+    @JsonProperty private final List<ParameterValue<?, ?>[]> templates;
+    @JsonProperty private final int[] shapes;
+    @JsonProperty private final Object[][] values;
+
+    @JsonCreator
+    public ParameterBatch(
+            @JsonProperty("templates") List<ParameterValue<?, ?>[]> templates,
+            @JsonProperty("shapes") int[] shapes,
+            @JsonProperty("values") Object[][] values) {
+        this.templates = templates;
+        this.shapes = shapes;
+        this.values = values;
+    }
+
+    public static ParameterBatch of(List<ParameterValue<?, ?>[]> rows) {
+        List<ParameterValue<?, ?>[]> templates = new ArrayList<>();
+        Map<List<Object>, Integer> templateIndexes = new HashMap<>();
+        int[] shapes = new int[rows.size()];
+        Object[][] values = new Object[rows.size()][];
+        for (int i = 0; i < shapes.length; i++) {
+            ParameterValue<?, ?>[] row = rows.get(i);
+            List<Object> key = new ArrayList<>();
+            values[i] = new Object[row.length];
+            for (int j = 0; j < row.length; j++) {
+                key.addAll(Arrays.asList(row[j].getIndex(), row[j].getType(), row[j].getTypeName(), row[j].getAdditionalArgument()));
+                values[i][j] = row[j].getValue();
+            }
+            shapes[i] = templateIndexes.computeIfAbsent(key, k -> {
+                templates.add(Arrays.stream(row).map(p -> new ParameterValue<>(p.getIndex(), p.getType(), p.getTypeName(), null, p.getAdditionalArgument())).toArray(ParameterValue[]::new));
+                return templates.size() - 1;
+            });
+        }
+        return new ParameterBatch(templates, shapes, values);
+    }
+
+    public int size() {
+        return shapes.length;
+    }
+
+    public ParameterValue<?, ?>[] getRow(int i) {
+        ParameterValue<?, ?>[] template = templates.get(shapes[i]);
+        ParameterValue<?, ?>[] row = new ParameterValue<?, ?>[template.length];
+        for (int j = 0; j < template.length; j++) {
+            ParameterValue<?, ?> p = template[j];
+            row[j] = new ParameterValue<>(p.getIndex(), p.getType(), p.getTypeName(), values[i][j], p.getAdditionalArgument());
+        }
+        return row;
+    }
+}
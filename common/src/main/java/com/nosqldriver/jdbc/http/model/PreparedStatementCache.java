@@ -0,0 +1,50 @@
+package com.nosqldriver.jdbc.http.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * URLs of prepared statements closed by the application that stay open on server, so preparing the same SQL with the
+ * same options again reuses one of them without a round trip to the server. Every reuse gets its own proxy, so the proxy
+ * closed by the application cannot touch the statement any more. When there are more statements than the size of the
+ * cache, the least recently used ones are closed on server.
+ */
+class PreparedStatementCache {
+    private final Map<List<String>, String> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private final Consumer<String> discard;
+    private boolean closed = false;
+
+    PreparedStatementCache(Consumer<String> discard) {
+        this.discard = discard;
+    }
+
+    synchronized String take(List<String> key) {
+        return idle.remove(key);
+    }
+
+    void release(List<String> key, String statementUrl, int size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (closed || idle.containsKey(key)) {
+                evicted.add(statementUrl);
+            } else {
+                idle.put(key, statementUrl);
+                for (Iterator<String> it = idle.values().iterator(); idle.size() > size && it.hasNext();) {
+                    evicted.add(it.next());
+                    it.remove();
+                }
+            }
+        }
+        evicted.forEach(discard);
+    }
+
+    // The server closes the statements together with their connection.
+    synchronized void clear() {
+        closed = true;
+        idle.clear();
+    }
+}
@@ -3,6 +3,8 @@ package com.nosqldriver.jdbc.http.model;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nosqldriver.jdbc.http.SneakyThrower;
+import com.nosqldriver.util.function.Configuration;
 
 import java.io.InputStream;
 import java.io.Reader;
@@ -20,14 +22,34 @@ import java.sql.Ref;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.RowId;
+import java.sql.SQLException;
 import java.sql.SQLXML;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 import static java.lang.String.format;
 
 public class PreparedStatementProxy extends StatementProxy implements PreparedStatement {
+    public static final String BATCH_CHUNK_SIZE = "jdbc.http.batch.chunk.size";
+
+    // parameters and batches are kept locally and sent to server together with execute*()
+    @JsonIgnore
+    private final Map<Integer, ParameterValue<?, ?>> parameters = new TreeMap<>();
+    @JsonIgnore
+    private final List<ParameterValue<?, ?>[]> batch = new ArrayList<>();
+    // returns the statement to the cache of the connection when the application closes it, see ConnectionProxy.STATEMENT_CACHE
+    @JsonIgnore
+    private Consumer<PreparedStatementProxy> cache;
+    // result sets to close when the statement is returned to the cache
+    @JsonIgnore
+    private final List<ResultSetProxy> resultSets = new ArrayList<>();
+
     @JsonCreator
     public PreparedStatementProxy(@JsonProperty("entityUrl") String entityUrl) {
         this(entityUrl, PreparedStatement.class);
@@ -39,12 +61,72 @@ public class PreparedStatementProxy extends StatementProxy implements PreparedSt
 
     @Override
     public ResultSet executeQuery() {
-        return connector.get(format("%s/query", entityUrl), ResultSetProxy.class).withStatement(this);
+        return track(connector.post(format("%s/bind/query", url()), parameters.values(), ResultSetProxy.class).withStatement(this));
+    }
+
+    @Override
+    @JsonIgnore
+    public ResultSet getResultSet() {
+        return track(super.getResultSet());
+    }
+
+    @Override
+    @JsonIgnore
+    public ResultSet getGeneratedKeys() {
+        return track(super.getGeneratedKeys());
+    }
+
+    private ResultSet track(ResultSet rs) {
+        if (cache != null && rs instanceof ResultSetProxy) {
+            synchronized (resultSets) {
+                resultSets.removeIf(r -> !r.isOpen());
+                resultSets.add((ResultSetProxy)rs);
+            }
+        }
+        return rs;
+    }
+
+    @Override
+    public void close() {
+        if (cache == null || isConfigured()) {
+            super.close();
+            return;
+        }
+        if (!closeLocally()) {
+            return;
+        }
+        clearParameters();
+        clearBatch();
+        List<ResultSetProxy> open;
+        synchronized (resultSets) {
+            open = new ArrayList<>(resultSets);
+            resultSets.clear();
+        }
+        try {
+            for (ResultSetProxy rs : open) {
+                if (rs.isOpen()) {
+                    rs.close();
+                }
+            }
+        } catch (SQLException e) {
+            SneakyThrower.sneakyThrow(e);
+        } finally {
+            cache.accept(this);
+        }
+    }
+
+    // The statement closed by the application has been returned to the cache and may be already used by another proxy.
+    @Override
+    protected String url() {
+        if (cache != null && isClosedLocally()) {
+            SneakyThrower.sneakyThrow(new SQLException("Statement is closed"));
+        }
+        return super.url();
     }
 
     @Override
     public int executeUpdate() {
-        return connector.get(format("%s/update", entityUrl), Integer.class);
+        return connector.post(format("%s/bind/update", url()), parameters.values(), Integer.class);
     }
 
     @Override
@@ -134,7 +216,7 @@ public class PreparedStatementProxy extends StatementProxy implements PreparedSt
 
     @Override
     public void clearParameters() {
-        connector.delete(format("%s", entityUrl), null, Void.class);
+        parameters.clear();
     }
 
     @Override
@@ -149,12 +231,55 @@ public class PreparedStatementProxy extends StatementProxy implements PreparedSt
 
     @Override
     public boolean execute() {
-        return connector.get(format("%s/execute", entityUrl), Boolean.class);
+        return connector.post(format("%s/bind/execute", url()), parameters.values(), Boolean.class);
     }
 
     @Override
     public void addBatch() {
-        connector.put(format("%s/batch", entityUrl), null, Void.class);
+        batch.add(parameters.values().toArray(new ParameterValue<?, ?>[0]));
+    }
+
+    @Override
+    public void clearBatch() {
+        batch.clear();
+    }
+
+    @Override
+    public int[] executeBatch() {
+        return executeBatch("batch", int[].class);
+    }
+
+    @Override
+    public long[] executeLargeBatch() {
+        return executeBatch("large/batch", long[].class);
+    }
+
+    // Huge batch is sent in several chunks; all but the last one are just added to the batch on server side.
+    private <T> T executeBatch(String path, Class<T> resultType) {
+        int batchChunkSize = Integer.parseInt(Configuration.getConfigurationParameter(BATCH_CHUNK_SIZE, "10000"));
+        boolean done = false;
+        try {
+            int from = 0;
+            for (; batch.size() - from > batchChunkSize; from += batchChunkSize) {
+                connector.put(format("%s/bind/batch", url()), ParameterBatch.of(batch.subList(from, from + batchChunkSize)), Void.class);
+            }
+            T result = connector.post(format("%s/bind/%s", url(), path), ParameterBatch.of(batch.subList(from, batch.size())), resultType);
+            done = true;
+            return result;
+        } finally {
+            batch.clear();
+            if (!done) {
+                clearServerBatch();
+            }
+        }
+    }
+
+    private void clearServerBatch() {
+        try {
+            connector.delete(format("%s/batch", url()), null, Void.class);
+        } catch (Exception e) {
+            // the original failure is more important
+        }
     }
 
     @Override
@@ -185,7 +310,7 @@ public class PreparedStatementProxy extends StatementProxy implements PreparedSt
     @Override
     @JsonIgnore
     public ResultSetMetaData getMetaData() {
-        return connector.get(format("%s/metadata", entityUrl), TransportableResultSetMetaData.class);
+        return connector.get(format("%s/metadata", url()), TransportableResultSetMetaData.class);
     }
 
     @Override
@@ -216,7 +341,7 @@ public class PreparedStatementProxy extends StatementProxy implements PreparedSt
     @Override
     @JsonIgnore
     public ParameterMetaData getParameterMetaData() {
-        return connector.get(format("%s/parametermetadata", entityUrl), TransportableParameterMetaData.class);
+        return connector.get(format("%s/parametermetadata", url()), TransportableParameterMetaData.class);
     }
 
     @Override
@@ -314,10 +439,24 @@ public class PreparedStatementProxy extends StatementProxy implements PreparedSt
         set(parameterIndex, NClob.class, reader);
     }
 
+    @Override
+    protected void set(ParameterValue<?, ?> parameterValue) {
+        if (parameterValue.getName() == null) {
+            parameters.put(parameterValue.getIndex(), parameterValue);
+        } else {
+            super.set(parameterValue);
+        }
+    }
+
     @Override
     public PreparedStatementProxy withConnection(Connection connection) {
         super.withConnection(connection);
         return this;
     }
 
+    PreparedStatementProxy withCache(Consumer<PreparedStatementProxy> cache) {
+        this.cache = cache;
+        return this;
+    }
+
 }
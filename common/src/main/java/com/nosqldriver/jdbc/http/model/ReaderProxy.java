@@ -4,35 +4,70 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.nosqldriver.jdbc.http.HttpConnector;
+import com.nosqldriver.jdbc.http.HttpConnectors;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class ReaderProxy extends Reader {
     @JsonProperty
     private final String url;
     @JsonIgnore
-    protected final HttpConnector connector = new HttpConnector();
+    protected final HttpConnector connector;
+    @JsonIgnore
+    private final int chunkSize;
+    @JsonIgnore
+    private char[] buffer = new char[0];
+    @JsonIgnore
+    private int position = 0;
+    @JsonIgnore
+    private boolean eof = false;
 
     @JsonCreator
     public ReaderProxy(@JsonProperty("url") String url) {
         this.url = url;
+        connector = HttpConnectors.get(url);
+        chunkSize = HttpConnector.getStreamChunkSize();
     }
 
     @Override
     public int read(char[] cbuf, int off, int len) throws IOException {
-        char[] chars = connector.get(format("%s/%d/%d", url, off, len), char[].class);
-        if (chars == null) {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= buffer.length && !fill()) {
             return -1;
         }
-        System.arraycopy(chars, 0, cbuf, off, chars.length);
-        return chars.length;
+        int n = Math.min(len, buffer.length - position);
+        System.arraycopy(buffer, position, cbuf, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public boolean ready() {
+        return position < buffer.length;
     }
 
     @Override
     public void close() {
         connector.delete(url, null, Void.class);
     }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        // the server may return one extra character to avoid splitting a surrogate pair
+        try (InputStream in = connector.get(format("%s/chars/%d", url, chunkSize), InputStream.class)) {
+            buffer = new String(in.readAllBytes(), UTF_8).toCharArray();
+        }
+        position = 0;
+        eof = buffer.length == 0;
+        return !eof;
+    }
 }
@@ -0,0 +1,176 @@
+package com.nosqldriver.jdbc.http.model;
+
+import com.nosqldriver.util.function.ThrowingFunction;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Casters of values read from result set to types requested by getters. The casters depend on {@link ConnectionProperties}
+ * only, so they are created once per connection properties and shared by all result sets.
+ */
+class ResultSetCasters {
+    @FunctionalInterface
+    interface Caster<T> {
+        T cast(Object obj, Class<?> to, ColumnAccessor column) throws SQLException;
+    }
+
+    private static final Map<Class<?>, Function<Object, Object>> bigDecimalCasters = Stream.of(
+            new SimpleEntry<Class<?>, Function<Object, Object>>(Boolean.class, e -> e == null ? false : BigDecimal.valueOf(((Boolean)e) ? 1 : 0)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(Byte.class, e -> e == null ? 0 : BigDecimal.valueOf((Byte)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(byte.class, e -> e == null ? 0 : BigDecimal.valueOf((byte)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(Short.class, e -> e == null ? 0 : BigDecimal.valueOf((Short)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(short.class, e -> e == null ? 0 : BigDecimal.valueOf((short)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(Integer.class, e -> e == null ? 0 : BigDecimal.valueOf((Integer)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(int.class, e -> e == null ? 0 : BigDecimal.valueOf((int)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(Long.class, e -> e == null ? 0 : BigDecimal.valueOf((Long)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(long.class, e -> e == null ? 0 : BigDecimal.valueOf((long)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(Float.class, e -> e == null ? 0.0 : BigDecimal.valueOf((Float)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(float.class, e -> e == null ? 0.0 : BigDecimal.valueOf((float)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(Double.class, e -> e == null ? 0.0 : BigDecimal.valueOf((Double)e)),
+            new SimpleEntry<Class<?>, Function<Object, Object>>(double.class, e -> e == null ? 0.0 : BigDecimal.valueOf((double)e))
+    ).collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
+
+    private static final Function<Object, Object> bigDecimalUnacceptable = o -> {
+        throw new IllegalArgumentException(format("Value '%s' is outside of valid range for type %s", o, BigDecimal.class));
+    };
+
+    private static final Map<Class<?>, Object> defaultValues = Stream.of(
+            new SimpleEntry<>(Byte.class, (byte)0),
+            new SimpleEntry<>(Short.class, (short)0),
+            new SimpleEntry<>(Integer.class, 0),
+            new SimpleEntry<>(Long.class, 0L),
+            new SimpleEntry<>(Float.class, 0.0f),
+            new SimpleEntry<>(Double.class, 0.0),
+            new SimpleEntry<>(Boolean.class, false),
+            new SimpleEntry<>(byte.class, (byte)0),
+            new SimpleEntry<>(short.class, (short)0),
+            new SimpleEntry<>(int.class, 0),
+            new SimpleEntry<>(long.class, 0L),
+            new SimpleEntry<>(float.class, 0.0f),
+            new SimpleEntry<>(double.class, 0.0),
+            new SimpleEntry<>(boolean.class, false)
+    ).collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
+
+    private static class NumericCastor<T> implements Caster<T> {
+        private final Predicate<Object> checker;
+        private final Function<Object, T> actualCastor;
+        private final ThrowingFunction<Boolean, T, SQLException> booleanCastor;
+        private final Class<T> type;
+        private final Function<Character, T> charToNumber;
+
+        private NumericCastor(Predicate<Object> checker, Function<Object, T> actualCastor, ThrowingFunction<Boolean, T, SQLException> booleanCastor, Class<T> type) {
+            this(checker, actualCastor, booleanCastor, type, null);
+        }
+
+        private NumericCastor(Predicate<Object> checker, Function<Object, T> actualCastor, ThrowingFunction<Boolean, T, SQLException> booleanCastor, Class<T> type, Function<Character, T> charToNumber) {
+            this.checker = checker;
+            this.actualCastor = actualCastor;
+            this.booleanCastor = booleanCastor;
+            this.type = type;
+            this.charToNumber = charToNumber;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T cast(Object o, Class<?> to, ColumnAccessor column) throws SQLException {
+            if (o == null) {
+                return (T)defaultValues.get(to);
+            }
+            if (o instanceof Boolean) {
+                return booleanCastor.apply((Boolean)o);
+            }
+            if (column.getSqlType() == Types.CHAR && charToNumber != null) {
+                return charToNumber.apply(((String)o).charAt(0));
+            }
+            if (!checker.test(o)) {
+                throw new IllegalArgumentException(format("Value '%s' is outside of valid range for type %s", o, type));
+            }
+            return actualCastor.apply(o);
+        }
+    }
+
+    private final Map<Class<?>, Caster<?>> casters = new HashMap<>();
+
+    ResultSetCasters(ConnectionProperties connectionProperties) {
+        casters.put(byte.class, new NumericCastor<>(e -> inRange(e, Byte.MIN_VALUE, Byte.MAX_VALUE), e -> (byte)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (byte)(b ? 1 : 0)), Byte.class, connectionProperties.isCharToByte() ? connectionProperties::toByte: null));
+        casters.put(short.class, new NumericCastor<>(e -> inRange(e, Short.MIN_VALUE, Short.MAX_VALUE), e -> (short)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (short)(b ? 1 : 0)), Short.class));
+        casters.put(int.class, new NumericCastor<>(e -> inRange(e, Integer.MIN_VALUE, Integer.MAX_VALUE), e -> (int)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (b ? 1 : 0)), Integer.class));
+        casters.put(long.class, new NumericCastor<>(e -> inRange(e, Long.MIN_VALUE, Long.MAX_VALUE), e -> connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (long)(b ? 1 : 0)), Long.class));
+        casters.put(float.class, new NumericCastor<>(e -> inRange(e, -Float.MAX_VALUE, Float.MAX_VALUE), e -> ((Number) e).floatValue(), connectionProperties.booleanToNumber(f -> (f ? 1.f : 0.f)), float.class));
+        casters.put(double.class, new NumericCastor<>(e -> inRange(e, -Double.MAX_VALUE, Double.MAX_VALUE), e -> ((Number) e).doubleValue(), connectionProperties.booleanToNumber(f -> (f ? 1. : 0.f)), double.class));
+        casters.put(Byte.class, new NumericCastor<>(e -> inRange(e, Byte.MIN_VALUE, Byte.MAX_VALUE), e -> (byte)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (byte)(b ? 1 : 0)), Byte.class, connectionProperties.isCharToByte() ? c -> (byte)connectionProperties.toByte(c) : null));
+        casters.put(Short.class, new NumericCastor<>(e -> inRange(e, Short.MIN_VALUE, Short.MAX_VALUE), e -> (short)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (short)(b ? 1 : 0)), Short.class));
+        casters.put(Integer.class, new NumericCastor<>(e -> inRange(e, Integer.MIN_VALUE, Integer.MAX_VALUE), e -> (int)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (b ? 1 : 0)), Integer.class));
+        casters.put(Long.class, new NumericCastor<>(e -> inRange(e, Long.MIN_VALUE, Long.MAX_VALUE), e -> connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (long)(b ? 1 : 0)), Long.class));
+        casters.put(Float.class, new NumericCastor<>(e -> inRange(e, -Float.MAX_VALUE, Float.MAX_VALUE), e -> ((Number) e).floatValue(), connectionProperties.booleanToNumber(f -> (f ? 1.f : 0.f)), Float.class));
+        casters.put(Double.class, new NumericCastor<>(e -> inRange(e, -Double.MAX_VALUE, Double.MAX_VALUE), e -> ((Number) e).doubleValue(), connectionProperties.booleanToNumber(f -> (f ? 1. : 0.f)), Double.class));
+
+        casters.put(BigDecimal.class, (o, to, column) -> {
+            if (o == null) {
+                return null;
+            }
+            Object value = Optional.ofNullable(bigDecimalCasters.get(o.getClass())).orElse(bigDecimalUnacceptable).apply(o);
+            if (o instanceof Boolean) {
+                if (connectionProperties.isBooleanToNumber()) {
+                    return value;
+                }
+                throw new SQLException("Cannot cast boolean to BigDecimal");
+            }
+            return value;
+        });
+
+        casters.put(Blob.class, (o, to, column) -> connectionProperties.asBlob(o, column.getColumnClass(), column.getMetadata(), column.getIndex()));
+        casters.put(Clob.class, (o, to, column) -> connectionProperties.asClob(o, column.getColumnClass()));
+        casters.put(NClob.class, (o, to, column) -> connectionProperties.asNClob(o, column.getColumnClass()));
+        casters.put(Date.class, (o, to, column) -> connectionProperties.asDate(o, column.getSqlType()));
+        casters.put(Time.class, (o, to, column) -> connectionProperties.asTime(o, column.getSqlType()));
+        casters.put(Timestamp.class, (o, to, column) -> connectionProperties.asTimestamp(o, column.getSqlType()));
+        casters.put(Boolean.class, (o, to, column) -> connectionProperties.asBoolean(o));
+        casters.put(boolean.class, (o, to, column) -> connectionProperties.asBoolean(o));
+        casters.put(Array.class, (o, to, column) -> connectionProperties.asArray(o));
+    }
+
+    Caster<?> get(Class<?> to) {
+        return casters.get(to);
+    }
+
+    static Object defaultValue(Class<?> type) {
+        return defaultValues.get(type);
+    }
+
+    // The bounds are compared as primitives, so the check does not box the value. The lower bound is exclusive.
+    static boolean inRange(Object n, long min, long max) {
+        if (n instanceof Number) {
+            long value = ((Number)n).longValue();
+            return value > min && value <= max;
+        }
+        return n == null || n instanceof Boolean;
+    }
+
+    static boolean inRange(Object n, double min, double max) {
+        if (n instanceof Number) {
+            double value = ((Number)n).doubleValue();
+            return value > min && value <= max;
+        }
+        return n == null || n instanceof Boolean;
+    }
+}
@@ -2,12 +2,15 @@ package com.nosqldriver.jdbc.http.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.nosqldriver.jdbc.http.HttpConnector;
 import com.nosqldriver.jdbc.http.model.ConnectionProperties.StreamType;
-import com.nosqldriver.util.function.ThrowingBiFunction;
 import com.nosqldriver.util.function.ThrowingFunction;
 import com.nosqldriver.util.function.ThrowingSupplier;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
@@ -28,144 +31,59 @@ import java.sql.SQLXML;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
-import java.sql.Types;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.nosqldriver.jdbc.http.Util.encode;
 import static com.nosqldriver.jdbc.http.model.ConnectionProperties.StreamType.ASCII;
 import static com.nosqldriver.jdbc.http.model.ConnectionProperties.StreamType.UNICODE;
+import static com.nosqldriver.util.function.Configuration.getConfigurationParameter;
 import static java.lang.String.format;
 
 public class ResultSetProxy extends WrapperProxy implements ResultSet {
-    private static final Map<Class<?>, Function<Object, Object>> bigDecimalCasters = Stream.of(
-            new SimpleEntry<Class<?>, Function<Object, Object>>(Boolean.class, e -> e == null ? false : BigDecimal.valueOf(((Boolean)e) ? 1 : 0)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(Byte.class, e -> e == null ? 0 : BigDecimal.valueOf((Byte)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(byte.class, e -> e == null ? 0 : BigDecimal.valueOf((byte)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(Short.class, e -> e == null ? 0 : BigDecimal.valueOf((Short)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(short.class, e -> e == null ? 0 : BigDecimal.valueOf((short)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(Integer.class, e -> e == null ? 0 : BigDecimal.valueOf((Integer)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(int.class, e -> e == null ? 0 : BigDecimal.valueOf((int)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(Long.class, e -> e == null ? 0 : BigDecimal.valueOf((Long)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(long.class, e -> e == null ? 0 : BigDecimal.valueOf((long)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(Float.class, e -> e == null ? 0.0 : BigDecimal.valueOf((Float)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(float.class, e -> e == null ? 0.0 : BigDecimal.valueOf((float)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(Double.class, e -> e == null ? 0.0 : BigDecimal.valueOf((Double)e)),
-            new SimpleEntry<Class<?>, Function<Object, Object>>(double.class, e -> e == null ? 0.0 : BigDecimal.valueOf((double)e))
-    ).collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
-
-    private static final Function<Object, Object> bigDecimalUnacceptable = o -> {
-        throw new IllegalArgumentException(format("Value '%s' is outside of valid range for type %s", o, BigDecimal.class));
-    };
-
-    private static class CastorArg {
-        private final Object obj;
-        private final Class<?> from;
-        private final Class<?> to;
-        private final int sqlType;
-        private final int columnIndex;
-
-        public CastorArg(Object obj, Class<?> from, Class<?> to, int sqlType, int columnIndex) {
-            this.obj = obj;
-            this.from = from;
-            this.to = to;
-            this.sqlType = sqlType;
-            this.columnIndex = columnIndex;
-        }
-
-        public Object getObj() {
-            return obj;
-        }
-
-        public Class<?> getFrom() {
-            return from;
-        }
-
-        public Class<?> getTo() {
-            return to;
-        }
-
-        public int getSqlType() {
-            return sqlType;
-        }
-
-        public int getColumnIndex() {
-            return columnIndex;
-        }
-    }
-
-    private final Map<Class<?>, ThrowingFunction<CastorArg, ? extends Object, SQLException>> casters;
-
-    private static class NumericCastor<T> implements ThrowingFunction<CastorArg, T, SQLException> {
-        private final Predicate<Object> checker;
-        private final Function<Object, T> actualCastor;
-        private final ThrowingFunction<Boolean, T, SQLException> booleanCastor;
-        private final Class<T> type;
-        private final Function<Character, T> charToNumber;
-
-        private NumericCastor(Predicate<Object> checker, Function<Object, T> actualCastor, ThrowingFunction<Boolean, T, SQLException> booleanCastor, Class<T> type) {
-            this(checker, actualCastor, booleanCastor, type, null);
-        }
-
-        private NumericCastor(Predicate<Object> checker, Function<Object, T> actualCastor, ThrowingFunction<Boolean, T, SQLException> booleanCastor, Class<T> type, Function<Character, T> charToNumber) {
-            this.checker = checker;
-            this.actualCastor = actualCastor;
-            this.booleanCastor = booleanCastor;
-            this.type = type;
-            this.charToNumber = charToNumber;
-        }
-
-
-        @Override
-        public T apply(CastorArg arg) throws SQLException {
-            Object o = arg.getObj();
-            if (o == null) {
-                return (T)defaultValues.get(arg.getTo());
-            }
-            if (o instanceof Boolean) {
-                return booleanCastor.apply((Boolean)o);
-            }
-            if (arg.getSqlType() == Types.CHAR && charToNumber != null) {
-                return charToNumber.apply(((String)o).charAt(0));
-            }
-            if (!checker.test(o)) {
-                throw new IllegalArgumentException(format("Value '%s' is outside of valid range for type %s", o, type));
-            }
-            return actualCastor.apply(o);
-        }
-    }
-
-    private static final Map<Class<?>, Object> defaultValues = Stream.of(
-            new SimpleEntry<>(Byte.class, (byte)0),
-            new SimpleEntry<>(Short.class, (short)0),
-            new SimpleEntry<>(Integer.class, 0),
-            new SimpleEntry<>(Long.class, 0L),
-            new SimpleEntry<>(Float.class, 0.0f),
-            new SimpleEntry<>(Double.class, 0.0),
-            new SimpleEntry<>(Boolean.class, false),
-            new SimpleEntry<>(byte.class, (byte)0),
-            new SimpleEntry<>(short.class, (short)0),
-            new SimpleEntry<>(int.class, 0),
-            new SimpleEntry<>(long.class, 0L),
-            new SimpleEntry<>(float.class, 0.0f),
-            new SimpleEntry<>(double.class, 0.0),
-            new SimpleEntry<>(boolean.class, false)
-    ).collect(Collectors.toMap(SimpleEntry::getKey, SimpleEntry::getValue));
-
+    public static final String STREAMING = "jdbc.http.resultset.streaming";
+    public static final String COLUMNAR = "jdbc.http.resultset.columnar";
+    public static final String PREFETCH = "jdbc.http.resultset.prefetch";
+    private static final ExecutorService prefetcher = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "result-set-prefetcher");
+        thread.setDaemon(true);
+        return thread;
+    });
     @JsonProperty
     private final ConnectionProperties connectionProperties;
+    private final ResultSetCasters casters;
+    // forward batches are requested in column-major format
+    private final boolean columnar = Boolean.parseBoolean(getConfigurationParameter(COLUMNAR, "false"));
+    // part of the current batch read by the application after which the next batch is requested in background; 0 disables prefetch
+    private final double prefetchMark = Double.parseDouble(getConfigurationParameter(PREFETCH, "0"));
+    // only forward-only read-only result sets are prefetched and streamed; null until it is needed
+    private Boolean forwardReadOnly = null;
+    private String prefetchUrl = null;
+    private CompletableFuture<RowData[]> prefetched = null;
+    // milliseconds; it is updated by the prefetching thread too
+    private volatile Long roundTrip = null;
     private Statement statement;
-    private ResultSetMetaData md;
+    @JsonProperty("metadata")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TransportableResultSetMetaData md;
+    private ColumnAccessor[] columns = null;
     // TODO: fix multi-threading support (rowData and wasNull)
+    @JsonProperty("rows")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private RowData[] rows = null;
-    private int localRowIndex = 0;
+    // true if rows contain the whole result, so the result set on server side is already closed
+    @JsonProperty("exhausted")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean exhausted = false;
+    private int localRowIndex = -1;
+    // number of the row the cursor is on: 0 is before the first row; null if unknown
+    private Integer position = 0;
+    // rows of forward-only result set that are being read from single chunked response
+    private MappingIterator<RowData> stream = null;
     private volatile boolean wasNull = false;
     private volatile boolean closed = false;
 
@@ -178,61 +96,39 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     public ResultSetProxy(@JsonProperty("entityUrl") String entityUrl, @JsonProperty("connectionProperties") ConnectionProperties connectionProperties) {
         super(entityUrl, ResultSet.class);
         this.connectionProperties = connectionProperties;
-        casters = new HashMap<>();
-
-        casters.put(byte.class, new NumericCastor<>(e -> inRange(e, Byte.MIN_VALUE, Byte.MAX_VALUE), e -> (byte)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (byte)(b ? 1 : 0)), Byte.class, connectionProperties.isCharToByte() ? connectionProperties::toByte: null));
-        casters.put(short.class, new NumericCastor<>(e -> inRange(e, Short.MIN_VALUE, Short.MAX_VALUE), e -> (short)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (short)(b ? 1 : 0)), Short.class));
-        casters.put(int.class, new NumericCastor<>(e -> inRange(e, Integer.MIN_VALUE, Integer.MAX_VALUE), e -> (int)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (b ? 1 : 0)), Integer.class));
-        casters.put(long.class, new NumericCastor<>(e -> inRange(e, Long.MIN_VALUE, Long.MAX_VALUE), e -> connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (long)(b ? 1 : 0)), Long.class));
-        casters.put(float.class, new NumericCastor<>(e -> inRange(e, -Float.MAX_VALUE, Float.MAX_VALUE), e -> ((Number) e).floatValue(), connectionProperties.booleanToNumber(f -> (f ? 1.f : 0.f)), float.class));
-        casters.put(double.class, new NumericCastor<>(e -> inRange(e, -Double.MAX_VALUE, Double.MAX_VALUE), e -> ((Number) e).doubleValue(), connectionProperties.booleanToNumber(f -> (f ? 1. : 0.f)), double.class));
-        casters.put(Byte.class, new NumericCastor<>(e -> inRange(e, Byte.MIN_VALUE, Byte.MAX_VALUE), e -> (byte)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (byte)(b ? 1 : 0)), Byte.class, connectionProperties.isCharToByte() ? c -> (byte)connectionProperties.toByte(c) : null));
-        casters.put(Short.class, new NumericCastor<>(e -> inRange(e, Short.MIN_VALUE, Short.MAX_VALUE), e -> (short)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (short)(b ? 1 : 0)), Short.class));
-        casters.put(Integer.class, new NumericCastor<>(e -> inRange(e, Integer.MIN_VALUE, Integer.MAX_VALUE), e -> (int)connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (b ? 1 : 0)), Integer.class));
-        casters.put(Long.class, new NumericCastor<>(e -> inRange(e, Long.MIN_VALUE, Long.MAX_VALUE), e -> connectionProperties.toInteger(((Number) e).doubleValue()), connectionProperties.booleanToNumber(b -> (long)(b ? 1 : 0)), Long.class));
-        casters.put(Float.class, new NumericCastor<>(e -> inRange(e, -Float.MAX_VALUE, Float.MAX_VALUE), e -> ((Number) e).floatValue(), connectionProperties.booleanToNumber(f -> (f ? 1.f : 0.f)), Float.class));
-        casters.put(Double.class, new NumericCastor<>(e -> inRange(e, -Double.MAX_VALUE, Double.MAX_VALUE), e -> ((Number) e).doubleValue(), connectionProperties.booleanToNumber(f -> (f ? 1. : 0.f)), Double.class));
-
-        casters.put(BigDecimal.class, arg -> {
-            Object o = arg.getObj();
-            if (o == null) {
-                return null;
-            }
-            Object value = Optional.ofNullable(bigDecimalCasters.get(o.getClass())).orElse(bigDecimalUnacceptable).apply(arg.getObj());
-            if (o instanceof Boolean) {
-                if (connectionProperties.isBooleanToNumber()) {
-                    return value;
-                }
-                throw new SQLException("Cannot cast boolean to BigDecimal");
-            }
-            return value;
-        });
-
-        casters.put(Blob.class, arg -> connectionProperties.asBlob(arg.getObj(), arg.getFrom(), this::getMetaData, arg.getColumnIndex()));
-        casters.put(Clob.class, arg -> connectionProperties.asClob(arg.getObj(), arg.getFrom()));
-        casters.put(NClob.class, arg -> connectionProperties.asNClob(arg.getObj(), arg.getFrom()));
-        casters.put(Date.class, arg -> connectionProperties.asDate(arg.getObj(), arg.getSqlType()));
-        casters.put(Time.class, arg -> connectionProperties.asTime(arg.getObj(), arg.getSqlType()));
-        casters.put(Timestamp.class, arg -> connectionProperties.asTimestamp(arg.getObj(), arg.getSqlType()));
-        casters.put(Boolean.class, arg -> connectionProperties.asBoolean(arg.getObj()));
-        casters.put(boolean.class, arg -> connectionProperties.asBoolean(arg.getObj()));
-        casters.put(Array.class, arg -> connectionProperties.asArray(arg.getObj()));
+        casters = connectionProperties.getResultSetCasters();
     }
 
     @Override
     public boolean next() throws SQLException {
-        return move(format("%s/nextrow", entityUrl), 1);
+        if (stream != null || (md != null && rows != null && !exhausted && localRowIndex == rows.length - 1 && isStreamingEnabled() && isForwardReadOnly())) {
+            return nextStreamed();
+        }
+        String url = format(columnar ? "%s/nextbatch" : "%s/nextrow", entityUrl);
+        boolean moved = move(url, 1);
+        if (prefetchMark > 0) {
+            prefetch(url);
+        }
+        return moved;
     }
 
     @Override
     public void close() throws SQLException {
-        connector.delete(format("%s", entityUrl), null, Void.class);
+        // closing the stream before its end aborts the response, so the server stops reading the cursor
+        closeStream();
+        discardPrefetched();
+        connector().delete(format("%s", entityUrl), null, Void.class);
         closed = true;
     }
 
+    // An exhausted result set is closed on server but stays registered there until the application closes it.
+    boolean isOpen() {
+        return !closed;
+    }
+
     @Override
     public boolean wasNull() throws SQLException {
-        return rows == null ? connector.get(format("%s/wasnull", entityUrl), Boolean.class) : wasNull;
+        return rows == null ? connector().get(format("%s/wasnull", entityUrl), Boolean.class) : wasNull;
     }
 
     @Override
@@ -262,13 +158,13 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public int getInt(int columnIndex) throws SQLException {
         connectionProperties.throwIfUnsupported("getInt");
-        return getValue("index", columnIndex, int.class, columnIndex);
+        return getInt("index", columnIndex, columnIndex);
     }
 
     @Override
     public long getLong(int columnIndex) throws SQLException {
         connectionProperties.throwIfUnsupported("getLong");
-        return getValue("index", columnIndex, long.class, columnIndex);
+        return getLong("index", columnIndex, columnIndex);
     }
 
     @Override
@@ -280,7 +176,7 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public double getDouble(int columnIndex) throws SQLException {
         connectionProperties.throwIfUnsupported("getDouble");
-        return getValue("index", columnIndex, double.class, columnIndex);
+        return getDouble("index", columnIndex, columnIndex);
     }
 
     @Override
@@ -355,13 +251,13 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public int getInt(String columnLabel) throws SQLException {
         connectionProperties.throwIfUnsupported("getInt");
-        return getValue("label", columnLabel, int.class, getIndex(columnLabel));
+        return getInt("label", columnLabel, getIndex(columnLabel));
     }
 
     @Override
     public long getLong(String columnLabel) throws SQLException {
         connectionProperties.throwIfUnsupported("getLong");
-        return getValue("label", columnLabel, long.class, getIndex(columnLabel));
+        return getLong("label", columnLabel, getIndex(columnLabel));
     }
 
     @Override
@@ -373,7 +269,7 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public double getDouble(String columnLabel) throws SQLException {
         connectionProperties.throwIfUnsupported("getDouble");
-        return getValue("label", columnLabel, double.class, getIndex(columnLabel));
+        return getDouble("label", columnLabel, getIndex(columnLabel));
     }
 
     @Override
@@ -425,20 +321,20 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @JsonIgnore
     public SQLWarning getWarnings() throws SQLException {
         connectionProperties.throwIfUnsupported("getWarnings");
-        return connector.get(format("%s/warnings", entityUrl), TransportableSQLWarning.class);
+        return connector().get(format("%s/warnings", entityUrl), TransportableSQLWarning.class);
     }
 
     @Override
     public void clearWarnings() throws SQLException {
         connectionProperties.throwIfUnsupported("clearWarnings");
-        connector.delete(format("%s/warnings", entityUrl), null, Void.class);
+        connector().delete(format("%s/warnings", entityUrl), null, Void.class);
     }
 
     @Override
     @JsonIgnore
     public String getCursorName() throws SQLException {
         connectionProperties.throwIfUnsupported("getCursorName");
-        return connector.get(format("%s/cursorname", entityUrl), String.class);
+        return connector().get(format("%s/cursorname", entityUrl), String.class);
     }
 
     @Override
@@ -446,7 +342,7 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     public ResultSetMetaData getMetaData() throws SQLException {
         connectionProperties.throwIfUnsupported("getMetaData");
         if (md == null) {
-            md = connector.get(format("%s/metadata", entityUrl), TransportableResultSetMetaData.class);
+            md = connector().get(format("%s/metadata", entityUrl), TransportableResultSetMetaData.class);
         }
         return md;
     }
@@ -454,34 +350,25 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public Object getObject(int columnIndex) throws SQLException {
         connectionProperties.throwIfUnsupported("getObject");
-        Class clazz = Object.class;
-        String className = getMetaData().getColumnClassName(columnIndex);
-        if (className != null) {
-            clazz = getColumnClass(className);
-        }
+        Class<?> clazz = column(columnIndex).getColumnClass();
+        connectionProperties.throwIfUnsupported("get" + clazz.getSimpleName());
         return getValue("index", columnIndex, clazz, columnIndex);
     }
 
     @Override
     public Object getObject(String columnLabel) throws SQLException {
         connectionProperties.throwIfUnsupported("getObject");
-        ResultSetMetaData md = getMetaData();
-        int n = md.getColumnCount();
-        String columnTypeName = Object.class.getName();
-        for (int i = 1; i <= n; i++) {
-            if (columnLabel.equals(md.getColumnLabel(i))) {
-                columnTypeName = md.getColumnClassName(i);
-                break;
-            }
-        }
-        Class<?> clazz = columnTypeName == null ? Object.class : getColumnClass(columnTypeName);
-        return getValue("label", columnLabel, clazz, getIndex(columnLabel));
+        Integer columnIndex = getIndex(columnLabel);
+        Class<?> clazz = columnIndex == null ? Object.class : column(columnIndex).getColumnClass();
+        connectionProperties.throwIfUnsupported("get" + clazz.getSimpleName());
+        return getValue("label", columnLabel, clazz, columnIndex);
     }
 
     @Override
     public int findColumn(String columnLabel) throws SQLException {
         connectionProperties.throwIfUnsupported("findColumn");
-        return connector.get(format("%s/column/label/%s", entityUrl, encode(columnLabel)), Integer.class);
+        Integer index = md == null ? null : md.getIndex(columnLabel);
+        return index != null ? index : connector().get(format("%s/column/label/%s", entityUrl, encode(columnLabel)), Integer.class);
     }
 
     @Override
@@ -506,41 +393,87 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
         return getValue("label", columnLabel, BigDecimal.class, getIndex(columnLabel));
     }
 
+    // The position is derived from the cached rows whenever it is possible: forward batches are contiguous and end with a row
+    // that is not moved when the cursor has reached the end. The server is asked only if the cursor is on the current row.
     @Override
     @JsonIgnore
     public boolean isBeforeFirst() throws SQLException {
         connectionProperties.throwIfUnsupported("isBeforeFirst");
-        return connector.get(format("%s/is/before/first", entityUrl), boolean.class);
+        if (rows != null) {
+            if (localRowIndex < 0) {
+                return rows[0].isMoved();
+            }
+            if (rows[localRowIndex].isMoved()) {
+                return false;
+            }
+            if (position != null) {
+                return position == 0;
+            }
+        }
+        if (exhausted || stream != null) {
+            return false;
+        }
+        return connector().get(format("%s/is/before/first", entityUrl), boolean.class);
     }
 
     @Override
     @JsonIgnore
     public boolean isAfterLast() throws SQLException {
         connectionProperties.throwIfUnsupported("isAfterLast");
-        return (rows == null || rows[rows.length - 1].getRow() == null) && connector.get(format("%s/is/after/last", entityUrl), boolean.class);
+        if (rows != null) {
+            if (localRowIndex < 0 || rows[localRowIndex].isMoved()) {
+                return false;
+            }
+            // position of the end of non-empty result is greater than 1
+            if (position != null) {
+                return position > 1;
+            }
+        }
+        if (exhausted || stream != null) {
+            return false;
+        }
+        return connector().get(format("%s/is/after/last", entityUrl), boolean.class);
     }
 
     @Override
     @JsonIgnore
     public boolean isFirst() throws SQLException {
-        return isAt("first", "isFirst", RowData::getFirst);
-    }
-
-    private boolean isAt(String path, String getter, Function<RowData, Boolean> is) throws SQLFeatureNotSupportedException {
-        connectionProperties.throwIfUnsupported(getter);
+        connectionProperties.throwIfUnsupported("isFirst");
         if (rows != null) {
-            Boolean isAtPosition = is.apply(rows[localRowIndex]);
-            if (isAtPosition != null) {
-                return isAtPosition;
+            if (localRowIndex < 0 || !rows[localRowIndex].isMoved()) {
+                return false;
+            }
+            if (position != null) {
+                return position == 1;
             }
         }
-        return connector.get(format("%s/is/%s", entityUrl, path), Boolean.class);
+        if (exhausted || stream != null) {
+            return false;
+        }
+        return connector().get(format("%s/is/first", entityUrl), Boolean.class);
     }
 
     @Override
     @JsonIgnore
     public boolean isLast() throws SQLException {
-        return isAt("last", "isLast", RowData::getLast);
+        connectionProperties.throwIfUnsupported("isLast");
+        if (rows != null) {
+            if (localRowIndex < 0 || !rows[localRowIndex].isMoved()) {
+                return false;
+            }
+            if (localRowIndex < rows.length - 1) {
+                return !rows[localRowIndex + 1].isMoved();
+            }
+            // the server cursor is already at the end of the next batch
+            if (prefetched != null) {
+                RowData[] next = prefetchedRows();
+                return next.length == 0 || !next[0].isMoved();
+            }
+        }
+        if (exhausted || stream != null) {
+            return false;
+        }
+        return connector().get(format("%s/is/last", entityUrl), Boolean.class);
     }
 
     @Override
@@ -558,26 +491,29 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public boolean first() throws SQLException {
         connectionProperties.throwIfUnsupported("first");
-        return move(format("%s/firstrow", entityUrl), true);
+        return scroll(format("%s/firstrow", entityUrl), 1);
     }
 
     @Override
     public boolean last() throws SQLException {
         connectionProperties.throwIfUnsupported("last");
-        return move(format("%s/lastrow", entityUrl), false);
+        return scroll(format("%s/lastrow", entityUrl), null);
     }
 
     @Override
     @JsonIgnore
     public int getRow() throws SQLException {
         connectionProperties.throwIfUnsupported("getRow");
-        return connector.get(format("%s/row", entityUrl), int.class);
+        if ((prefetched != null || exhausted || stream != null) && position != null) {
+            return localRowIndex >= 0 && rows[localRowIndex].isMoved() ? position : 0;
+        }
+        return connector().get(format("%s/row", entityUrl), int.class);
     }
 
     @Override
     public boolean absolute(int row) throws SQLException {
         connectionProperties.throwIfUnsupported("absolute");
-        return move(format("%s/absoluterow/%d", entityUrl, row), true);
+        return scroll(format("%s/absoluterow/%d", entityUrl, row), row >= 0 ? row : null);
     }
 
     @Override
@@ -595,59 +531,87 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public void setFetchDirection(int direction) throws SQLException {
         connectionProperties.throwIfUnsupported("setFetchDirection");
-        connector.post(format("%s/fetch/direction", entityUrl), direction, Void.class);
+        if (exhausted || stream != null) {
+            return;
+        }
+        connector().post(format("%s/fetch/direction", entityUrl), direction, Void.class);
     }
 
     @Override
     @JsonIgnore
     public int getFetchDirection() throws SQLException {
         connectionProperties.throwIfUnsupported("getFetchDirection");
-        return connector.get(format("%s/fetch/direction", entityUrl), int.class);
+        if (exhausted || stream != null) {
+            return FETCH_FORWARD;
+        }
+        return connector().get(format("%s/fetch/direction", entityUrl), int.class);
     }
 
     @Override
     public void setFetchSize(int rows) throws SQLException {
         connectionProperties.throwIfUnsupported("setFetchSize");
-        connector.post(format("%s/fetch/size", entityUrl), rows, Void.class);
+        if (exhausted || stream != null) {
+            return;
+        }
+        connector().post(format("%s/fetch/size", entityUrl), rows, Void.class);
     }
 
     @Override
     @JsonIgnore
     public int getFetchSize() throws SQLException {
         connectionProperties.throwIfUnsupported("getFetchSize");
-        return connector.get(format("%s/fetch/size", entityUrl), int.class);
+        if (exhausted || stream != null) {
+            return statement == null ? 0 : statement.getFetchSize();
+        }
+        return connector().get(format("%s/fetch/size", entityUrl), int.class);
     }
 
     @Override
     @JsonIgnore
     public int getType() throws SQLException {
         connectionProperties.throwIfUnsupported("getType");
-        return connector.get(format("%s/type", entityUrl), int.class);
+        if (exhausted || stream != null) {
+            return TYPE_FORWARD_ONLY;
+        }
+        return connector().get(format("%s/type", entityUrl), int.class);
     }
 
     @Override
     @JsonIgnore
     public int getConcurrency() throws SQLException {
         connectionProperties.throwIfUnsupported("getConcurrency");
-        return connector.get(format("%s/concurrency", entityUrl), int.class);
+        if (exhausted || stream != null) {
+            return CONCUR_READ_ONLY;
+        }
+        return connector().get(format("%s/concurrency", entityUrl), int.class);
     }
 
+    // Only forward-only read-only result sets are streamed or read to the end in advance, so their rows are never changed.
     @Override
     public boolean rowUpdated() throws SQLException {
         connectionProperties.throwIfUnsupported("rowUpdated");
-        return connector.get(format("%s/row/updated", entityUrl), boolean.class);
+        if (exhausted || stream != null) {
+            return false;
+        }
+        return connector().get(format("%s/row/updated", entityUrl), boolean.class);
     }
 
     @Override
     public boolean rowInserted() throws SQLException {
         connectionProperties.throwIfUnsupported("rowInserted");
-        return connector.get(format("%s/row/inserted", entityUrl), boolean.class);
+        if (exhausted || stream != null) {
+            return false;
+        }
+        return connector().get(format("%s/row/inserted", entityUrl), boolean.class);
     }
 
     @Override
     public boolean rowDeleted() throws SQLException {
         connectionProperties.throwIfUnsupported("rowDeleted");
-        return connector.get(format("%s/row/deleted", entityUrl), boolean.class);
+        if (exhausted || stream != null) {
+            return false;
+        }
+        return connector().get(format("%s/row/deleted", entityUrl), boolean.class);
     }
 
     @Override
@@ -881,43 +845,43 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public void insertRow() throws SQLException {
         connectionProperties.throwIfUnsupported("insertRow");
-        connector.post(format("%s/row", entityUrl), null, Void.class);
+        connector().post(format("%s/row", entityUrl), null, Void.class);
     }
 
     @Override
     public void updateRow() throws SQLException {
         connectionProperties.throwIfUnsupported("updateRow");
-        connector.put(format("%s/row", entityUrl), null, Void.class);
+        connector().put(format("%s/row", entityUrl), null, Void.class);
     }
 
     @Override
     public void deleteRow() throws SQLException {
         connectionProperties.throwIfUnsupported("deleteRow");
-        connector.delete(format("%s/row", entityUrl), null, Void.class);
+        connector().delete(format("%s/row", entityUrl), null, Void.class);
     }
 
     @Override
     public void refreshRow() throws SQLException {
         connectionProperties.throwIfUnsupported("refreshRow");
-        connector.get(format("%s/row", entityUrl), Void.class);
+        connector().get(format("%s/row", entityUrl), Void.class);
     }
 
     @Override
     public void cancelRowUpdates() throws SQLException {
         connectionProperties.throwIfUnsupported("cancelRowUpdates");
-        connector.put(format("%s/row", entityUrl), "cancel", Void.class);
+        connector().put(format("%s/row", entityUrl), "cancel", Void.class);
     }
 
     @Override
     public void moveToInsertRow() throws SQLException {
         connectionProperties.throwIfUnsupported("moveToInsertRow");
-        connector.post(format("%s/move", entityUrl), "insert", Void.class);
+        connector().post(format("%s/move", entityUrl), "insert", Void.class);
     }
 
     @Override
     public void moveToCurrentRow() throws SQLException {
         connectionProperties.throwIfUnsupported("moveToCurrentRow");
-        connector.post(format("%s/move", entityUrl), "current", Void.class);
+        connector().post(format("%s/move", entityUrl), "current", Void.class);
     }
 
     @Override
@@ -1021,7 +985,7 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @SuppressWarnings("unchecked")
     private <C, T> T getDateTime(C column, Calendar cal, String getterName, String path, Class<T> type, ThrowingFunction<C, Integer, SQLException> indexGetter) throws SQLException {
         connectionProperties.throwIfUnsupported(getterName);
-        return rows == null ? connector.get(format("%s/%s/%s/%s", entityUrl, path, column, calendarParameter(cal)), type) : (T)rows[localRowIndex].getRow()[indexGetter.apply(column)];
+        return rows == null ? connector().get(format("%s/%s/%s/%s", entityUrl, path, column, calendarParameter(cal)), type) : (T)currentRow()[indexGetter.apply(column)];
     }
 
     @Override
@@ -1112,14 +1076,17 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @JsonIgnore
     public int getHoldability() throws SQLException {
         connectionProperties.throwIfUnsupported("getHoldability");
-        return connector.get(format("%s/holdability", entityUrl), Integer.class);
+        return connector().get(format("%s/holdability", entityUrl), Integer.class);
     }
 
     @Override
     @JsonIgnore
     public boolean isClosed() throws SQLException {
         connectionProperties.throwIfUnsupported("isClosed");
-        return closed || connector.get(format("%s/closed", entityUrl), Boolean.class);
+        if ((exhausted || stream != null) && statement != null) {
+            return closed || statement.isClosed();
+        }
+        return closed || connector().get(format("%s/closed", entityUrl), Boolean.class);
     }
 
     @Override
@@ -1375,13 +1342,13 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     @Override
     public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
         connectionProperties.throwIfUnsupported("getObject");
-        return rows == null ? connector.get(format("%s/object/index/%d/%s", entityUrl, columnIndex, type), type) : cast(rows[localRowIndex].getRow()[columnIndex - 1], getClassOfColumn(columnIndex), type, columnIndex);
+        return rows == null ? connector().get(format("%s/object/index/%d/%s", entityUrl, columnIndex, type), type) : cast(currentRow()[columnIndex - 1], type, column(columnIndex));
     }
 
     @Override
     public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
         connectionProperties.throwIfUnsupported("getObject");
-        return rows == null ? connector.get(format("%s/object/label/%s/%s", entityUrl, columnLabel, type), type) : cast(rows[localRowIndex].getRow()[getIndex(columnLabel)], getClassOfColumn(columnLabel), type, getDataOfColumnIndex(columnLabel));
+        return rows == null ? connector().get(format("%s/object/label/%s/%s", entityUrl, columnLabel, type), type) : cast(currentRow()[getDataOfColumnIndex(columnLabel) - 1], type, column(getDataOfColumnIndex(columnLabel)));
     }
 
     public ResultSetProxy withStatement(Statement statement) {
@@ -1389,39 +1356,43 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
         return this;
     }
 
-    private int getDataOfColumnIndex(String columnLabel) throws SQLException {
-        ResultSetMetaData md = getMetaData();
-        int n = md.getColumnCount();
-        for (int i = 1; i <= n; i++) {
-            if (columnLabel.equals(md.getColumnLabel(i))) {
-                return i;
-            }
+    public ResultSetProxy withRows(TransportableResultSetMetaData md, RowData[] rows, boolean exhausted) {
+        this.md = md;
+        columns = null;
+        this.rows = rows;
+        this.exhausted = exhausted;
+        localRowIndex = -1;
+        position = 0;
+        return this;
+    }
+
+    private Object[] currentRow() throws SQLException {
+        if (localRowIndex < 0) {
+            throw new SQLException("Result set is not positioned on a row, call next() first");
         }
-        throw new SQLException(format("Column %s does not exist", columnLabel));
+        Object[] row = rows[localRowIndex].getRow();
+        if (row == null) {
+            throw new SQLException("Result set is not positioned on a row");
+        }
+        return row;
     }
 
-    private <T> T getDataOfColumn(String columnLabel, ThrowingBiFunction<ResultSetMetaData, Integer, T, SQLException> getter) throws SQLException {
+    private int getDataOfColumnIndex(String columnLabel) throws SQLException {
         ResultSetMetaData md = getMetaData();
         int n = md.getColumnCount();
         for (int i = 1; i <= n; i++) {
             if (columnLabel.equals(md.getColumnLabel(i))) {
-                return getter.apply(md, i);
+                return i;
             }
         }
         throw new SQLException(format("Column %s does not exist", columnLabel));
     }
 
-    private Class<?> getClassOfColumn(String columnLabel) throws SQLException {
-        return getDataOfColumn(columnLabel, (md, i) -> getColumnClass(md.getColumnClassName(i)));
-    }
-
-    private Class<?> getClassOfColumn(int columnIndex) throws SQLException {
-        String className = getMetaData().getColumnClassName(columnIndex);
-        return className == null ? Object.class : getColumnClass(className);
-    }
-
-    private String getTypeNameOfColumn(int columnIndex) throws SQLException {
-        return getMetaData().getColumnTypeName(columnIndex);
+    private ColumnAccessor column(int columnIndex) throws SQLException {
+        if (columns == null) {
+            columns = ColumnAccessor.of(getMetaData(), this::getMetaData);
+        }
+        return columns[columnIndex - 1];
     }
 
     private String calendarParameter(Calendar cal) {
@@ -1430,15 +1401,84 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     }
 
     private <T, M> T getValue(String markerName, M columnMarker, Class<T> clazz, Integer columnIndex) throws SQLException {
-        connectionProperties.throwIfUnsupported("get" + clazz.getSimpleName());
-        return getValue(markerName, columnMarker, clazz, clazz.getSimpleName().toLowerCase(), columnIndex);
+        return getValue(markerName, columnMarker, clazz, null, columnIndex);
     }
 
     private <T, M> T getValue(String markerName, M columnMarker, Class<T> clazz, String typeName, Integer columnIndex) throws SQLException {
-        connectionProperties.throwIfUnsupported("get" + clazz.getSimpleName());
         return rows == null || columnIndex == null ?
-                connector.get(format("%s/%s/%s/%s", entityUrl, typeName, markerName, columnMarker), clazz) :
-                cast(rows[localRowIndex].getRow()[columnIndex - 1], getClassOfColumn(columnIndex), clazz, columnIndex);
+                connector().get(format("%s/%s/%s/%s", entityUrl, typeName == null ? clazz.getSimpleName().toLowerCase() : typeName, markerName, columnMarker), clazz) :
+                cast(currentRow()[columnIndex - 1], clazz, column(columnIndex));
+    }
+
+    // Integral values are returned as is if they fit the type; this is what the caster does too, but without boxing the result.
+    private <M> int getInt(String markerName, M columnMarker, Integer columnIndex) throws SQLException {
+        if (rows != null && columnIndex != null) {
+            ColumnVector vector = currentVector(columnIndex);
+            if (vector != null && vector.hasInts()) {
+                wasNull = false;
+                return vector.getInt(rows[localRowIndex].getIndex());
+            }
+            Object obj = currentRow()[columnIndex - 1];
+            if (isIntegral(obj) && ResultSetCasters.inRange(obj, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+                wasNull = false;
+                return ((Number)obj).intValue();
+            }
+        }
+        return getValue(markerName, columnMarker, int.class, columnIndex);
+    }
+
+    private <M> long getLong(String markerName, M columnMarker, Integer columnIndex) throws SQLException {
+        if (rows != null && columnIndex != null) {
+            ColumnVector vector = currentVector(columnIndex);
+            if (vector != null && (vector.hasLongs() || vector.hasInts())) {
+                wasNull = false;
+                int row = rows[localRowIndex].getIndex();
+                return vector.hasLongs() ? vector.getLong(row) : vector.getInt(row);
+            }
+            Object obj = currentRow()[columnIndex - 1];
+            if (isIntegral(obj) && ResultSetCasters.inRange(obj, Long.MIN_VALUE, Long.MAX_VALUE)) {
+                wasNull = false;
+                return ((Number)obj).longValue();
+            }
+        }
+        return getValue(markerName, columnMarker, long.class, columnIndex);
+    }
+
+    private <M> double getDouble(String markerName, M columnMarker, Integer columnIndex) throws SQLException {
+        if (rows != null && columnIndex != null) {
+            ColumnVector vector = currentVector(columnIndex);
+            if (vector != null && vector.hasDoubles()) {
+                double value = vector.getDouble(rows[localRowIndex].getIndex());
+                if (value > -Double.MAX_VALUE && value <= Double.MAX_VALUE) {
+                    wasNull = false;
+                    return value;
+                }
+            }
+            Object obj = currentRow()[columnIndex - 1];
+            if (obj instanceof Number && ResultSetCasters.inRange(obj, -Double.MAX_VALUE, Double.MAX_VALUE)) {
+                wasNull = false;
+                return ((Number)obj).doubleValue();
+            }
+        }
+        return getValue(markerName, columnMarker, double.class, columnIndex);
+    }
+
+    // Vector of the column if the current row came in columnar batch and its value is not null; otherwise the row is read as usual.
+    private ColumnVector currentVector(int columnIndex) {
+        if (localRowIndex < 0) {
+            return null;
+        }
+        RowData current = rows[localRowIndex];
+        RowBatch batch = current.getBatch();
+        if (batch == null) {
+            return null;
+        }
+        ColumnVector vector = batch.getColumn(columnIndex);
+        return vector.isNull(current.getIndex()) ? null : vector;
+    }
+
+    private static boolean isIntegral(Object obj) {
+        return obj instanceof Integer || obj instanceof Long || obj instanceof Short || obj instanceof Byte;
     }
 
     private Integer getIndex(String columnLabel) throws SQLException {
@@ -1446,28 +1486,26 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     }
 
     @SuppressWarnings("unchecked")
-    private <T> T cast(Object obj, Class<?> from, Class<T> to, int columnIndex) throws SQLException {
-        String typeName = getTypeNameOfColumn(columnIndex);
+    private <T> T cast(Object obj, Class<T> to, ColumnAccessor column) throws SQLException {
         wasNull = false;
         if (obj != null && to.isAssignableFrom(obj.getClass())) {
             return (T)obj;
         }
-        ThrowingFunction<CastorArg, ?, SQLException> caster = casters.get(to);
+        ResultSetCasters.Caster<?> caster = casters.get(to);
         if (caster != null) {
             try {
-                CastorArg arg = new CastorArg(obj, from, to, getMetaData().getColumnType(columnIndex), columnIndex);
-                return (T) caster.apply(arg);
+                return (T) caster.cast(obj, to, column);
             } catch (IllegalArgumentException e) {
                 throw new SQLException(e.getMessage());
             }
         } else if (Ref.class.equals(to)) {
-            return (T)new TransportableRef(obj, typeName);
+            return (T)new TransportableRef(obj, column.getTypeName());
         } else if (obj == null) {
             wasNull = true;
-            return (T)defaultValues.get(to);
+            return (T)ResultSetCasters.defaultValue(to);
         }
         if (String.class.equals(to)) {
-            return (T)connectionProperties.asString(obj, this::getMetaData, columnIndex);
+            return (T)connectionProperties.asString(obj, this::getMetaData, column.getIndex());
         }
         //return objectMapper.readValue(obj instanceof String ? "\"" + obj + "\"" : "" + obj, clazz);
         return (T)obj;
@@ -1480,49 +1518,202 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
     private boolean move(String url, int delta) throws SQLException {
         int index = localRowIndex + delta;
         if (rows != null && index >= 0 && index < rows.length) {
+            position = shift(delta);
             localRowIndex = index;
             return rows[localRowIndex].isMoved();
         }
-        return move(url, delta > 0);
+        if (exhausted) {
+            position = index < 0 ? Integer.valueOf(0) : shift(rows.length - 1 - localRowIndex);
+            localRowIndex = index < 0 ? -1 : rows.length - 1;
+            return false;
+        }
+        return move(url, delta > 0, shift(delta));
     }
 
-    private boolean move(String url, boolean moveToFirst) {
-        rows = connector.get(url, RowData[].class);
+    private boolean move(String url, boolean moveToFirst, Integer target) throws SQLException {
+        rows = fetch(url);
         wasNull = false;
         localRowIndex = moveToFirst ? 0 : rows.length - 1;
+        position = target;
         return rows.length > 0 && rows[localRowIndex].isMoved();
     }
 
+    private RowData[] fetch(String url) throws SQLException {
+        if (prefetched != null) {
+            RowData[] next = url.equals(prefetchUrl) ? prefetchedRows() : null;
+            discardPrefetched();
+            if (next != null) {
+                return next;
+            }
+        }
+        return request(url);
+    }
+
+    // The round trip time of the previous forward batch is sent to the server as a hint for sizing the next one.
+    private RowData[] request(String url) {
+        boolean forward = url.endsWith("/nextrow") || url.endsWith("/nextbatch");
+        String requestUrl = forward && roundTrip != null ? format("%s?rtt=%d", url, roundTrip) : url;
+        long start = System.nanoTime();
+        RowData[] rows = url.endsWith("/nextbatch") ? connector.get(requestUrl, RowBatch.class).toRows() : connector.get(requestUrl, RowData[].class);
+        if (forward) {
+            roundTrip = (System.nanoTime() - start) / 1_000_000;
+        }
+        return rows;
+    }
+
+    // Requests the next batch of a forward-only result set in background, so the network round trip overlaps with
+    // processing of the rows of the current batch.
+    private void prefetch(String url) throws SQLException {
+        if (prefetched != null || exhausted || stream != null || rows == null || localRowIndex < 0 || !rows[rows.length - 1].isMoved()) {
+            return;
+        }
+        if (localRowIndex + 1 < rows.length * prefetchMark || isStreamingEnabled()) {
+            return;
+        }
+        if (isForwardReadOnly()) {
+            prefetchUrl = url;
+            prefetched = CompletableFuture.supplyAsync(() -> request(url), prefetcher);
+        }
+    }
+
+    private RowData[] prefetchedRows() throws SQLException {
+        try {
+            return prefetched.join();
+        } catch (CompletionException e) {
+            prefetched = null;
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    // Other requests of the result set are sent after the pending prefetch, so they do not run concurrently with it on server.
+    // A failure of the prefetch is reported when its rows are read.
+    private HttpConnector connector() {
+        if (prefetched != null) {
+            try {
+                prefetched.join();
+            } catch (CompletionException e) {
+                // reported by prefetchedRows()
+            }
+        }
+        return connector;
+    }
+
+    @Override
+    protected String url() {
+        connector();
+        return super.url();
+    }
+
+    // waits for the pending request, so it does not race with the following requests of the same result set
+    private void discardPrefetched() {
+        if (prefetched != null) {
+            try {
+                prefetched.join();
+            } catch (CompletionException e) {
+                // the rows are not needed anyway
+            }
+            prefetched = null;
+        }
+    }
+
+    private boolean scroll(String url, Integer target) throws SQLException {
+        boolean moved = move(url, true, target);
+        if (!moved) {
+            // the cursor is either before the first or after the last row; only the server knows which one
+            position = null;
+        }
+        return moved;
+    }
+
+    // number of the row that is delta rows from the current position
+    private Integer shift(int delta) {
+        if (position == null) {
+            return null;
+        }
+        boolean afterLast = position > 0 && rows != null && localRowIndex >= 0 && !rows[localRowIndex].isMoved();
+        if (afterLast && delta > 0) {
+            return position;
+        }
+        return Math.max(position + delta, 0);
+    }
+
     public void moveOutside(String url) throws SQLException {
+        closeStream();
+        discardPrefetched();
+        position = url.endsWith("/before/first") ? Integer.valueOf(0) : null;
         rows = null;
+        exhausted = false;
         wasNull = false;
-        connector.post(url, null, Void.class);
+        connector().post(url, null, Void.class);
     }
 
-    private static boolean inRange(Object n, long min, long max) {
-        return inRange(n, min, max, Number::longValue);
+    // Scrollable and updatable result sets need the server cursor after the rows have been read, so they are read in batches.
+    private boolean isForwardReadOnly() throws SQLException {
+        if (forwardReadOnly == null) {
+            forwardReadOnly = getType() == TYPE_FORWARD_ONLY && getConcurrency() == CONCUR_READ_ONLY;
+        }
+        return forwardReadOnly;
     }
 
-    private static boolean inRange(Object n, double min, double max) {
-        return inRange(n, min, max, Number::doubleValue);
+    private boolean isStreamingEnabled() {
+        return Boolean.parseBoolean(getConfigurationParameter(STREAMING, "false"));
     }
 
-    private static <T extends Number & Comparable<T>> boolean inRange(Object n, T min, T max, Function<Number, T> toSpecificNumber) {
-        if (n == null) {
-            return true;
-        }
-        if (n instanceof Number) {
-            T value = toSpecificNumber.apply((Number)n);
-            return value.compareTo(min) > 0 && value.compareTo(max) <= 0;
+    private boolean nextStreamed() throws SQLException {
+        RowData current;
+        if (stream == null) {
+            stream = connector().getValues(format("%s/stream", entityUrl), RowData.class);
+            current = readStreamed();
+        } else {
+            current = rows[localRowIndex + 1];
         }
-        return n instanceof Boolean;
+        // one row is read ahead, so the client knows whether the current row is the last one
+        rows = current.isMoved() ? new RowData[] {rows[localRowIndex], current, readStreamed()} : new RowData[] {rows[localRowIndex], current};
+        localRowIndex = 0;
+        return move(null, 1);
     }
 
-    private Class<?> getColumnClass(String className) {
+    private RowData readStreamed() throws SQLException {
+        RowData row;
         try {
-            return Class.forName(className);
-        } catch (ClassNotFoundException e) {
-            return Object.class;
+            row = stream.hasNextValue() ? stream.nextValue() : null;
+        } catch (IOException e) {
+            closeStream();
+            throw new SQLException(e);
+        }
+        if (row != null && row.isMoved()) {
+            return row;
+        }
+        closeStream();
+        // the result ends with an explicit record; without it the response has been cut and rows may be missing
+        if (row == null) {
+            throw new SQLException("Result set stream has ended unexpectedly");
+        }
+        if (row.getError() != null) {
+            Throwable error = row.getError().getPayload();
+            throw error instanceof SQLException ? (SQLException)error : new SQLException(error);
+        }
+        // the end of the result; the server has already closed the cursor
+        exhausted = true;
+        return row;
+    }
+
+    private void closeStream() throws SQLException {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                throw new SQLException(e);
+            } finally {
+                stream = null;
+            }
         }
     }
 
@@ -1531,8 +1722,8 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
         int columnIndex = columnIndexSupplier.get();
         String path = (n ? "n" : "") + "character/stream";
         return rows == null ?
-                connector.get(format("%s/%s/%s/%s", entityUrl, path, markerName, columnIndex), Reader.class) :
-                connectionProperties.asReader(rows[localRowIndex].getRow()[columnIndex - 1], getClassOfColumn(columnIndex), this::getMetaData, columnIndex, n);
+                connector().get(format("%s/%s/%s/%s", entityUrl, path, markerName, columnIndex), Reader.class) :
+                connectionProperties.asReader(currentRow()[columnIndex - 1], column(columnIndex).getColumnClass(), this::getMetaData, columnIndex, n);
     }
 
     private InputStream getStream(String markerName, ThrowingSupplier<Integer, SQLException> columnIndexSupplier, StreamType streamType) throws SQLException {
@@ -1540,7 +1731,7 @@ public class ResultSetProxy extends WrapperProxy implements ResultSet {
         connectionProperties.throwIfUnsupported("get" + streamTypeName.substring(0, 1).toUpperCase() + streamTypeName.substring(1) + "Stream");
         int columnIndex = columnIndexSupplier.get();
         return rows == null ?
-                connector.get(format("%s/%s/%s/%s", entityUrl, streamType + "/stream", markerName, columnIndex), InputStream.class) :
-                streamType.asStream(connectionProperties, rows[localRowIndex].getRow()[columnIndex - 1], getClassOfColumn(columnIndex), this::getMetaData, columnIndex);
+                connector().get(format("%s/%s/%s/%s", entityUrl, streamType + "/stream", markerName, columnIndex), InputStream.class) :
+                streamType.asStream(connectionProperties, currentRow()[columnIndex - 1], column(columnIndex).getColumnClass(), this::getMetaData, columnIndex);
     }
 }
@@ -0,0 +1,60 @@
+package com.nosqldriver.jdbc.http.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Column-major representation of a batch of rows read forward. It contains the rows the cursor was moved to; {@code end}
+ * means that the cursor has reached the end of the result after these rows. Numeric columns are sent as primitive arrays,
+ * so they are more compact on the wire and are parsed and read by the client without boxing.
+ */
+public class RowBatch {
+    @JsonProperty private final int size;
+    @JsonProperty private final boolean end;
+    @JsonProperty private final ColumnVector[] columns;
+
+    @JsonCreator
+    public RowBatch(
+            @JsonProperty("size") int size,
+            @JsonProperty("end") boolean end,
+            @JsonProperty("columns") ColumnVector[] columns) {
+        this.size = size;
+        this.end = end;
+        this.columns = columns;
+    }
+
+    public static RowBatch of(List<RowData> rows, int[] sqlTypes, int maxDictionarySize) {
+        List<Object[]> moved = rows.stream().filter(RowData::isMoved).map(RowData::getRow).collect(Collectors.toList());
+        ColumnVector[] columns = new ColumnVector[sqlTypes.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ColumnVector.of(moved, i, sqlTypes[i], maxDictionarySize);
+        }
+        return new RowBatch(moved.size(), rows.size() > moved.size(), columns);
+    }
+
+    RowData[] toRows() {
+        RowData[] rows = new RowData[end ? size + 1 : size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = new RowData(this, i);
+        }
+        if (end) {
+            rows[size] = new RowData(false, null);
+        }
+        return rows;
+    }
+
+    ColumnVector getColumn(int columnIndex) {
+        return columns[columnIndex - 1];
+    }
+
+    Object[] getRow(int row) {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].getValue(row);
+        }
+        return values;
+    }
+}
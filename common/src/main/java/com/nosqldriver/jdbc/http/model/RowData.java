@@ -1,43 +1,71 @@
 package com.nosqldriver.jdbc.http.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.StringJoiner;
 
+/**
+ * Row read by the server. Rows are sent in batches; batch read forward ends with a row that is not {@code moved} if the
+ * cursor has reached the end, so the client can derive the position of each row without asking the server.
+ * A streamed result ends with such a row too, or with a row that carries the error that has stopped the server
+ * after the response has been committed.
+ */
 public class RowData {
     @JsonProperty private final boolean moved;
-    @JsonProperty private final Boolean first;
-    @JsonProperty private final Boolean last;
-    @JsonProperty private final Object[] row;
+    @JsonProperty private Object[] row;
+    @JsonProperty @JsonInclude(JsonInclude.Include.NON_NULL) private final TransportableException error;
+    // set if the row was received as a part of columnar batch; the values are copied to the row only when needed
+    private final RowBatch batch;
+    private final int index;
 
     @JsonCreator
     public RowData(@JsonProperty("moved") boolean moved,
-                   @JsonProperty("first") Boolean first,
-                   @JsonProperty("last") Boolean last,
-                   @JsonProperty("row") Object[] row) {
+                   @JsonProperty("row") Object[] row,
+                   @JsonProperty("error") TransportableException error) {
+        this(moved, row, error, null, -1);
+    }
+
+    public RowData(boolean moved, Object[] row) {
+        this(moved, row, null, null, -1);
+    }
+
+    RowData(RowBatch batch, int index) {
+        this(true, null, null, batch, index);
+    }
+
+    private RowData(boolean moved, Object[] row, TransportableException error, RowBatch batch, int index) {
         this.moved = moved;
-        this.first = first;
-        this.last = last;
         this.row = row;
+        this.error = error;
+        this.batch = batch;
+        this.index = index;
     }
 
     public boolean isMoved() {
         return moved;
     }
 
-    public Boolean getFirst() {
-        return first;
+    public Object[] getRow() {
+        if (row == null && batch != null) {
+            row = batch.getRow(index);
+        }
+        return row;
     }
 
-    public Boolean getLast() {
-        return last;
+    public TransportableException getError() {
+        return error;
     }
 
-    public Object[] getRow() {
-        return row;
+    RowBatch getBatch() {
+        return batch;
+    }
+
+    int getIndex() {
+        return index;
     }
 
     @Override
@@ -46,15 +74,13 @@ public class RowData {
         if (o == null || getClass() != o.getClass()) return false;
         RowData rowData = (RowData) o;
         return moved == rowData.moved &&
-               first == rowData.first &&
-               last == rowData.last &&
-               Arrays.equals(row, rowData.row);
+               Arrays.equals(getRow(), rowData.getRow());
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(moved, first, last);
-        result = 31 * result + Arrays.hashCode(row);
+        int result = Objects.hash(moved);
+        result = 31 * result + Arrays.hashCode(getRow());
         return result;
     }
 
@@ -62,9 +88,7 @@ public class RowData {
     public String toString() {
         return new StringJoiner(", ", RowData.class.getSimpleName() + "[", "]")
                 .add("moved=" + moved)
-                .add("first=" + first)
-                .add("last=" + last)
-                .add("row=" + Arrays.toString(row))
+                .add("row=" + Arrays.toString(getRow()))
                 .toString();
     }
 }
@@ -3,13 +3,17 @@ package com.nosqldriver.jdbc.http.model;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nosqldriver.jdbc.http.SneakyThrower;
 import com.nosqldriver.jdbc.http.Util;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -20,161 +24,207 @@ import static java.lang.String.format;
 public class StatementProxy extends WrapperProxy implements Statement {
     private Connection connection;
     private volatile boolean closed = false;
+    // options of the statement on server have been changed, so it cannot be reused as a new one
+    private boolean configured = false;
+    // options of a statement that is not created on server yet; they are sent with its first execution
+    @JsonIgnore
+    private Map<String, Object> pending;
 
     @JsonCreator
     public StatementProxy(@JsonProperty("entityUrl") String entityUrl) {
         this(entityUrl, Statement.class);
     }
 
+    // A statement that is created on server by its first execution, see ConnectionProxy.LAZY_STATEMENT
+    StatementProxy(String statementsUrl, Map<String, Object> options) {
+        this(statementsUrl, Statement.class);
+        pending = new LinkedHashMap<>(options);
+    }
+
     protected StatementProxy(String entityUrl, Class<?> clazz) {
         super(entityUrl, clazz);
     }
 
     @Override
     public ResultSet executeQuery(String sql) {
-        return connector.post(format("%s/query", entityUrl), sql, ResultSetProxy.class).withStatement(this);
+        if (pending == null) {
+            return connector.post(format("%s/query", url()), sql, ResultSetProxy.class).withStatement(this);
+        }
+        ResultSetProxy rs = connector.post(creationUrl("query"), sql, ResultSetProxy.class);
+        String rsUrl = rs.getEntityUrl();
+        created(rsUrl.substring(0, rsUrl.lastIndexOf("/resultset/")));
+        return rs.withStatement(this);
     }
 
     @Override
     public int executeUpdate(String sql) {
-        return connector.post(format("%s/update", entityUrl), sql, Integer.class);
+        return exec("update", sql, Integer.class);
     }
 
     @Override
     public void close() {
-        connector.delete(format("%s", entityUrl), null, Void.class);
+        if (pending == null) {
+            connector.delete(format("%s", entityUrl), null, Void.class);
+        }
         closed = true;
     }
 
     @Override
     @JsonIgnore
     public int getMaxFieldSize() {
-        return connector.get(format("%s/maxfieldsize", entityUrl), Integer.class);
+        return connector.get(format("%s/maxfieldsize", url()), Integer.class);
     }
 
     @Override
     public void setMaxFieldSize(int max) {
-        connector.post(format("%s/maxfieldsize", entityUrl), max, Void.class);
+        configured = true;
+        if (!record("maxfieldsize", max)) {
+            connector.post(format("%s/maxfieldsize", url()), max, Void.class);
+        }
     }
 
     @Override
     @JsonIgnore
     public int getMaxRows() {
-        return connector.get(format("%s/maxrows", entityUrl), Integer.class);
+        return connector.get(format("%s/maxrows", url()), Integer.class);
     }
 
     @Override
     public void setMaxRows(int max) {
-        connector.post(format("%s/maxrows", entityUrl), max, Void.class);
+        configured = true;
+        if (!record("maxrows", max)) {
+            connector.post(format("%s/maxrows", url()), max, Void.class);
+        }
     }
 
     @Override
     public void setEscapeProcessing(boolean enable) {
-        connector.post(format("%s/escapeprocessing", entityUrl), enable, Void.class);
+        configured = true;
+        if (!record("escapeprocessing", enable)) {
+            connector.post(format("%s/escapeprocessing", url()), enable, Void.class);
+        }
     }
 
     @Override
     @JsonIgnore
     public int getQueryTimeout() {
-        return connector.get(format("%s/querytimeout", entityUrl), Integer.class);
+        return connector.get(format("%s/querytimeout", url()), Integer.class);
     }
 
     @Override
     public void setQueryTimeout(int seconds) {
-        connector.post(format("%s/querytimeout", entityUrl), seconds, Void.class);
+        configured = true;
+        if (!record("querytimeout", seconds)) {
+            connector.post(format("%s/querytimeout", url()), seconds, Void.class);
+        }
     }
 
     @Override
     public void cancel() {
-        connector.delete(format("%s/cancel", entityUrl), null, Void.class);
+        connector.delete(format("%s/cancel", url()), null, Void.class);
     }
 
     @Override
     @JsonIgnore
     public SQLWarning getWarnings() {
-        return connector.get(format("%s/warnings", entityUrl), TransportableSQLWarning.class);
+        if (pending != null) {
+            return null;
+        }
+        return connector.get(format("%s/warnings", url()), TransportableSQLWarning.class);
     }
 
     @Override
     public void clearWarnings() {
-        connector.delete(format("%s/warnings", entityUrl), null, Void.class);
+        if (pending != null) {
+            return;
+        }
+        connector.delete(format("%s/warnings", url()), null, Void.class);
     }
 
     @Override
     public void setCursorName(String name) {
-        connector.post(format("%s/cursorname", entityUrl), name, Void.class);
+        configured = true;
+        if (!record("cursorname", encode(name))) {
+            connector.post(format("%s/cursorname", url()), name, Void.class);
+        }
     }
 
     @Override
     public boolean execute(String sql) {
-        return connector.post(format("%s/execute", entityUrl), sql, Boolean.class);
+        return exec("execute", sql, Boolean.class);
     }
 
     @Override
     @JsonIgnore
     public ResultSet getResultSet() {
-        return Optional.ofNullable(connector.get(format("%s/resultset", entityUrl), ResultSetProxy.class)).map(rs -> rs.withStatement(this)).orElse(null);
+        return Optional.ofNullable(connector.get(format("%s/resultset", url()), ResultSetProxy.class)).map(rs -> rs.withStatement(this)).orElse(null);
     }
 
     @Override
     @JsonIgnore
     public int getUpdateCount() {
-        return connector.get(format("%s/updatecount", entityUrl), Integer.class);
+        return connector.get(format("%s/updatecount", url()), Integer.class);
     }
 
     @Override
     @JsonIgnore
     public boolean getMoreResults() {
-        return connector.get(format("%s/more", entityUrl), Boolean.class);
+        return connector.get(format("%s/more", url()), Boolean.class);
     }
 
     @Override
     public void setFetchDirection(int direction) {
-        connector.post(format("%s/fetch/direction", entityUrl), direction, Void.class);
+        configured = true;
+        if (!record("fetchdirection", direction)) {
+            connector.post(format("%s/fetch/direction", url()), direction, Void.class);
+        }
     }
 
     @Override
     @JsonIgnore
     public int getFetchDirection() {
-        return connector.get(format("%s/fetch/direction", entityUrl), Integer.class);
+        return connector.get(format("%s/fetch/direction", url()), Integer.class);
     }
 
     @Override
     public void setFetchSize(int rows) {
-        connector.post(format("%s/fetch/size", entityUrl), rows, Void.class);
+        configured = true;
+        if (!record("fetchsize", rows)) {
+            connector.post(format("%s/fetch/size", url()), rows, Void.class);
+        }
     }
 
     @Override
     @JsonIgnore
     public int getFetchSize() {
-        return connector.get(format("%s/fetch/size", entityUrl), Integer.class);
+        return connector.get(format("%s/fetch/size", url()), Integer.class);
     }
 
     @Override
     @JsonIgnore
     public int getResultSetConcurrency() {
-        return connector.get(format("%s/resultset/concurrency", entityUrl), Integer.class);
+        return connector.get(format("%s/resultset/concurrency", url()), Integer.class);
     }
 
     @Override
     @JsonIgnore
     public int getResultSetType() {
-        return connector.get(format("%s/resultset/type", entityUrl), Integer.class);
+        return connector.get(format("%s/resultset/type", url()), Integer.class);
     }
 
     @Override
     public void addBatch(String sql) {
-        connector.put(format("%s/batch", entityUrl), sql, Void.class);
+        connector.put(format("%s/batch", url()), sql, Void.class);
     }
 
     @Override
     public void clearBatch() {
-        connector.delete(format("%s/batch", entityUrl), null, Integer.class);
+        connector.delete(format("%s/batch", url()), null, Integer.class);
     }
 
     @Override
     public int[] executeBatch() {
-        return connector.post(format("%s/batch", entityUrl), null, int[].class);
+        return connector.post(format("%s/batch", url()), null, int[].class);
     }
 
     @Override
@@ -185,81 +235,156 @@ public class StatementProxy extends WrapperProxy implements Statement {
 
     @Override
     public boolean getMoreResults(int current) {
-        return connector.get(format("%s/more?current=%d", entityUrl, current), Boolean.class);
+        return connector.get(format("%s/more?current=%d", url(), current), Boolean.class);
     }
 
     @Override
     @JsonIgnore
     public ResultSet getGeneratedKeys() {
-        return Optional.ofNullable(connector.get(format("%s/generatedkeys", entityUrl), ResultSetProxy.class)).map(rs -> rs.withStatement(this)).orElse(null);
+        return Optional.ofNullable(connector.get(format("%s/generatedkeys", url()), ResultSetProxy.class)).map(rs -> rs.withStatement(this)).orElse(null);
     }
 
     @Override
     public int executeUpdate(String sql, int autoGeneratedKeys) {
-        return connector.post(format("%s/update?keys=%d", entityUrl, autoGeneratedKeys), sql, Integer.class);
+        return exec(format("update?keys=%d", autoGeneratedKeys), sql, Integer.class);
     }
 
     @Override
     public int executeUpdate(String sql, int[] columnIndexes) {
         String indices = Arrays.stream(columnIndexes).mapToObj(i -> "" + i).collect(Collectors.joining(","));
-        return connector.post(format("%s/update?indexes=%s", entityUrl, indices), sql, Integer.class);
+        return exec(format("update?indexes=%s", indices), sql, Integer.class);
     }
 
     @Override
     public int executeUpdate(String sql, String[] columnNames) {
         String columnNamesStr = columnNames == null ? null : Arrays.stream(columnNames).map(Util::encode).collect(Collectors.joining(","));
-        return connector.post(format("%s/update?names=%s", entityUrl, columnNamesStr), sql, Integer.class);
+        return exec(format("update?names=%s", columnNamesStr), sql, Integer.class);
     }
 
     @Override
     public boolean execute(String sql, int autoGeneratedKeys) {
-        return connector.post(format("%s/execute?keys=%d", entityUrl, autoGeneratedKeys), sql, Boolean.class);
+        return exec(format("execute?keys=%d", autoGeneratedKeys), sql, Boolean.class);
     }
 
     @Override
     public boolean execute(String sql, int[] columnIndexes) {
         String indices = Arrays.stream(columnIndexes).mapToObj(i -> "" + i).collect(Collectors.joining(","));
-        return connector.post(format("%s/execute?indexes=%s", entityUrl, indices), sql, Boolean.class);
+        return exec(format("execute?indexes=%s", indices), sql, Boolean.class);
     }
 
     @Override
     public boolean execute(String sql, String[] columnNames) {
         String columnNamesStr = columnNames == null ? null : Arrays.stream(columnNames).map(Util::encode).collect(Collectors.joining(","));
-        return connector.post(format("%s/execute?names=%s", entityUrl, columnNamesStr), sql, Boolean.class);
+        return exec(format("execute?names=%s", columnNamesStr), sql, Boolean.class);
     }
 
     @Override
     @JsonIgnore
     public int getResultSetHoldability() {
-        return connector.get(format("%s/resultset/holdability", entityUrl), Integer.class);
+        return connector.get(format("%s/resultset/holdability", url()), Integer.class);
     }
 
     @Override
     @JsonIgnore
-    public boolean isClosed() {
+    public boolean isClosed() throws SQLException {
+        if (pending != null) {
+            return closed || connection.isClosed();
+        }
         return closed || connector.get(format("%s/closed", entityUrl), Boolean.class);
     }
 
     @Override
     public void setPoolable(boolean poolable) {
-        connector.post(format("%s/poolable", entityUrl), poolable, Void.class);
+        configured = true;
+        if (!record("poolable", poolable)) {
+            connector.post(format("%s/poolable", url()), poolable, Void.class);
+        }
     }
 
     @Override
     @JsonIgnore
     public boolean isPoolable() {
-        return connector.get(format("%s/poolable", entityUrl), Boolean.class);
+        return connector.get(format("%s/poolable", url()), Boolean.class);
     }
 
     @Override
     public void closeOnCompletion() {
-        connector.post(format("%s/closeoncompletion", entityUrl), null, Void.class);
+        configured = true;
+        if (!record("closeoncompletion", true)) {
+            connector.post(format("%s/closeoncompletion", url()), null, Void.class);
+        }
     }
 
     @Override
     @JsonIgnore
     public boolean isCloseOnCompletion() {
-        return connector.get(format("%s/closeoncompletion", entityUrl), Boolean.class);
+        return connector.get(format("%s/closeoncompletion", url()), Boolean.class);
+    }
+
+    boolean isConfigured() {
+        return configured;
+    }
+
+    // The statement has been closed by the application but stays open on server; false if it has been closed already.
+    synchronized boolean closeLocally() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        return true;
+    }
+
+    boolean isClosedLocally() {
+        return closed;
+    }
+
+    // Other calls than executions create a lazily created statement on server first.
+    @Override
+    protected String url() {
+        if (pending != null) {
+            created(connector.post(creationUrl(""), null, StatementProxy.class).getEntityUrl());
+        }
+        return entityUrl;
+    }
+
+    StatementProxy create() {
+        url();
+        return this;
+    }
+
+    private void created(String statementUrl) {
+        entityUrl = statementUrl;
+        pending = null;
+    }
+
+    private <T> T exec(String path, String sql, Class<T> type) {
+        if (pending == null) {
+            return connector.post(format("%s/%s", url(), path), sql, type);
+        }
+        ExecutionResult result = connector.post(creationUrl(path), sql, ExecutionResult.class);
+        created(result.getStatementUrl());
+        return result.getValue(type);
+    }
+
+    private boolean record(String option, Object value) {
+        if (pending == null) {
+            return false;
+        }
+        pending.put(option, value);
+        return true;
+    }
+
+    // The request that creates the statement on server carries the options recorded before it as query parameters.
+    private String creationUrl(String path) {
+        if (closed) {
+            SneakyThrower.sneakyThrow(new SQLException("Statement is closed"));
+        }
+        String url = path.isEmpty() ? entityUrl : format("%s/%s", entityUrl, path);
+        if (pending.isEmpty()) {
+            return url;
+        }
+        String options = pending.entrySet().stream().map(e -> format("%s=%s", e.getKey(), e.getValue())).collect(Collectors.joining("&"));
+        return format("%s%s%s", url, url.contains("?") ? "&" : "?", options);
     }
 
     public StatementProxy withConnection(Connection connection) {
@@ -270,64 +395,67 @@ public class StatementProxy extends WrapperProxy implements Statement {
     @Override
     @JsonIgnore
     public long getLargeUpdateCount() {
-        return connector.get(format("%s/large/updatecount", entityUrl), Long.class);
+        return connector.get(format("%s/large/updatecount", url()), Long.class);
     }
 
     @Override
     @JsonIgnore
     public long getLargeMaxRows() {
-        return connector.get(format("%s/large/maxrows", entityUrl), Long.class);
+        return connector.get(format("%s/large/maxrows", url()), Long.class);
     }
 
     @Override
     public void setLargeMaxRows(long max) {
-        connector.post(format("%s/large/maxrows", entityUrl), max, Void.class);
+        configured = true;
+        if (!record("largemaxrows", max)) {
+            connector.post(format("%s/large/maxrows", url()), max, Void.class);
+        }
     }
 
     @Override
     public long[] executeLargeBatch() {
-        return connector.post(format("%s/large/batch", entityUrl), null, long[].class);
+        return connector.post(format("%s/large/batch", url()), null, long[].class);
     }
 
     @Override
     public long executeLargeUpdate(String sql) {
-        return connector.post(format("%s/large/update", entityUrl), sql, Long.class);
+        return exec("large/update", sql, Long.class);
     }
 
     @Override
     public long executeLargeUpdate(String sql, int autoGeneratedKeys) {
-        return connector.post(format("%s/large/update?keys=%d", entityUrl, autoGeneratedKeys), sql, Long.class);
+        return exec(format("large/update?keys=%d", autoGeneratedKeys), sql, Long.class);
     }
 
     @Override
     public long executeLargeUpdate(String sql, int[] columnIndexes) {
         String columnIndexesStr = IntStream.of(columnIndexes).mapToObj(i -> ""+i).collect(Collectors.joining(","));
-        return connector.post(format("%s/large/update?indexes=%s", entityUrl, columnIndexesStr), sql, Long.class);
+        return exec(format("large/update?indexes=%s", columnIndexesStr), sql, Long.class);
     }
 
     @Override
     public long executeLargeUpdate(String sql, String[] columnNames) {
         String columnNamesStr = columnNames == null ? null : Arrays.stream(columnNames).map(Util::encode).collect(Collectors.joining(","));
-        return connector.post(format("%s/large/update?names=%s", entityUrl, columnNamesStr), sql, Long.class);
+        return exec(format("large/update?names=%s", columnNamesStr), sql, Long.class);
     }
 
     @Override
     public String enquoteLiteral(String val) {
-        return connector.post(format("%s/enquote/literal", entityUrl), val, String.class);
+        return connector.post(format("%s/enquote/literal", url()), val, String.class);
     }
 
     @Override
     public String enquoteIdentifier(String identifier, boolean alwaysQuote) {
-        return connector.post(format("%s/enquote/identifier/%s", entityUrl, alwaysQuote), identifier, String.class);
+        return connector.post(format("%s/enquote/identifier/%s", url(), alwaysQuote), identifier, String.class);
     }
 
     @Override
     public boolean isSimpleIdentifier(String identifier) {
-        return connector.get(format("%s/simple/identifier/%s", entityUrl, encode(identifier)), Boolean.class);
+        return connector.get(format("%s/simple/identifier/%s", url(), encode(identifier)), Boolean.class);
     }
 
     @Override
     public String enquoteNCharLiteral(String val) {
-        return connector.post(format("%s/enquote/nchar/literal", entityUrl), val, String.class);
+        return connector.post(format("%s/enquote/nchar/literal", url()), val, String.class);
     }
 }
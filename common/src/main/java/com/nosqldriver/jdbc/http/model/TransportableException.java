@@ -9,6 +9,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 
 public class TransportableException {
+    // Precedes the error that the server sends after an incomplete value when the response has already been committed.
+    // JSON never contains this control character unescaped, so the client finds the error after failing to parse the value.
+    public static final byte RECORD_SEPARATOR = 0x1e;
     @JsonProperty
     private final String[] classNames;
     @JsonProperty
@@ -13,11 +13,15 @@ abstract class WrapperProxy extends EntityProxy implements Wrapper {
     @Override
     public final <T> T unwrap(Class<T> iface) {
         //noinspection unchecked
-        return (T)connector.get(format("%s/unwrap%s", entityUrl, pathParameter(iface)), Object.class);
+        return (T)connector.get(format("%s/unwrap%s", url(), pathParameter(iface)), Object.class);
     }
 
     @Override
     public final boolean isWrapperFor(Class<?> iface) {
-        return connector.get(format("%s/wrapper%s", entityUrl, pathParameter(iface)), Boolean.class);
+        return connector.get(format("%s/wrapper%s", url(), pathParameter(iface)), Boolean.class);
+    }
+
+    protected String url() {
+        return entityUrl;
     }
 }
@@ -4,35 +4,61 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.nosqldriver.jdbc.http.HttpConnector;
+import com.nosqldriver.jdbc.http.HttpConnectors;
 
 import java.io.Writer;
 
-import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class WriterProxy extends Writer {
+    private static final String TEXT = "text/plain; charset=UTF-8";
     @JsonProperty
     private final String url;
     @JsonIgnore
-    protected final HttpConnector connector = new HttpConnector();
+    protected final HttpConnector connector;
+    @JsonIgnore
+    private final int chunkSize;
+    @JsonIgnore
+    private final StringBuilder buffer = new StringBuilder();
 
     @JsonCreator
     public WriterProxy(@JsonProperty("url") String url) {
         this.url = url;
+        connector = HttpConnectors.get(url);
+        chunkSize = HttpConnector.getStreamChunkSize();
     }
 
 
     @Override
     public void write(char[] cbuf, int off, int len) {
-        connector.put(format("%s/%d/%d", url, off, len), cbuf, Void.class);
+        buffer.append(cbuf, off, len);
+        while (buffer.length() >= chunkSize) {
+            // do not split a surrogate pair between chunks
+            int n = chunkSize > 1 && Character.isHighSurrogate(buffer.charAt(chunkSize - 1)) ? chunkSize - 1 : chunkSize;
+            send(n);
+        }
     }
 
     @Override
     public void flush() {
+        send(buffer.length());
         connector.post(url + "/flush", null, Void.class);
     }
 
     @Override
     public void close() {
-        connector.delete(url, null, Void.class);
+        try {
+            send(buffer.length());
+        } finally {
+            connector.delete(url, null, Void.class);
+        }
+    }
+
+    private void send(int length) {
+        if (length > 0) {
+            byte[] content = buffer.substring(0, length).getBytes(UTF_8);
+            buffer.delete(0, length);
+            connector.put(url + "/chars", content, TEXT, Void.class);
+        }
     }
 }
@@ -0,0 +1,92 @@
+package com.nosqldriver.jdbc.http.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Transport based on {@link HttpClient} that prefers HTTP/2. Plain {@code http} URLs are upgraded to h2c, so concurrent
+ * calls of many threads are multiplexed over a single TCP connection per host. If the server does not support HTTP/2
+ * the client silently falls back to HTTP/1.1.
+ * Connections are managed by {@link HttpClient} itself, so the pool size and the idle timeout are not applicable here,
+ * and the transport has no pool statistics.
+ */
+public class Http2Transport implements HttpTransport {
+    private final Map<String, HostClient> clients = new ConcurrentHashMap<>();
+    private final TransportConfig defaultConfig;
+
+    public Http2Transport() {
+        this(new TransportConfig(null));
+    }
+
+    public Http2Transport(TransportConfig defaultConfig) {
+        this.defaultConfig = defaultConfig;
+    }
+
+    @Override
+    public TransportResponse send(String method, String url, Map<String, String> headers, byte[] body) throws IOException {
+        URI uri = URI.create(url);
+        HostClient client = clients.computeIfAbsent(key(uri), k -> new HostClient(defaultConfig));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .method(method, body == null ? BodyPublishers.noBody() : BodyPublishers.ofByteArray(body));
+        headers.forEach(builder::header);
+        if (client.config.getReadTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(client.config.getReadTimeout()));
+        }
+        try {
+            HttpResponse<InputStream> response = client.client.send(builder.build(), BodyHandlers.ofInputStream());
+            return new TransportResponse(response.statusCode(), response.body(), response.version());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(format("Interrupted while sending %s %s", method, url), e);
+        }
+    }
+
+    @Override
+    public void configure(String url, TransportConfig config) {
+        String key = key(URI.create(url));
+        HostClient client = clients.get(key);
+        if (client == null || !client.config.equals(config)) {
+            clients.put(key, new HostClient(config));
+        }
+    }
+
+    @Override
+    public PoolStats getStats(String url) {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        clients.clear();
+    }
+
+    private static String key(URI uri) {
+        return format("%s://%s:%d", uri.getScheme().toLowerCase(Locale.ROOT), uri.getHost().toLowerCase(Locale.ROOT), uri.getPort());
+    }
+
+    private static class HostClient {
+        private final TransportConfig config;
+        private final HttpClient client;
+
+        private HostClient(TransportConfig config) {
+            this.config = config;
+            HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2);
+            if (config.getConnectTimeout() > 0) {
+                builder.connectTimeout(Duration.ofMillis(config.getConnectTimeout()));
+            }
+            client = builder.build();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.nosqldriver.jdbc.http.transport;
+
+public class Http2TransportProvider implements HttpTransportProvider {
+    @Override
+    public String getName() {
+        return HttpTransports.HTTP2;
+    }
+
+    @Override
+    public HttpTransport create(TransportConfig defaultConfig) {
+        return new Http2Transport(defaultConfig);
+    }
+}
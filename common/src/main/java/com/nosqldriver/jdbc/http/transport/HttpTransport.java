@@ -0,0 +1,14 @@
+package com.nosqldriver.jdbc.http.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+public interface HttpTransport extends Closeable {
+    TransportResponse send(String method, String url, Map<String, String> headers, byte[] body) throws IOException;
+
+    void configure(String url, TransportConfig config);
+
+    // null if the transport does not manage the connections itself
+    PoolStats getStats(String url);
+}
@@ -0,0 +1,11 @@
+package com.nosqldriver.jdbc.http.transport;
+
+/**
+ * Service provider interface of HTTP transports. Implementations are discovered using {@link java.util.ServiceLoader}
+ * and selected by name using configuration parameter {@code jdbc.http.transport}.
+ */
+public interface HttpTransportProvider {
+    String getName();
+
+    HttpTransport create(TransportConfig defaultConfig);
+}
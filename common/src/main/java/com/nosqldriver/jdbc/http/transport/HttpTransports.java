@@ -0,0 +1,39 @@
+package com.nosqldriver.jdbc.http.transport;
+
+import com.nosqldriver.util.function.Configuration;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+
+public class HttpTransports {
+    public static final String TRANSPORT = "jdbc.http.transport";
+    public static final String HTTP1 = "http1";
+    public static final String HTTP2 = "http2";
+    private static final Map<String, HttpTransport> transports = new ConcurrentHashMap<>();
+
+    private HttpTransports() {
+    }
+
+    public static HttpTransport getDefault() {
+        return get(Configuration.getConfigurationParameter(TRANSPORT, HTTP1));
+    }
+
+    public static HttpTransport get(String name) {
+        return transports.computeIfAbsent(name, HttpTransports::create);
+    }
+
+    private static HttpTransport create(String name) {
+        Map<String, HttpTransportProvider> providers = StreamSupport.stream(ServiceLoader.load(HttpTransportProvider.class, HttpTransports.class.getClassLoader()).spliterator(), false)
+                .collect(Collectors.toMap(HttpTransportProvider::getName, p -> p, (one, two) -> one));
+        HttpTransportProvider provider = providers.get(name);
+        if (provider == null) {
+            throw new IllegalArgumentException(format("Unknown HTTP transport %s. Available transports: %s", name, providers.keySet()));
+        }
+        return provider.create(new TransportConfig(null));
+    }
+}
@@ -0,0 +1,57 @@
+package com.nosqldriver.jdbc.http.transport;
+
+import java.util.StringJoiner;
+
+public class PoolStats {
+    private final int maxConnections;
+    private final int leased;
+    private final int idle;
+    private final long created;
+    private final long reused;
+    private final long evicted;
+
+    public PoolStats(int maxConnections, int leased, int idle, long created, long reused, long evicted) {
+        this.maxConnections = maxConnections;
+        this.leased = leased;
+        this.idle = idle;
+        this.created = created;
+        this.reused = reused;
+        this.evicted = evicted;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getReused() {
+        return reused;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", PoolStats.class.getSimpleName() + "[", "]")
+                .add("maxConnections=" + maxConnections)
+                .add("leased=" + leased)
+                .add("idle=" + idle)
+                .add("created=" + created)
+                .add("reused=" + reused)
+                .add("evicted=" + evicted)
+                .toString();
+    }
+}
@@ -0,0 +1,719 @@
+package com.nosqldriver.jdbc.http.transport;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * HTTP/1.1 transport that keeps persistent connections per host (scheme, host and port) and reuses them
+ * for subsequent requests instead of opening a new socket for each call. New connections are opened through the proxy
+ * chosen by the default {@link ProxySelector}, so the standard proxy properties ({@code http.proxyHost},
+ * {@code https.proxyHost}, {@code http.nonProxyHosts}, {@code socksProxyHost} etc) are honored.
+ */
+public class PooledHttpTransport implements HttpTransport {
+    private static final long EVICTION_PERIOD = 1000;
+    private final Map<String, HostPool> pools = new ConcurrentHashMap<>();
+    private final TransportConfig defaultConfig;
+    private volatile ScheduledExecutorService evictor;
+
+    public PooledHttpTransport() {
+        this(new TransportConfig(null));
+    }
+
+    public PooledHttpTransport(TransportConfig defaultConfig) {
+        this.defaultConfig = defaultConfig;
+    }
+
+    @Override
+    public TransportResponse send(String method, String url, Map<String, String> headers, byte[] body) throws IOException {
+        URL u = new URL(url);
+        HostPool pool = pool(u);
+        PooledConnection connection = pool.acquire();
+        // A request that cannot be repeated is not sent over a connection that has been already closed by the server.
+        if (connection.reused && !isSafe(method) && connection.isStale()) {
+            connection = pool.replace(connection);
+        }
+        try {
+            return exchange(pool, connection, method, request(method, u, headers, body, connection.viaProxy));
+        } catch (StaleConnectionException e) {
+            // The server has closed the idle connection before we tried to reuse it. Nothing was processed, so retry once over a fresh one.
+            connection = pool.replace(connection);
+            return exchange(pool, connection, method, request(method, u, headers, body, connection.viaProxy));
+        }
+    }
+
+    @Override
+    public void configure(String url, TransportConfig config) {
+        String key;
+        try {
+            key = key(new URL(url));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        HostPool old = pools.get(key);
+        if (old != null && old.config.equals(config)) {
+            return;
+        }
+        HostPool previous = pools.put(key, new HostPool(key, config));
+        if (previous != null) {
+            previous.retire();
+        }
+    }
+
+    @Override
+    public PoolStats getStats(String url) {
+        try {
+            HostPool pool = pools.get(key(new URL(url)));
+            return pool == null ? null : pool.stats();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HostPool::retire);
+        pools.clear();
+        ScheduledExecutorService executor = evictor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private TransportResponse exchange(HostPool pool, PooledConnection connection, String method, byte[] request) throws IOException {
+        boolean written = false;
+        boolean responseStarted = false;
+        try {
+            connection.out.write(request);
+            connection.out.flush();
+            written = true;
+            int status;
+            Map<String, String> responseHeaders;
+            do {
+                String statusLine = readLine(connection.in);
+                if (statusLine == null) {
+                    throw new EOFException("Connection closed by server");
+                }
+                responseStarted = true;
+                status = status(statusLine);
+                responseHeaders = readHeaders(connection.in);
+            } while (status >= 100 && status < 200);
+            return new TransportResponse(status, body(pool, connection, method, status, responseHeaders));
+        } catch (IOException e) {
+            // A request that has been sent might have been processed although no response came, so only the methods
+            // without side effects are repeated then.
+            if (connection.reused && !responseStarted && !(e instanceof SocketTimeoutException) && (!written || isSafe(method))) {
+                throw new StaleConnectionException();
+            }
+            pool.release(connection, false);
+            throw e;
+        } catch (RuntimeException e) {
+            pool.release(connection, false);
+            throw e;
+        }
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    private InputStream body(HostPool pool, PooledConnection connection, String method, int status, Map<String, String> headers) throws IOException {
+        boolean keepAlive = !"close".equalsIgnoreCase(headers.get("connection"));
+        if ("HEAD".equals(method) || status == 204 || status == 304) {
+            pool.release(connection, keepAlive);
+            return new EmptyInputStream();
+        }
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            return new ReleasingInputStream(new ChunkedInputStream(connection.in), pool, connection, keepAlive);
+        }
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            long length = Long.parseLong(contentLength.trim());
+            if (length == 0) {
+                pool.release(connection, keepAlive);
+                return new EmptyInputStream();
+            }
+            return new ReleasingInputStream(new FixedLengthInputStream(connection.in, length), pool, connection, keepAlive);
+        }
+        // Neither length nor chunked encoding: the body is terminated by closing of the connection, so it cannot be reused.
+        return new ReleasingInputStream(connection.in, pool, connection, false);
+    }
+
+    private HostPool pool(URL url) {
+        String key = key(url);
+        HostPool pool = pools.get(key);
+        if (pool == null) {
+            pool = pools.computeIfAbsent(key, k -> new HostPool(k, defaultConfig));
+        }
+        return pool;
+    }
+
+    private static String key(URL url) {
+        return format("%s://%s:%d", url.getProtocol().toLowerCase(Locale.ROOT), url.getHost().toLowerCase(Locale.ROOT), port(url));
+    }
+
+    private static int port(URL url) {
+        return url.getPort() >= 0 ? url.getPort() : url.getDefaultPort();
+    }
+
+    // A request sent to HTTP proxy contains the absolute URL instead of the path.
+    private static byte[] request(String method, URL url, Map<String, String> headers, byte[] body, boolean viaProxy) {
+        String path = url.getFile().isEmpty() ? "/" : url.getFile();
+        String authority = url.getPort() >= 0 ? format("%s:%d", url.getHost(), url.getPort()) : url.getHost();
+        StringBuilder head = new StringBuilder();
+        head.append(method).append(' ');
+        if (viaProxy) {
+            head.append(url.getProtocol()).append("://").append(authority);
+        }
+        head.append(path).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(authority).append("\r\n");
+        Map<String, String> all = new HashMap<>();
+        all.put("Accept", "*/*");
+        all.put("Connection", "keep-alive");
+        all.putAll(headers);
+        all.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        int length = body == null ? 0 : body.length;
+        if (length > 0 || !"GET".equals(method)) {
+            head.append("Content-Length: ").append(length).append("\r\n");
+        }
+        head.append("\r\n");
+        byte[] headBytes = head.toString().getBytes(ISO_8859_1);
+        if (length == 0) {
+            return headBytes;
+        }
+        byte[] request = new byte[headBytes.length + length];
+        System.arraycopy(headBytes, 0, request, 0, headBytes.length);
+        System.arraycopy(body, 0, request, headBytes.length, length);
+        return request;
+    }
+
+    private static int status(String statusLine) throws IOException {
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+            throw new IOException("Malformed HTTP status line: " + statusLine);
+        }
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed HTTP status line: " + statusLine);
+        }
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return b < 0 && line.size() == 0 ? null : new String(line.toByteArray(), ISO_8859_1);
+    }
+
+    private ScheduledExecutorService evictor() {
+        ScheduledExecutorService executor = evictor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = evictor;
+                if (executor == null) {
+                    executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "http-connection-evictor");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.scheduleWithFixedDelay(() -> pools.values().forEach(HostPool::evictIdle), EVICTION_PERIOD, EVICTION_PERIOD, TimeUnit.MILLISECONDS);
+                    evictor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private class HostPool {
+        private final String key;
+        private final String host;
+        private final int port;
+        private final boolean secure;
+        private final TransportConfig config;
+        private final Semaphore permits;
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+        private final AtomicInteger leased = new AtomicInteger();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong reused = new AtomicLong();
+        private final AtomicLong evicted = new AtomicLong();
+        private volatile boolean retired = false;
+
+        private HostPool(String key, TransportConfig config) {
+            this.key = key;
+            URL url;
+            try {
+                url = new URL(key);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+            this.host = url.getHost();
+            this.port = url.getPort();
+            this.secure = "https".equals(url.getProtocol());
+            this.config = config;
+            this.permits = new Semaphore(config.getMaxConnections(), true);
+            evictor();
+        }
+
+        private PooledConnection acquire() throws IOException {
+            try {
+                if (config.getConnectTimeout() > 0) {
+                    if (!permits.tryAcquire(config.getConnectTimeout(), TimeUnit.MILLISECONDS)) {
+                        throw new IOException(format("Timeout waiting for connection to %s; all %d connections are in use", key, config.getMaxConnections()));
+                    }
+                } else {
+                    permits.acquire();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for connection to " + key, e);
+            }
+            leased.incrementAndGet();
+            try {
+                PooledConnection connection = pollIdle();
+                if (connection != null) {
+                    reused.incrementAndGet();
+                    connection.reused = true;
+                    return connection;
+                }
+                return connect();
+            } catch (IOException | RuntimeException e) {
+                leased.decrementAndGet();
+                permits.release();
+                throw e;
+            }
+        }
+
+        // Replaces a broken connection by a new one without giving back the permit.
+        private PooledConnection replace(PooledConnection broken) throws IOException {
+            broken.close();
+            try {
+                return connect();
+            } catch (IOException | RuntimeException e) {
+                leased.decrementAndGet();
+                permits.release();
+                throw e;
+            }
+        }
+
+        private PooledConnection pollIdle() {
+            long now = System.currentTimeMillis();
+            synchronized (idle) {
+                for (PooledConnection connection = idle.pollFirst(); connection != null; connection = idle.pollFirst()) {
+                    if (now - connection.lastUsed < config.getIdleTimeout() && !connection.socket.isClosed()) {
+                        return connection;
+                    }
+                    evicted.incrementAndGet();
+                    connection.close();
+                }
+            }
+            return null;
+        }
+
+        // Plain connections are opened by a channel, so their staleness can be checked by a non-blocking read.
+        // The channel of TLS connection carries encrypted data, so it is not used then.
+        private PooledConnection connect() throws IOException {
+            Proxy proxy = proxy();
+            SocketChannel channel = proxy.type() == Proxy.Type.SOCKS ? null : SocketChannel.open();
+            Socket socket = channel == null ? new Socket(proxy) : channel.socket();
+            try {
+                socket.setTcpNoDelay(true);
+                socket.setKeepAlive(true);
+                SocketAddress address = proxy.type() == Proxy.Type.HTTP ? proxy.address() : InetSocketAddress.createUnresolved(host, port);
+                socket.connect(proxy.type() == Proxy.Type.DIRECT ? new InetSocketAddress(host, port) : address, config.getConnectTimeout());
+                socket.setSoTimeout(config.getReadTimeout());
+                if (secure) {
+                    if (proxy.type() == Proxy.Type.HTTP) {
+                        tunnel(socket);
+                    }
+                    socket = ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(socket, host, port, true);
+                    channel = null;
+                }
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            created.incrementAndGet();
+            return new PooledConnection(socket, channel, !secure && proxy.type() == Proxy.Type.HTTP, config.getReadTimeout());
+        }
+
+        private Proxy proxy() {
+            ProxySelector selector = ProxySelector.getDefault();
+            List<Proxy> proxies = selector == null ? null : selector.select(URI.create(key));
+            return proxies == null || proxies.isEmpty() ? Proxy.NO_PROXY : proxies.get(0);
+        }
+
+        // TLS connection through HTTP proxy is established over a tunnel opened by CONNECT request.
+        private void tunnel(Socket socket) throws IOException {
+            String authority = format("%s:%d", host, port);
+            OutputStream out = socket.getOutputStream();
+            out.write(format("CONNECT %s HTTP/1.1\r\nHost: %s\r\n\r\n", authority, authority).getBytes(ISO_8859_1));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            String statusLine = readLine(in);
+            if (statusLine == null) {
+                throw new EOFException("Connection closed by proxy");
+            }
+            int status = status(statusLine);
+            readHeaders(in);
+            if (status != 200) {
+                throw new IOException(format("Proxy refused to connect to %s: %s", authority, statusLine));
+            }
+        }
+
+        private void release(PooledConnection connection, boolean reusable) {
+            leased.decrementAndGet();
+            try {
+                if (reusable && !retired && !connection.socket.isClosed()) {
+                    connection.lastUsed = System.currentTimeMillis();
+                    synchronized (idle) {
+                        idle.addFirst(connection);
+                    }
+                } else {
+                    connection.close();
+                }
+            } finally {
+                permits.release();
+            }
+        }
+
+        private void evictIdle() {
+            long now = System.currentTimeMillis();
+            synchronized (idle) {
+                // Most recently used connections are at the head, so the stale ones are collected from the tail.
+                for (Iterator<PooledConnection> it = idle.descendingIterator(); it.hasNext();) {
+                    PooledConnection connection = it.next();
+                    if (now - connection.lastUsed < config.getIdleTimeout()) {
+                        break;
+                    }
+                    it.remove();
+                    evicted.incrementAndGet();
+                    connection.close();
+                }
+            }
+        }
+
+        private void retire() {
+            retired = true;
+            synchronized (idle) {
+                idle.forEach(PooledConnection::close);
+                idle.clear();
+            }
+        }
+
+        private PoolStats stats() {
+            int idleCount;
+            synchronized (idle) {
+                idleCount = idle.size();
+            }
+            return new PoolStats(config.getMaxConnections(), leased.get(), idleCount, created.get(), reused.get(), evicted.get());
+        }
+    }
+
+    private static class PooledConnection {
+        private final Socket socket;
+        // null if the socket cannot be read directly by the channel
+        private final SocketChannel channel;
+        private final boolean viaProxy;
+        private final int readTimeout;
+        private final InputStream in;
+        private final OutputStream out;
+        private volatile long lastUsed;
+        private boolean reused = false;
+
+        private PooledConnection(Socket socket, SocketChannel channel, boolean viaProxy, int readTimeout) throws IOException {
+            this.socket = socket;
+            this.channel = channel;
+            this.viaProxy = viaProxy;
+            this.readTimeout = readTimeout;
+            this.in = new BufferedInputStream(socket.getInputStream(), 8192);
+            this.out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+        }
+
+        // An idle connection has nothing to read unless the server has closed it, so a non-blocking read tells it without waiting.
+        // Other sockets (TLS and SOCKS) are read through the socket itself with the shortest timeout instead.
+        private boolean isStale() {
+            try {
+                if (in.available() > 0) {
+                    return true;
+                }
+                if (channel != null) {
+                    synchronized (channel.blockingLock()) {
+                        channel.configureBlocking(false);
+                        try {
+                            return channel.read(ByteBuffer.allocate(1)) != 0;
+                        } finally {
+                            channel.configureBlocking(true);
+                        }
+                    }
+                }
+                socket.setSoTimeout(1);
+                try {
+                    in.read();
+                    return true;
+                } catch (SocketTimeoutException e) {
+                    return false;
+                } finally {
+                    socket.setSoTimeout(readTimeout);
+                }
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing to do: the connection is being discarded anyway
+            }
+        }
+    }
+
+    private static class StaleConnectionException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private StaleConnectionException() {
+            super("Stale connection");
+        }
+    }
+
+    private static class EmptyInputStream extends InputStream {
+        @Override
+        public int read() {
+            return -1;
+        }
+    }
+
+    // Gives the connection back to the pool once the body is fully consumed; closing before the end discards the connection.
+    private static class ReleasingInputStream extends FilterInputStream {
+        private final HostPool pool;
+        private final PooledConnection connection;
+        private final boolean keepAlive;
+        private boolean done = false;
+
+        private ReleasingInputStream(InputStream in, HostPool pool, PooledConnection connection, boolean keepAlive) {
+            super(in);
+            this.pool = pool;
+            this.connection = connection;
+            this.keepAlive = keepAlive;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (done) {
+                return -1;
+            }
+            int b = guard(() -> super.read());
+            if (b < 0) {
+                finish(keepAlive);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int n = guard(() -> super.read(b, off, len));
+            if (n < 0) {
+                finish(keepAlive);
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return done ? 0 : super.available();
+        }
+
+        @Override
+        public void close() {
+            finish(false);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private int guard(IORead read) throws IOException {
+            try {
+                return read.read();
+            } catch (IOException | RuntimeException e) {
+                finish(false);
+                throw e;
+            }
+        }
+
+        private void finish(boolean reusable) {
+            if (!done) {
+                done = true;
+                pool.release(connection, reusable);
+            }
+        }
+    }
+
+    private interface IORead {
+        int read() throws IOException;
+    }
+
+    private static class FixedLengthInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        private FixedLengthInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of response body");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, (int)Math.min(len, remaining));
+            if (n < 0) {
+                throw new EOFException("Unexpected end of response body");
+            }
+            remaining -= n;
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int)Math.min(in.available(), remaining);
+        }
+    }
+
+    private static class ChunkedInputStream extends InputStream {
+        private final InputStream in;
+        private long chunkRemaining = 0;
+        private boolean eof = false;
+
+        private ChunkedInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureChunk()) {
+                return -1;
+            }
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of chunked response body");
+            }
+            chunkRemaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (!ensureChunk()) {
+                return -1;
+            }
+            int n = in.read(b, off, (int)Math.min(len, chunkRemaining));
+            if (n < 0) {
+                throw new EOFException("Unexpected end of chunked response body");
+            }
+            chunkRemaining -= n;
+            return n;
+        }
+
+        private boolean ensureChunk() throws IOException {
+            if (eof) {
+                return false;
+            }
+            if (chunkRemaining > 0) {
+                return true;
+            }
+            String line = readLine(in);
+            if (line != null && line.isEmpty()) { // CRLF that terminates the previous chunk
+                line = readLine(in);
+            }
+            if (line == null) {
+                throw new EOFException("Unexpected end of chunked response body");
+            }
+            int extension = line.indexOf(';');
+            chunkRemaining = Long.parseLong((extension >= 0 ? line.substring(0, extension) : line).trim(), 16);
+            if (chunkRemaining == 0) {
+                readHeaders(in); // trailers
+                eof = true;
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.nosqldriver.jdbc.http.transport;
+
+public class PooledHttpTransportProvider implements HttpTransportProvider {
+    @Override
+    public String getName() {
+        return HttpTransports.HTTP1;
+    }
+
+    @Override
+    public HttpTransport create(TransportConfig defaultConfig) {
+        return new PooledHttpTransport(defaultConfig);
+    }
+}
@@ -0,0 +1,96 @@
+package com.nosqldriver.jdbc.http.transport;
+
+import com.nosqldriver.util.function.Configuration;
+
+import java.util.Objects;
+import java.util.Properties;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+public class TransportConfig {
+    public static final String MAX_CONNECTIONS = "jdbc.http.pool.max.connections";
+    public static final String IDLE_TIMEOUT = "jdbc.http.pool.idle.timeout";
+    public static final String CONNECT_TIMEOUT = "jdbc.http.connect.timeout";
+    public static final String READ_TIMEOUT = "jdbc.http.read.timeout";
+
+    private final int maxConnections;
+    private final long idleTimeout;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    public TransportConfig(Properties props) {
+        this(
+                intProperty(props, MAX_CONNECTIONS, 20),
+                intProperty(props, IDLE_TIMEOUT, 20_000),
+                intProperty(props, CONNECT_TIMEOUT, 10_000),
+                intProperty(props, READ_TIMEOUT, 0)
+        );
+    }
+
+    public TransportConfig(int maxConnections, long idleTimeout, int connectTimeout, int readTimeout) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Maximal number of connections must be positive but was " + maxConnections);
+        }
+        this.maxConnections = maxConnections;
+        this.idleTimeout = idleTimeout;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    // Also limits the time spent waiting for a free connection when the pool is exhausted. 0 means "wait forever".
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    // 0 means "wait forever"; it is the default because a statement may legally run for a long time.
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public static boolean isSet(Properties props) {
+        return props != null && Stream.of(MAX_CONNECTIONS, IDLE_TIMEOUT, CONNECT_TIMEOUT, READ_TIMEOUT).anyMatch(props::containsKey);
+    }
+
+    private static int intProperty(Properties props, String name, int defaultValue) {
+        String value = props == null ? null : props.getProperty(name);
+        if (value == null) {
+            value = Configuration.getConfigurationParameter(name, Integer.toString(defaultValue));
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TransportConfig that = (TransportConfig) o;
+        return maxConnections == that.maxConnections && idleTimeout == that.idleTimeout && connectTimeout == that.connectTimeout && readTimeout == that.readTimeout;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConnections, idleTimeout, connectTimeout, readTimeout);
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", TransportConfig.class.getSimpleName() + "[", "]")
+                .add("maxConnections=" + maxConnections)
+                .add("idleTimeout=" + idleTimeout)
+                .add("connectTimeout=" + connectTimeout)
+                .add("readTimeout=" + readTimeout)
+                .toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.nosqldriver.jdbc.http.transport;
+
+import java.io.InputStream;
+import java.net.http.HttpClient;
+
+public class TransportResponse {
+    private final int status;
+    private final InputStream body;
+    private final HttpClient.Version version;
+
+    public TransportResponse(int status, InputStream body) {
+        this(status, body, HttpClient.Version.HTTP_1_1);
+    }
+
+    public TransportResponse(int status, InputStream body, HttpClient.Version version) {
+        this.status = status;
+        this.body = body;
+        this.version = version;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    // version of the protocol the response has been received by
+    public HttpClient.Version getVersion() {
+        return version;
+    }
+
+    // The body must be either read till the end or closed; otherwise the underlying connection cannot be reused.
+    public InputStream getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.model.TransportableException;
+import com.nosqldriver.jdbc.http.transport.HttpTransport;
+import com.nosqldriver.jdbc.http.transport.PoolStats;
+import com.nosqldriver.jdbc.http.transport.TransportConfig;
+import com.nosqldriver.jdbc.http.transport.TransportResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLDataException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HttpConnectorTest {
+    @Test
+    void value() {
+        assertEquals(Map.of("a", 1), new HttpConnector(respond("{\"a\":1}".getBytes(StandardCharsets.UTF_8))).get("http://localhost:8080/x", Map.class));
+    }
+
+    @Test
+    void errorAfterCommittedResponse() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write("{\"a\":[1,2,".getBytes(StandardCharsets.UTF_8));
+        body.write(TransportableException.RECORD_SEPARATOR);
+        body.write("{\"classNames\":[\"java.sql.SQLDataException\"],\"message\":\"bad value\"}".getBytes(StandardCharsets.UTF_8));
+        HttpConnector connector = new HttpConnector(respond(body.toByteArray()));
+        SQLDataException e = assertThrows(SQLDataException.class, () -> connector.get("http://localhost:8080/x", Map.class));
+        assertEquals("bad value", e.getMessage());
+    }
+
+    @Test
+    void truncatedResponse() {
+        HttpConnector connector = new HttpConnector(respond("{\"a\":[1,2,".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(RuntimeException.class, () -> connector.get("http://localhost:8080/x", Map.class));
+    }
+
+    @Test
+    void configureOnce() {
+        List<TransportConfig> configs = new ArrayList<>();
+        HttpConnector connector = new HttpConnector(respond(new byte[0], configs));
+        String url = "http://localhost:8080";
+        connector.configure(url, null);
+        connector.configure(url, new Properties());
+        Properties props = new Properties();
+        props.setProperty(TransportConfig.MAX_CONNECTIONS, "3");
+        connector.configure(url, props);
+        connector.configure(url, props);
+        connector.configure(url, new Properties());
+        assertEquals(2, configs.size());
+        assertEquals(3, configs.get(1).getMaxConnections());
+    }
+
+    private HttpTransport respond(byte[] body) {
+        return respond(body, new ArrayList<>());
+    }
+
+    private HttpTransport respond(byte[] body, List<TransportConfig> configs) {
+        return new HttpTransport() {
+            @Override
+            public TransportResponse send(String method, String url, Map<String, String> headers, byte[] payload) {
+                return new TransportResponse(200, new ByteArrayInputStream(body));
+            }
+
+            @Override
+            public void configure(String url, TransportConfig config) {
+                configs.add(config);
+            }
+
+            @Override
+            public PoolStats getStats(String url) {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HttpConnectorsTest {
+    @Test
+    void baseUrl() {
+        assertEquals("http://localhost:8080", HttpConnectors.baseUrl("http://localhost:8080"));
+        assertEquals("http://localhost:8080", HttpConnectors.baseUrl("http://localhost:8080/connection/123/statement/456"));
+        assertEquals("", HttpConnectors.baseUrl(null));
+    }
+
+    @Test
+    void sameConnectorForSameServer() {
+        assertSame(HttpConnectors.get("http://localhost:8080/connection/1"), HttpConnectors.get("http://localhost:8080/connection/2/resultset/3"));
+        assertNotSame(HttpConnectors.get("http://localhost:8080/connection/1"), HttpConnectors.get("http://localhost:8081/connection/1"));
+    }
+}
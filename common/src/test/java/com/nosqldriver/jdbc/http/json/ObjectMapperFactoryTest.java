@@ -3,58 +3,61 @@ package com.nosqldriver.jdbc.http.json;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nosqldriver.jdbc.http.model.RowData;
+import com.nosqldriver.jdbc.http.model.TransportableException;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Date;
+import java.sql.SQLTimeoutException;
 import java.sql.Time;
 import java.sql.Timestamp;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 class ObjectMapperFactoryTest {
     @Test
     void noData() throws JsonProcessingException {
-        test(new RowData(true, false, false, new Object[0]));
+        test(new RowData(true, new Object[0]));
     }
 
     @Test
     void string() throws JsonProcessingException {
-        test(new RowData(true, true, true, new Object[] {"hello"}));
+        test(new RowData(true, new Object[] {"hello"}));
     }
 
     @Test
     void integer() throws JsonProcessingException {
-        test(new RowData(true, true, true, new Object[] {123}));
+        test(new RowData(true, new Object[] {123}));
     }
 
     @Test
     void floatingPointNumber() throws JsonProcessingException {
-        test(new RowData(true, true, true, new Object[] {3.14}));
+        test(new RowData(true, new Object[] {3.14}));
     }
 
     @Test
     void booleanValue() throws JsonProcessingException {
-        test(new RowData(true, true, true, new Object[] {true}));
+        test(new RowData(true, new Object[] {true}));
     }
 
     @Test
     void time() throws JsonProcessingException {
-        test(new RowData(true, true, true, new Object[] {Time.valueOf("22:33:44")}));
+        test(new RowData(true, new Object[] {Time.valueOf("22:33:44")}));
     }
 
     @Test
     void date() throws JsonProcessingException {
-        test(new RowData(true, true, true, new Object[] {new Date(System.currentTimeMillis())}));
+        test(new RowData(true, new Object[] {new Date(System.currentTimeMillis())}));
     }
 
     @Test
     void timestamp() throws JsonProcessingException {
-        test(new RowData(true, true, true, new Object[] {new Timestamp(System.currentTimeMillis())}));
+        test(new RowData(true, new Object[] {new Timestamp(System.currentTimeMillis())}));
     }
 
     @Test
     void several() throws JsonProcessingException {
-        test(new RowData(true, true, true, new Object[] {
+        test(new RowData(true, new Object[] {
                 "hello", 345, 2.7, 3.1415926,
                 Time.valueOf("22:33:44"),
                 new Date(System.currentTimeMillis()),
@@ -62,10 +65,22 @@ class ObjectMapperFactoryTest {
         }));
     }
 
+    @Test
+    void error() throws JsonProcessingException {
+        ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+        assertFalse(objectMapper.writeValueAsString(new RowData(false, null)).contains("error"));
+        RowData in = new RowData(false, null, new TransportableException(new SQLTimeoutException("timeout")));
+        RowData out = objectMapper.readValue(objectMapper.writeValueAsString(in), RowData.class);
+        assertFalse(out.isMoved());
+        Throwable error = out.getError().getPayload();
+        assertEquals(SQLTimeoutException.class, error.getClass());
+        assertEquals("timeout", error.getMessage());
+    }
+
     void test(RowData in) throws JsonProcessingException {
         ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
         RowData out = objectMapper.readValue(objectMapper.writeValueAsString(in), RowData.class);
         assertEquals(in, out);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.nosqldriver.jdbc.http.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConnectionPropertiesTest {
+    @Test
+    void equalPropertiesShareCasters() {
+        ConnectionProperties first = ConnectionProperties.of(properties("booleanToNumber", "true"));
+        ConnectionProperties second = ConnectionProperties.of(properties("booleanToNumber", "true"));
+        assertSame(first, second);
+        assertSame(first.getResultSetCasters(), second.getResultSetCasters());
+
+        ConnectionProperties other = ConnectionProperties.of(properties("booleanToNumber", "false"));
+        assertNotSame(first, other);
+        assertNotSame(first.getResultSetCasters(), other.getResultSetCasters());
+    }
+
+    @Test
+    void changedPropertiesAreParsedAgain() {
+        Properties props = properties("charToByte", "false");
+        ConnectionProperties first = ConnectionProperties.of(props);
+        props.setProperty("charToByte", "true");
+        assertNotSame(first, ConnectionProperties.of(props));
+    }
+
+    @Test
+    void onlyRecentlyUsedPropertiesAreKept() {
+        ConnectionProperties first = ConnectionProperties.of(properties("unsupportedFunctions", "first"));
+        for (int i = 0; i < 16; i++) {
+            ConnectionProperties.of(properties("unsupportedFunctions", "f" + i));
+        }
+        assertNotSame(first, ConnectionProperties.of(properties("unsupportedFunctions", "first")));
+    }
+
+    @Test
+    void castersFollowProperties() throws SQLException {
+        ColumnAccessor column = ColumnAccessor.of(metadata(), null)[0];
+        assertEquals(1, ConnectionProperties.of(properties("booleanToNumber", "true")).getResultSetCasters().get(int.class).cast(true, int.class, column));
+        ResultSetCasters.Caster<?> strict = ConnectionProperties.of(properties("booleanToNumber", "false")).getResultSetCasters().get(int.class);
+        assertThrows(SQLException.class, () -> strict.cast(true, int.class, column));
+    }
+
+    @Test
+    void columnAccessors() throws SQLException {
+        ColumnAccessor[] columns = ColumnAccessor.of(metadata(), null);
+        assertEquals(2, columns.length);
+        assertEquals(1, columns[0].getIndex());
+        assertEquals(Integer.class, columns[0].getColumnClass());
+        assertEquals(Types.INTEGER, columns[0].getSqlType());
+        assertEquals("INTEGER", columns[0].getTypeName());
+        // the class of the vendor type is not available on the client
+        assertEquals(Object.class, columns[1].getColumnClass());
+        assertEquals(Types.OTHER, columns[1].getSqlType());
+    }
+
+    private static Properties properties(String name, String value) {
+        Properties props = new Properties();
+        props.setProperty(name, value);
+        return props;
+    }
+
+    private ResultSetMetaData metadata() {
+        return (ResultSetMetaData)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+            boolean first = args != null && (int)args[0] == 1;
+            switch (method.getName()) {
+                case "getColumnCount": return 2;
+                case "getColumnClassName": return first ? Integer.class.getName() : "com.vendor.Geometry";
+                case "getColumnType": return first ? Types.INTEGER : Types.OTHER;
+                case "getColumnTypeName": return first ? "INTEGER" : "GEOMETRY";
+                default: throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.nosqldriver.jdbc.http.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PooledHttpTransportTest {
+    @Test
+    void sendThroughProxy() throws Exception {
+        ProxySelector defaultSelector = ProxySelector.getDefault();
+        try (ServerSocket proxy = new ServerSocket(0); PooledHttpTransport transport = new PooledHttpTransport()) {
+            List<URI> selected = new ArrayList<>();
+            ProxySelector.setDefault(new ProxySelector() {
+                @Override
+                public List<Proxy> select(URI uri) {
+                    selected.add(uri);
+                    return List.of(new Proxy(Proxy.Type.HTTP, new InetSocketAddress("localhost", proxy.getLocalPort())));
+                }
+
+                @Override
+                public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+                }
+            });
+            CompletableFuture<List<String>> requests = CompletableFuture.supplyAsync(() -> serve(proxy, 2));
+
+            for (int i = 0; i < 2; i++) {
+                TransportResponse response = transport.send("GET", "http://db.example:8080/connection/" + i, Collections.emptyMap(), null);
+                assertEquals(200, response.getStatus());
+                assertEquals("ok", new String(response.getBody().readAllBytes(), ISO_8859_1));
+            }
+
+            assertEquals(List.of("GET http://db.example:8080/connection/0 HTTP/1.1", "GET http://db.example:8080/connection/1 HTTP/1.1"), requests.get());
+            // the connection to the proxy is reused
+            assertEquals(List.of(URI.create("http://db.example:8080")), selected);
+            assertEquals(1, transport.getStats("http://db.example:8080").getCreated());
+        } finally {
+            ProxySelector.setDefault(defaultSelector);
+        }
+    }
+
+    // Answers the given number of requests sent over one connection and returns their request lines.
+    private static List<String> serve(ServerSocket server, int n) {
+        List<String> requestLines = new ArrayList<>();
+        try (Socket socket = server.accept()) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), ISO_8859_1));
+            OutputStream out = socket.getOutputStream();
+            for (int i = 0; i < n; i++) {
+                requestLines.add(in.readLine());
+                // headers; the request has no body
+                String header;
+                do {
+                    header = in.readLine();
+                } while (header != null && !header.isEmpty());
+                out.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok".getBytes(ISO_8859_1));
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return requestLines;
+    }
+}
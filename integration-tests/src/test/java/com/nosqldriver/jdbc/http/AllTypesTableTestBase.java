@@ -0,0 +1,42 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.model.EntityProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInfo;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static java.lang.String.format;
+
+abstract class AllTypesTableTestBase extends ControllerTestBase {
+    @BeforeEach
+    void beforeEach(TestInfo testInfo) throws SQLException {
+        super.beforeEach(testInfo);
+        String nativeUrl = testInfo.getDisplayName();
+        nativeConn.createStatement().executeUpdate(sqlScript(db(nativeUrl), "create.table.all-types.sql"));
+    }
+
+    @AfterEach
+    void cleanDb(TestInfo testInfo) throws SQLException {
+        String nativeUrl = testInfo.getDisplayName();
+        nativeConn.createStatement().executeUpdate(sqlScript(db(nativeUrl), "drop.table.all-types.sql"));
+        super.cleanDb();
+    }
+
+    protected void insertRows(int n) throws SQLException {
+        try (PreparedStatement insert = nativeConn.prepareStatement("insert into test_all_types (i) values (?)")) {
+            for (int i = 0; i < n; i++) {
+                insert.setInt(1, i);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    // key of the entity of the proxy in the registry of the server
+    protected String getProxyKey(Object obj) {
+        String[] urlParts = ((EntityProxy)obj).getEntityUrl().split("/");
+        return format("%s@%s", urlParts[urlParts.length - 2], urlParts[urlParts.length - 1]);
+    }
+}
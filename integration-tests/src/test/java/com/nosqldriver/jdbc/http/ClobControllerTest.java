@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.sql.Clob;
 import java.sql.Connection;
@@ -138,6 +139,48 @@ public class ClobControllerTest extends ControllerTestBase {
         characterStream(nativeUrl, "bye", clob -> clob.getCharacterStream(1, "bye".length()));
     }
 
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void streamsInChunks(String nativeUrl) throws SQLException, IOException {
+        System.setProperty(HttpConnector.STREAM_CHUNK_SIZE, "3");
+        try {
+            create(nativeUrl);
+            if (nativeClob == null) {
+                return;
+            }
+            String text = "<hello>\uD83D\uDE00 world \uD83D\uDE00\uD83D\uDE00</hello>";
+            String ascii = "<hello>lorem ipsum dolor sit amet</hello>";
+            try {
+                httpClob.setString(1, text);
+                try (Writer writer = httpClob.setCharacterStream(1)) {
+                    writer.write(text);
+                }
+                try (Reader reader = httpClob.getCharacterStream()) {
+                    StringWriter out = new StringWriter();
+                    reader.transferTo(out);
+                    assertEquals(text, out.toString());
+                }
+
+                httpClob.setString(1, ascii);
+                try (OutputStream os = httpClob.setAsciiStream(1)) {
+                    os.write(ascii.getBytes(), 0, 4);
+                    os.write(ascii.getBytes(), 4, ascii.length() - 4);
+                }
+                try (InputStream in = httpClob.getAsciiStream()) {
+                    assertEquals(ascii.charAt(0), in.read());
+                    assertEquals(ascii.substring(1), new String(in.readAllBytes()));
+                }
+            } catch (SQLException e) {
+                if (!(e instanceof SQLFeatureNotSupportedException || e.getMessage().contains("Feature not supported"))) {
+                    throw e;
+                }
+                // ignore. Unsupported...
+            }
+        } finally {
+            System.getProperties().remove(HttpConnector.STREAM_CHUNK_SIZE);
+        }
+    }
+
     private void characterStream(String nativeUrl, String in, ThrowingFunction<Clob, Reader, SQLException> characterStreamGetter) throws SQLException, IOException {
         create(nativeUrl);
         if (nativeClob == null) {
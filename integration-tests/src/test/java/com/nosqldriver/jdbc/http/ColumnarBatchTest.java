@@ -0,0 +1,83 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.model.ResultSetProxy;
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class ColumnarBatchTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void readColumnarBatches(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertValues();
+        System.setProperty(ResultSetProxy.COLUMNAR, "true");
+        try {
+            String query = "select i, bi, vc from test_all_types order by i";
+            try (Statement nativeStatement = nativeConn.createStatement(); ResultSet nativeRs = nativeStatement.executeQuery(query);
+                 Statement httpStatement = httpConn.createStatement()) {
+                httpStatement.setFetchSize(4);
+                ResultSet httpRs = httpStatement.executeQuery(query);
+                while (nativeRs.next()) {
+                    assertTrue(httpRs.next());
+                    assertEquals(nativeRs.getInt(1), httpRs.getInt(1));
+                    assertEquals(nativeRs.getLong(2), httpRs.getLong(2));
+                    assertEquals(nativeRs.getString(3), httpRs.getString(3));
+                    assertEquals(nativeRs.getObject(1), httpRs.getObject(1));
+                    assertEquals(nativeRs.getObject(2), httpRs.getObject(2));
+                }
+                assertFalse(httpRs.next());
+            }
+        } finally {
+            System.getProperties().remove(ResultSetProxy.COLUMNAR);
+        }
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void readDictionaryEncodedStrings(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertValues();
+        System.setProperty(ResultSetProxy.COLUMNAR, "true");
+        try (Statement statement = httpConn.createStatement()) {
+            statement.setFetchSize(4);
+            ResultSet rs = statement.executeQuery("select vc from test_all_types order by i");
+            String open = null;
+            for (int i = 0; i < 12; i++) {
+                assertTrue(rs.next());
+                // the second batch (the first one comes with the query) is dictionary encoded, so equal strings are the same instance
+                if (i == 4) {
+                    open = rs.getString(1);
+                    assertEquals("open", open);
+                } else if (i == 5) {
+                    assertNull(rs.getString(1));
+                    assertTrue(rs.wasNull());
+                } else if (i > 5 && i < 8) {
+                    assertSame(open, rs.getString(1));
+                }
+            }
+            assertFalse(rs.next());
+        } finally {
+            System.getProperties().remove(ResultSetProxy.COLUMNAR);
+        }
+    }
+
+    private void insertValues() throws SQLException {
+        try (PreparedStatement insert = nativeConn.prepareStatement("insert into test_all_types (i, bi, vc) values (?, ?, ?)")) {
+            for (int i = 0; i < 12; i++) {
+                insert.setInt(1, i);
+                insert.setLong(2, i * 10_000_000_000L);
+                insert.setString(3, i == 5 ? null : i >= 4 && i < 8 ? "open" : "v" + i);
+                insert.executeUpdate();
+            }
+        }
+    }
+}
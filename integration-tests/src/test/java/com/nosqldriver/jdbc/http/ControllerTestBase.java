@@ -13,6 +13,8 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.TestInfo;
 import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -42,13 +44,14 @@ abstract class ControllerTestBase {
     protected final WebClient webClient = new WebClient();
     private static final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
     protected static ThrowingBiFunction<String, String, String, SQLException> validator = (user, sql) -> sql;
-    protected static Map<String, Object> attributes = new HashMap<>();
+    protected static EntityRegistry attributes = new EntityRegistry();
 
     protected Connection nativeConn;
     protected Connection httpConn;
 
     @BeforeAll
     static void beforeAll() throws IOException {
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, new EmbeddedJettyFactory(new H2cJettyServerFactory()));
         Spark.staticFiles.location("/");
         Spark.port(8080);
         new DriverController(attributes, objectMapper, validator);
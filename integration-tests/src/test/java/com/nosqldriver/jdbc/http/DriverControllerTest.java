@@ -1,6 +1,11 @@
 package com.nosqldriver.jdbc.http;
 
 import com.gargoylesoftware.htmlunit.ScriptException;
+import com.nosqldriver.jdbc.http.transport.HttpTransport;
+import com.nosqldriver.jdbc.http.transport.HttpTransports;
+import com.nosqldriver.jdbc.http.transport.PoolStats;
+import com.nosqldriver.jdbc.http.transport.TransportConfig;
+import com.nosqldriver.jdbc.http.transport.TransportResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,11 +14,19 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
+import java.net.http.HttpClient;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -86,6 +99,48 @@ public class DriverControllerTest extends ControllerTestBase {
         assertFalse(driver.acceptsURL(format("%s#%s", httpUrl, "jdbc:unknown")));
     }
 
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void httpConnectionsAreReused(String nativeUrl) throws SQLException {
+        Properties props = new Properties();
+        props.setProperty(TransportConfig.MAX_CONNECTIONS, "3");
+        HttpDriver driver = new HttpDriver();
+        String url = format("%s#%s", httpUrl, nativeUrl);
+        for (int i = 0; i < 5; i++) {
+            try (Connection conn = driver.connect(url, props)) {
+                assertNotNull(conn);
+                conn.getMetaData();
+            }
+        }
+        PoolStats stats = HttpConnectors.get(httpUrl).getPoolStats(httpUrl);
+        assertEquals(3, stats.getMaxConnections());
+        assertEquals(0, stats.getLeased());
+        assertTrue(stats.getCreated() <= 3);
+        assertTrue(stats.getReused() > 0);
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void concurrentCallsOverHttp2(String nativeUrl) throws InterruptedException, ExecutionException, IOException {
+        HttpTransport transport = HttpTransports.get(HttpTransports.HTTP2);
+        HttpConnector connector = new HttpConnector(transport);
+        String url = format("%s#%s", httpUrl, nativeUrl);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> calls = Collections.nCopies(32, () -> connector.post(connector.buildUrl(httpUrl, "acceptsurl"), url, Boolean.class));
+            for (Future<Boolean> result : executor.invokeAll(calls)) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // the client falls back to HTTP/1.1 silently, so the protocol of the connection is checked explicitly
+        TransportResponse response = transport.send("GET", connector.buildUrl(httpUrl, "stats/memory"), Collections.emptyMap(), null);
+        response.getBody().close();
+        assertEquals(HttpClient.Version.HTTP_2, response.getVersion());
+        assertNull(connector.getPoolStats(httpUrl));
+    }
+
     private void assertCreateAndCloseConnection(String url) throws SQLException {
         assertCreateAndCloseConnection(url, new Properties());
     }
@@ -0,0 +1,67 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class InlinedFirstRowsTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void shortResultSetIsClosedOnServerImmediately(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        Statement statement = httpConn.createStatement();
+        ResultSet rs = statement.executeQuery("select * from test_all_types");
+        String rsKey = getProxyKey(rs);
+        assertTrue(attributes.containsKey(rsKey));
+        assertTrue(((ResultSet)attributes.get(rsKey)).isClosed());
+
+        assertFalse(rs.isClosed());
+        assertFalse(rs.next());
+        assertTrue(rs.getMetaData().getColumnCount() > 0);
+
+        rs.close();
+        assertTrue(rs.isClosed());
+        assertFalse(attributes.containsKey(rsKey));
+        statement.close();
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void positionOfShortResultSetIsKnownLocally(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(2);
+        Statement statement = httpConn.createStatement();
+        // the default of some drivers is one row
+        statement.setFetchSize(10);
+        ResultSet rs = statement.executeQuery("select i from test_all_types order by i");
+        // the cursor is already closed on the server
+        assertTrue(((ResultSet)attributes.get(getProxyKey(rs))).isClosed());
+
+        assertTrue(rs.isBeforeFirst());
+        assertEquals(0, rs.getRow());
+        assertTrue(rs.next());
+        assertTrue(rs.isFirst());
+        assertFalse(rs.isLast());
+        assertEquals(1, rs.getRow());
+        assertFalse(rs.rowUpdated());
+        assertFalse(rs.rowInserted());
+        assertFalse(rs.rowDeleted());
+        assertTrue(rs.next());
+        assertFalse(rs.isFirst());
+        assertTrue(rs.isLast());
+        assertEquals(2, rs.getRow());
+        assertFalse(rs.next());
+        assertTrue(rs.isAfterLast());
+        assertFalse(rs.isLast());
+        assertEquals(0, rs.getRow());
+        assertFalse(rs.rowUpdated());
+
+        rs.close();
+        statement.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.model.ConnectionProxy;
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class LazyStatementTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void createStatementByItsFirstExecution(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(5);
+        System.setProperty(ConnectionProxy.LAZY_STATEMENT, "true");
+        try {
+            int statements = attributes.size();
+            Statement statement = httpConn.createStatement();
+            statement.setMaxRows(2);
+            assertFalse(statement.isClosed());
+            assertEquals(statements, attributes.size());
+
+            ResultSet rs = statement.executeQuery("select i from test_all_types order by i");
+            String statementKey = getProxyKey(statement);
+            assertTrue(attributes.containsKey(statementKey));
+            assertEquals(2, ((Statement)attributes.get(statementKey)).getMaxRows());
+            assertTrue(rs.next());
+            assertTrue(rs.next());
+            assertFalse(rs.next());
+            assertSame(statement, rs.getStatement());
+            assertEquals(2, statement.getMaxRows());
+            statement.close();
+            assertFalse(attributes.containsKey(statementKey));
+
+            Statement update = httpConn.createStatement();
+            assertEquals(5, update.executeUpdate("update test_all_types set i = i"));
+            assertTrue(attributes.containsKey(getProxyKey(update)));
+            update.close();
+
+            Statement failing = httpConn.createStatement();
+            assertThrows(SQLException.class, () -> failing.execute("select nothing from nowhere"));
+            assertEquals(statements, attributes.size());
+            assertTrue(failing.execute("select i from test_all_types"));
+            failing.close();
+
+            Statement unused = httpConn.createStatement();
+            unused.close();
+            assertTrue(unused.isClosed());
+            assertThrows(SQLException.class, () -> unused.executeQuery("select i from test_all_types"));
+            assertEquals(statements, attributes.size());
+        } finally {
+            System.getProperties().remove(ConnectionProxy.LAZY_STATEMENT);
+        }
+    }
+}
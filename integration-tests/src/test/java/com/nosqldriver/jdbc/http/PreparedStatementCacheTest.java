@@ -0,0 +1,67 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.model.ConnectionProxy;
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class PreparedStatementCacheTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void reusePreparedStatementFromClientCache(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(3);
+        System.setProperty(ConnectionProxy.STATEMENT_CACHE, "2");
+        try {
+            String sql = "select i from test_all_types where i = ?";
+            PreparedStatement ps1 = httpConn.prepareStatement(sql);
+            String statementKey = getProxyKey(ps1);
+            ps1.setInt(1, 1);
+            ResultSet rs = ps1.executeQuery();
+            assertTrue(rs.next());
+            String rsKey = getProxyKey(rs);
+            ps1.close();
+            assertTrue(ps1.isClosed());
+            assertTrue(attributes.containsKey(statementKey));
+            assertFalse(attributes.containsKey(rsKey));
+
+            PreparedStatement ps2 = httpConn.prepareStatement(sql);
+            assertNotSame(ps1, ps2);
+            assertEquals(statementKey, getProxyKey(ps2));
+            assertFalse(ps2.isClosed());
+            // the stale statement neither works nor affects the one that reuses its handle
+            ps1.close();
+            assertThrows(SQLException.class, ps1::executeQuery);
+            ps2.setInt(1, 2);
+            assertTrue(ps2.execute());
+            ResultSet rs2 = ps2.getResultSet();
+            assertTrue(rs2.next());
+            assertEquals(2, rs2.getInt(1));
+            String rs2Key = getProxyKey(rs2);
+            ps2.close();
+            assertTrue(attributes.containsKey(statementKey));
+            assertFalse(attributes.containsKey(rs2Key));
+
+            // a statement with changed options is closed on server
+            PreparedStatement configured = httpConn.prepareStatement("select i from test_all_types");
+            configured.setMaxRows(1);
+            String configuredKey = getProxyKey(configured);
+            configured.close();
+            assertFalse(attributes.containsKey(configuredKey));
+
+            httpConn.prepareStatement("select i from test_all_types where i > ?").close();
+            httpConn.prepareStatement("select i from test_all_types where i < ?").close();
+            assertFalse(attributes.containsKey(statementKey));
+        } finally {
+            System.getProperties().remove(ConnectionProxy.STATEMENT_CACHE);
+        }
+    }
+}
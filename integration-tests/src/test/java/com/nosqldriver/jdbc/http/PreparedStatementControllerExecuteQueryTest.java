@@ -1,6 +1,7 @@
 package com.nosqldriver.jdbc.http;
 
 import com.nosqldriver.jdbc.http.AssertUtils.GettersSupplier;
+import com.nosqldriver.jdbc.http.model.PreparedStatementProxy;
 import com.nosqldriver.util.function.ThrowingConsumer;
 import org.junit.jupiter.params.ParameterizedTest;
 
@@ -11,6 +12,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collections;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
 
 public class PreparedStatementControllerExecuteQueryTest extends StatementControllerTestBase<PreparedStatement, Integer> {
@@ -32,6 +37,69 @@ public class PreparedStatementControllerExecuteQueryTest extends StatementContro
         selectTableWithAllTypes(nativeUrl, "select * from test_all_types where i=?", null, Collections.emptyList(), GettersSupplier.BY_TYPE, preparedStatement -> preparedStatement.setInt(1, 12345));
     }
 
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void reuseStatementWithClearedParameters(String nativeUrl) throws SQLException {
+        String db = db(nativeUrl);
+        nativeConn.createStatement().executeUpdate(sqlScript(db, "create.table.all-types.sql"));
+        try {
+            PreparedStatement insert = httpConn.prepareStatement("insert into test_all_types (i, vc) values (?, ?)");
+            insert.setInt(1, 1);
+            insert.setString(2, "one");
+            assertEquals(1, insert.executeUpdate());
+            insert.clearParameters();
+            assertFalse(insert.isClosed());
+            insert.setInt(1, 2);
+            insert.setString(2, "two");
+            assertEquals(1, insert.executeUpdate());
+            insert.close();
+
+            PreparedStatement select = httpConn.prepareStatement("select vc from test_all_types where i=?");
+            select.setInt(1, 2);
+            ResultSet rs = select.executeQuery();
+            assertTrue(rs.next());
+            assertEquals("two", rs.getString(1));
+            assertFalse(rs.next());
+            select.close();
+        } finally {
+            nativeConn.createStatement().executeUpdate(sqlScript(db, "drop.table.all-types.sql"));
+        }
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void executeBatchInChunks(String nativeUrl) throws SQLException {
+        String db = db(nativeUrl);
+        nativeConn.createStatement().executeUpdate(sqlScript(db, "create.table.all-types.sql"));
+        System.setProperty(PreparedStatementProxy.BATCH_CHUNK_SIZE, "2");
+        try {
+            PreparedStatement insert = httpConn.prepareStatement("insert into test_all_types (i, vc) values (?, ?)");
+            for (int i = 0; i < 5; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "v" + i);
+                insert.addBatch();
+            }
+            assertArrayEquals(new int[] {1, 1, 1, 1, 1}, insert.executeBatch());
+            insert.setInt(1, 5);
+            insert.setString(2, "v5");
+            insert.addBatch();
+            assertArrayEquals(new int[] {1}, insert.executeBatch());
+            insert.close();
+
+            ResultSet rs = nativeConn.createStatement().executeQuery("select i, vc from test_all_types order by i");
+            for (int i = 0; i < 6; i++) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(1));
+                assertEquals("v" + i, rs.getString(2));
+            }
+            assertFalse(rs.next());
+            rs.close();
+        } finally {
+            System.getProperties().remove(PreparedStatementProxy.BATCH_CHUNK_SIZE);
+            nativeConn.createStatement().executeUpdate(sqlScript(db, "drop.table.all-types.sql"));
+        }
+    }
+
     @Override
     protected Integer executeUpdate(Connection conn, String update) throws SQLException {
         PreparedStatement ps = conn.prepareStatement(update);
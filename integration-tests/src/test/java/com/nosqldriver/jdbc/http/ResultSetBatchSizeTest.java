@@ -0,0 +1,32 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class ResultSetBatchSizeTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void readAdaptiveBatches(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(500);
+        for (int fetchSize : new int[] {0, 7}) {
+            Statement statement = httpConn.createStatement();
+            statement.setFetchSize(fetchSize);
+            ResultSet rs = statement.executeQuery("select i from test_all_types order by i");
+            for (int i = 0; i < 500; i++) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(1));
+            }
+            assertFalse(rs.next());
+            rs.close();
+            statement.close();
+        }
+    }
+}
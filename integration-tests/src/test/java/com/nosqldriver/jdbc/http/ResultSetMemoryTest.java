@@ -0,0 +1,35 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class ResultSetMemoryTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void responseMemoryIsReleased(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(10);
+        long responses = ResponseMemory.INSTANCE.getCounters().get("responses");
+        Statement statement = httpConn.createStatement();
+        statement.setFetchSize(3);
+        ResultSet rs = statement.executeQuery("select i from test_all_types order by i");
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rs.next());
+        }
+        assertFalse(rs.next());
+        rs.close();
+        statement.close();
+        Map<String, Long> counters = ResponseMemory.INSTANCE.getCounters();
+        assertEquals(0, counters.get("used"));
+        assertTrue(counters.get("peak") > 0);
+        assertTrue(counters.get("responses") - responses >= 4);
+    }
+}
@@ -0,0 +1,58 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class ResultSetPositionTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void positionAcrossFetchedBatches(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(5);
+        String query = "select i from test_all_types order by i";
+        Statement nativeStatement = nativeConn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        Statement httpStatement = httpConn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        httpStatement.setFetchSize(2);
+        ResultSet nativeRs = nativeStatement.executeQuery(query);
+        ResultSet httpRs = httpStatement.executeQuery(query);
+        assertPosition(nativeRs, httpRs);
+        while (nativeRs.next()) {
+            assertTrue(httpRs.next());
+            assertEquals(nativeRs.getInt(1), httpRs.getInt(1));
+            assertPosition(nativeRs, httpRs);
+        }
+        assertFalse(httpRs.next());
+        assertPosition(nativeRs, httpRs);
+
+        assertEquals(nativeRs.previous(), httpRs.previous());
+        assertPosition(nativeRs, httpRs);
+        assertEquals(nativeRs.absolute(2), httpRs.absolute(2));
+        assertPosition(nativeRs, httpRs);
+        assertEquals(nativeRs.next(), httpRs.next());
+        assertPosition(nativeRs, httpRs);
+        assertEquals(nativeRs.first(), httpRs.first());
+        assertPosition(nativeRs, httpRs);
+        assertEquals(nativeRs.previous(), httpRs.previous());
+        assertPosition(nativeRs, httpRs);
+        assertEquals(nativeRs.last(), httpRs.last());
+        assertPosition(nativeRs, httpRs);
+        assertEquals(nativeRs.next(), httpRs.next());
+        assertPosition(nativeRs, httpRs);
+        nativeStatement.close();
+        httpStatement.close();
+    }
+
+    private void assertPosition(ResultSet expected, ResultSet actual) throws SQLException {
+        assertEquals(expected.isBeforeFirst(), actual.isBeforeFirst());
+        assertEquals(expected.isFirst(), actual.isFirst());
+        assertEquals(expected.isLast(), actual.isLast());
+        assertEquals(expected.isAfterLast(), actual.isAfterLast());
+    }
+}
@@ -0,0 +1,48 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.model.ResultSetProxy;
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class ResultSetPrefetchTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void prefetchNextBatches(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(10);
+        System.setProperty(ResultSetProxy.PREFETCH, "0.5");
+        try {
+            Statement statement = httpConn.createStatement();
+            statement.setFetchSize(3);
+            ResultSet rs = statement.executeQuery("select i from test_all_types order by i");
+            for (int i = 0; i < 10; i++) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(1));
+                assertEquals(i == 9, rs.isLast());
+            }
+            assertFalse(rs.next());
+            rs.close();
+
+            ResultSet rs2 = statement.executeQuery("select i from test_all_types order by i");
+            String rsKey = getProxyKey(rs2);
+            for (int i = 0; i < 5; i++) {
+                assertTrue(rs2.next());
+                assertEquals(i, rs2.getInt(1));
+                // other calls wait for the pending prefetch
+                assertEquals(ResultSet.TYPE_FORWARD_ONLY, rs2.getType());
+            }
+            rs2.close();
+            assertFalse(attributes.containsKey(rsKey));
+            statement.close();
+        } finally {
+            System.getProperties().remove(ResultSetProxy.PREFETCH);
+        }
+    }
+}
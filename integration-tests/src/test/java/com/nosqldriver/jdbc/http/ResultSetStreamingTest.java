@@ -0,0 +1,102 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.model.EntityProxy;
+import com.nosqldriver.jdbc.http.model.ResultSetProxy;
+import com.nosqldriver.jdbc.http.model.RowData;
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+public class ResultSetStreamingTest extends AllTypesTableTestBase {
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void streamedResultSetIsClosedOnServerAtItsEnd(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(7);
+        System.setProperty(ResultSetProxy.STREAMING, "true");
+        try {
+            Statement statement = httpConn.createStatement();
+            statement.setFetchSize(2);
+            ResultSet rs = statement.executeQuery("select i from test_all_types order by i");
+            String rsKey = getProxyKey(rs);
+            for (int i = 0; i < 7; i++) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(1));
+            }
+            assertFalse(rs.next());
+            assertFalse(rs.next());
+            assertTrue(((ResultSet)attributes.get(rsKey)).isClosed());
+            rs.close();
+            assertFalse(attributes.containsKey(rsKey));
+            statement.close();
+        } finally {
+            System.getProperties().remove(ResultSetProxy.STREAMING);
+        }
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void closeStreamedResultSetBeforeItsEnd(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(50);
+        System.setProperty(ResultSetProxy.STREAMING, "true");
+        try {
+            Statement statement = httpConn.createStatement();
+            statement.setFetchSize(2);
+            ResultSet rs = statement.executeQuery("select i from test_all_types order by i");
+            String rsKey = getProxyKey(rs);
+            for (int i = 0; i < 5; i++) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(1));
+            }
+            rs.close();
+            assertTrue(rs.isClosed());
+            assertFalse(attributes.containsKey(rsKey));
+
+            ResultSet rs2 = statement.executeQuery("select count(*) from test_all_types");
+            assertTrue(rs2.next());
+            assertEquals(50, rs2.getInt(1));
+            statement.close();
+        } finally {
+            System.getProperties().remove(ResultSetProxy.STREAMING);
+        }
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @JdbcUrls
+    void scrollableResultSetIsNotStreamed(@SuppressWarnings("unused") String nativeUrl) throws SQLException {
+        insertRows(7);
+        System.setProperty(ResultSetProxy.STREAMING, "true");
+        try {
+            Statement statement = httpConn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(3);
+            ResultSet rs = statement.executeQuery("select i from test_all_types order by i");
+            assertEquals(1, rs.getMetaData().getColumnCount());
+            for (int i = 0; i < 7; i++) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getInt(1));
+            }
+            assertFalse(rs.next());
+            assertTrue(rs.first());
+            assertEquals(0, rs.getInt(1));
+            assertFalse(rs.previous());
+            assertTrue(rs.last());
+            assertEquals(6, rs.getInt(1));
+
+            // the server refuses to stream it too
+            String streamUrl = ((EntityProxy)rs).getEntityUrl() + "/stream";
+            assertThrows(SQLException.class, () -> new HttpConnector().getValues(streamUrl, RowData.class));
+            assertTrue(rs.first());
+            rs.close();
+            statement.close();
+        } finally {
+            System.getProperties().remove(ResultSetProxy.STREAMING);
+        }
+    }
+}
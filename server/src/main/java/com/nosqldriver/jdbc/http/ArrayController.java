@@ -9,36 +9,36 @@ import java.sql.Array;
 import java.sql.ResultSet;
 import java.util.Map;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.delete;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.get;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
 import static java.lang.String.format;
-import static spark.Spark.delete;
-import static spark.Spark.get;
-import static spark.Spark.post;
 
 public class ArrayController extends BaseController {
-    protected ArrayController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl) {
+    protected ArrayController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl) {
         super(attributes, objectMapper);
 
-        get(format("%s/array", baseUrl), JSON, (req, res) -> retrieve(() -> getArray(attributes, req), Array::getArray));
-        get(format("%s/array/:index/:count", baseUrl), JSON, (req, res) -> retrieve(() -> getArray(attributes, req), a -> a.getArray(intParam(req, ":index"), intParam(req, ":count"))));
-        post(format("%s/array", baseUrl), JSON, (req, res) -> retrieve(() -> getArray(attributes, req), a -> a.getArray(objectMapper.readValue(req.body(), Map.class))));
-        post(format("%s/array/:index/:count", baseUrl), JSON, (req, res) -> retrieve(() -> getArray(attributes, req), a -> a.getArray(intParam(req, ":index"), intParam(req, ":count"), objectMapper.readValue(req.body(), Map.class))));
-        get(format("%s/basetype", baseUrl), JSON, (req, res) -> retrieve(() -> getArray(attributes, req), Array::getBaseType));
-        get(format("%s/basetypename", baseUrl), JSON, (req, res) -> retrieve(() -> getArray(attributes, req), Array::getBaseTypeName));
+        get(format("%s/array", baseUrl), JSON, (req, res) -> retrieve(res, () -> getArray(attributes, req), Array::getArray));
+        get(format("%s/array/:index/:count", baseUrl), JSON, (req, res) -> retrieve(res, () -> getArray(attributes, req), a -> a.getArray(intParam(req, ":index"), intParam(req, ":count"))));
+        post(format("%s/array", baseUrl), JSON, (req, res) -> retrieve(res, () -> getArray(attributes, req), a -> a.getArray(readBody(req, Map.class))));
+        post(format("%s/array/:index/:count", baseUrl), JSON, (req, res) -> retrieve(res, () -> getArray(attributes, req), a -> a.getArray(intParam(req, ":index"), intParam(req, ":count"), readBody(req, Map.class))));
+        get(format("%s/basetype", baseUrl), JSON, (req, res) -> retrieve(res, () -> getArray(attributes, req), Array::getBaseType));
+        get(format("%s/basetypename", baseUrl), JSON, (req, res) -> retrieve(res, () -> getArray(attributes, req), Array::getBaseTypeName));
 
         get(format("%s/resultset", baseUrl), JSON, (req, res) -> {
             Long index = longArg(req, "index");
             Integer count = intArg(req, "count");
             ThrowingFunction<Array, ResultSet, Exception> f = index != null && count != null ? a -> a.getResultSet(index, count) : Array::getResultSet;
-            return retrieve(() -> getArray(attributes, req), f, ResultSetProxy::new, "resultset", req.url());
+            return retrieve(res, () -> getArray(attributes, req), f, ResultSetProxy::new, "resultset", req.url());
         });
 
         post(format("%s/resultset", baseUrl), JSON, (req, res) -> {
             Long index = longArg(req, "index");
             Integer count = intArg(req, "count");
             @SuppressWarnings("unchecked")
-            Map<String, Class<?>> map = objectMapper.readValue(req.body(), Map.class);
+            Map<String, Class<?>> map = readBody(req, Map.class);
             ThrowingFunction<Array, ResultSet, Exception> f = index != null && count != null ? a -> a.getResultSet(index, count, map) : a -> a.getResultSet(map);
-            return retrieve(() -> getArray(attributes, req), f, ResultSetProxy::new, "resultset", req.url());
+            return retrieve(res, () -> getArray(attributes, req), f, ResultSetProxy::new, "resultset", req.url());
         });
 
         delete(baseUrl, JSON, (req, res) -> accept(() -> getArray(attributes, req), Array::free));
@@ -47,7 +47,7 @@ public class ArrayController extends BaseController {
     }
 
 
-    private Array getArray(Map<String, Object> attributes, Request req) {
+    private Array getArray(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "array", ":array");
     }
 }
@@ -1,18 +1,23 @@
 package com.nosqldriver.jdbc.http;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.nosqldriver.jdbc.http.model.ConnectionInfo;
 import com.nosqldriver.jdbc.http.model.ConnectionProperties;
 import com.nosqldriver.jdbc.http.model.ResultSetProxy;
+import com.nosqldriver.jdbc.http.model.TransportableException;
 import com.nosqldriver.util.function.ThrowingBiFunction;
 import com.nosqldriver.util.function.ThrowingConsumer;
 import com.nosqldriver.util.function.ThrowingFunction;
 import com.nosqldriver.util.function.ThrowingSupplier;
 import spark.Request;
+import spark.Response;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -29,41 +34,58 @@ import static java.lang.String.format;
 
 abstract class BaseController {
     protected final String JSON = "application/json";
-    protected final Map<String, Object> attributes;
+    protected final String OCTET_STREAM = "application/octet-stream";
+    protected final String TEXT = "text/plain; charset=UTF-8";
+    protected final String NDJSON = "application/x-ndjson";
+    protected static final int COPY_BUFFER_SIZE = 8192;
+    protected final EntityRegistry attributes;
     protected final ObjectMapper objectMapper;
+    private final ObjectWriter responseWriter;
     private final Map<String, ConnectionProperties> connectionPropertiesCache = new ConcurrentHashMap<>();
     private static final ConnectionProperties defaultConnectionProperties = new ConnectionProperties(System.getProperties());
 
-    protected BaseController(Map<String, Object> attributes, ObjectMapper objectMapper) {
+    protected BaseController(EntityRegistry attributes, ObjectMapper objectMapper) {
         this.attributes = attributes;
         this.objectMapper = objectMapper;
+        responseWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
-    protected <P, T> String retrieve(ThrowingSupplier<P, Exception> parentSupplier, ThrowingFunction<P, T, Exception> entityFactory, ThrowingFunction<String, T, Exception> proxyFactory, String prefix, String url) throws Exception {
-        return retrieve2(parentSupplier, entityFactory, (url1, entity) -> proxyFactory.apply(url1), prefix, url);
+    protected <P, T> String retrieve(Response res, ThrowingSupplier<P, Exception> parentSupplier, ThrowingFunction<P, T, Exception> entityFactory, ThrowingFunction<String, T, Exception> proxyFactory, String prefix, String url) throws Exception {
+        return retrieve2(res, parentSupplier, entityFactory, (url1, entity) -> proxyFactory.apply(url1), prefix, url);
     }
 
-    protected <P, T> String retrieve2(ThrowingSupplier<P, Exception> parentSupplier, ThrowingFunction<P, T, Exception> entityFactory, ThrowingBiFunction<String, T, T, Exception> proxyFactory, String prefix, String url) throws Exception {
+    protected <P, T> String retrieve2(Response res, ThrowingSupplier<P, Exception> parentSupplier, ThrowingFunction<P, T, Exception> entityFactory, ThrowingBiFunction<String, T, T, Exception> proxyFactory, String prefix, String url) throws Exception {
         P parent = parentSupplier.get();
         T entity = entityFactory.apply(parent);
         if (entity == null) {
             return "null";
         }
-        return objectMapper.writeValueAsString(entityToProxy(entity, proxyFactory, prefix, url));
+        return write(res, entityToProxy(entity, proxyFactory, prefix, url));
     }
 
     protected <T> T entityToProxy(T entity, ThrowingBiFunction<String, T, T, Exception> proxyFactory, String prefix, String url) throws Exception {
-        int entityId = System.identityHashCode(entity);
-        setAttribute(prefix, entityId, entity);
-        return proxyFactory.apply(format("%s/%s/%d", parentUrl(url), prefix, entityId), entity);
+        long entityId = attributes.nextHandle();
+        String parentUrl = parentUrl(url);
+        setAttribute(getEntityId(prefix, String.valueOf(entityId)), entity, parentKey(parentUrl));
+        return proxyFactory.apply(format("%s/%s/%d", parentUrl, prefix, entityId), entity);
     }
 
-    protected <T> void setAttribute(String prefix, int entityId, T entity) {
-        setAttribute(prefix + "@" + entityId, entity);
+    protected <T> void setAttribute(String key, T entity, String parentKey) {
+        attributes.put(key, entity, parentKey);
     }
 
-    protected <T> void setAttribute(String key, T entity) {
-        attributes.put(key, entity);
+    // The parent of an entity is the closest registered entity on its URL, so the entity is forgotten when the parent is closed.
+    private String parentKey(String url) {
+        String[] segments = url.split("/");
+        for (int i = segments.length - 1; i > 0; i--) {
+            if (!segments[i].isEmpty() && segments[i].chars().allMatch(Character::isDigit)) {
+                String key = getEntityId(segments[i - 1], segments[i]);
+                if (attributes.containsKey(key)) {
+                    return key;
+                }
+            }
+        }
+        return null;
     }
 
     protected String parentUrl(String url) {
@@ -75,14 +97,40 @@ abstract class BaseController {
         return parent;
     }
 
-    protected <P, T> String retrieve(ThrowingSupplier<P, Exception> parentSupplier, ThrowingFunction<P, T, Exception> entityFactory, ThrowingFunction<T, T, Exception> transportableEntityFactory) throws Exception {
+    protected <P, T> String retrieve(Response res, ThrowingSupplier<P, Exception> parentSupplier, ThrowingFunction<P, T, Exception> entityFactory, ThrowingFunction<T, T, Exception> transportableEntityFactory) throws Exception {
         T entity = entityFactory.apply(parentSupplier.get());
-        return objectMapper.writeValueAsString(entity == null ? null : transportableEntityFactory.apply(entity));
+        return write(res, entity == null ? null : transportableEntityFactory.apply(entity));
     }
 
-    protected <P, T> String retrieve(ThrowingSupplier<P, Exception> parentSupplier, ThrowingFunction<P, T, Exception> entityFactory) throws Exception {
+    protected <P, T> String retrieve(Response res, ThrowingSupplier<P, Exception> parentSupplier, ThrowingFunction<P, T, Exception> entityFactory) throws Exception {
         T entity = entityFactory.apply(parentSupplier.get());
-        return objectMapper.writeValueAsString(entity);
+        return write(res, entity);
+    }
+
+    // Serializes the value directly to the response stream instead of building the whole response as a string first.
+    // Jackson writes through its per thread recycled buffer, and Jetty aggregates the output in buffers from its pool.
+    // If serialization fails before anything has been sent, the response is discarded and the error is reported as usual;
+    // otherwise the status cannot be changed any more, so the error follows the incomplete value in the body, and the client
+    // throws it when it fails to parse the value.
+    protected String write(Response res, Object value) throws IOException {
+        res.type(JSON);
+        OutputStream out = res.raw().getOutputStream();
+        try {
+            responseWriter.writeValue(out, value);
+        } catch (JsonProcessingException | RuntimeException e) {
+            if (!res.raw().isCommitted()) {
+                res.raw().resetBuffer();
+                throw e;
+            }
+            out.write(TransportableException.RECORD_SEPARATOR);
+            responseWriter.writeValue(out, new TransportableException(e));
+        }
+        return "";
+    }
+
+    // Spark has already read the whole body, so it is parsed from the bytes without decoding them to a string first.
+    protected <T> T readBody(Request req, Class<T> type) throws IOException {
+        return objectMapper.readValue(req.bodyAsBytes(), type);
     }
 
     protected <P> Object accept(ThrowingSupplier<P, Exception> parentSupplier, ThrowingConsumer<P, Exception> entityFactory) throws Exception {
@@ -91,11 +139,11 @@ abstract class BaseController {
     }
 
 
-    protected <T> T getEntity(Map<String, Object> attributes, Request req, String prefix, String idName) {
+    protected <T> T getEntity(EntityRegistry attributes, Request req, String prefix, String idName) {
         return getEntity(attributes, prefix, req.params(idName));
     }
 
-    protected <T> T getEntity(Map<String, Object> attributes, String prefix, String id) {
+    protected <T> T getEntity(EntityRegistry attributes, String prefix, String id) {
         return getAttribute(attributes, getEntityId(prefix, id));
     }
 
@@ -109,7 +157,7 @@ abstract class BaseController {
 
 
     @SuppressWarnings("unchecked")
-    protected <T> T getAttribute(Map<String, Object> attributes, String key) {
+    protected <T> T getAttribute(EntityRegistry attributes, String key) {
         return (T)attributes.get(key);
     }
 
@@ -212,16 +260,16 @@ abstract class BaseController {
     };
 
     // The following functions are relevant only for ConnectionController and StatementController, so probably they should be moved to base class common for these two only.
-    protected ConnectionInfo getConnectionInfo(Map<String, Object> attributes, Request req) {
+    protected ConnectionInfo getConnectionInfo(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "connection-info", ":connection");
     }
 
-    protected String getUser(Map<String, Object> attributes, Request req) {
+    protected String getUser(EntityRegistry attributes, Request req) {
         return getConnectionInfo(attributes, req).getProperties().getProperty("user");
     }
 
-    protected String getValidatedSql(ThrowingBiFunction<String, String, String, SQLException> validator, Request req) throws JsonProcessingException, SQLException {
+    protected String getValidatedSql(ThrowingBiFunction<String, String, String, SQLException> validator, Request req) throws IOException, SQLException {
         String user = getUser(attributes, req);
-        return validator.apply(user, objectMapper.readValue(req.body(), String.class));
+        return validator.apply(user, readBody(req, String.class));
     }
 }
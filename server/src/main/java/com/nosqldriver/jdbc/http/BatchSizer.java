@@ -0,0 +1,67 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.model.EntityProxy;
+
+/**
+ * Chooses the number of rows of the next batch of a result set read forward. The size moves toward a byte budget and
+ * a target latency of a round trip, based on the previous batch: its estimated size in bytes and the time it took,
+ * either measured by the client (the round trip time it sends with the request) or the time the server spent reading it.
+ * A batch grows at most twice at a time; the explicit fetch size of the statement is an upper bound.
+ */
+class BatchSizer {
+    static final long TARGET_BYTES = Long.parseLong(System.getProperty("jdbc.fetch.bytes", "1048576"));
+    static final long TARGET_LATENCY = Long.parseLong(System.getProperty("jdbc.fetch.latency", "200"));
+    static final int MAX_SIZE = Integer.parseInt(System.getProperty("jdbc.fetch.size.max", "10000"));
+
+    private int size;
+    private int requested = 0;
+    private int rows = 0;
+    private long bytes = 0;
+    private long nanos = 0;
+
+    BatchSizer(int initialSize) {
+        size = initialSize;
+    }
+
+    synchronized int next(int upperBound, Long roundTripMillis) {
+        // only a full batch tells how many rows fit the budget
+        if (rows > 0 && rows == requested) {
+            double bytesPerRow = Math.max(1, (double)bytes / rows);
+            double millisPerRow = (roundTripMillis != null && roundTripMillis > 0 ? roundTripMillis : nanos / 1_000_000.0) / rows;
+            double target = TARGET_BYTES / bytesPerRow;
+            if (millisPerRow > 0) {
+                target = Math.min(target, TARGET_LATENCY / millisPerRow);
+            }
+            size = (int)Math.max(1, Math.min(target, size * 2.0));
+        }
+        requested = Math.min(size, upperBound);
+        return requested;
+    }
+
+    synchronized void update(int rows, long bytes, long nanos) {
+        this.rows = rows;
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    // Rough size of the row in JSON; it is used to compare rows, so it does not need to be exact.
+    static long estimateSize(Object[] row) {
+        long size = 2;
+        for (Object value : row) {
+            if (value == null) {
+                size += 5;
+            } else if (value instanceof CharSequence) {
+                size += ((CharSequence)value).length() + 3;
+            } else if (value instanceof byte[]) {
+                size += ((byte[])value).length * 4 / 3 + 3;
+            } else if (value instanceof Number || value instanceof Boolean) {
+                size += 12;
+            } else if (value instanceof EntityProxy) {
+                size += 128;
+            } else {
+                size += 32;
+            }
+        }
+        return size;
+    }
+}
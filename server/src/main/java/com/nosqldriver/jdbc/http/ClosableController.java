@@ -3,20 +3,18 @@ package com.nosqldriver.jdbc.http;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import spark.Request;
 
-import java.util.Map;
-
-import static spark.Spark.delete;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.delete;
 
 public class ClosableController extends BaseController {
     private final String type;
 
-    protected ClosableController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl, String type) {
+    protected ClosableController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl, String type) {
         super(attributes, objectMapper);
         this.type = type;
         delete(baseUrl, JSON, (req, res) -> accept(() -> getCloseable(attributes, req), AutoCloseable::close));
     }
 
-    protected AutoCloseable getCloseable(Map<String, Object> attributes, Request req) {
+    protected AutoCloseable getCloseable(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, type, ":" + type);
     }
 }
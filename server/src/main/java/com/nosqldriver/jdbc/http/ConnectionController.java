@@ -22,39 +22,27 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.function.Predicate;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.delete;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.get;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
 import static com.nosqldriver.jdbc.http.Util.decode;
-import static spark.Spark.delete;
-import static spark.Spark.get;
-import static spark.Spark.post;
 
 public class ConnectionController extends BaseController {
     private final Executor executor = Executors.newSingleThreadExecutor();
     private static final Predicate<Method> statementFactory = m -> Statement.class.isAssignableFrom(m.getReturnType());
 
-    public ConnectionController(Map<String, Object> attributes, ObjectMapper objectMapper, ThrowingBiFunction<String, String, String, SQLException> validator) {
+    public ConnectionController(EntityRegistry attributes, ObjectMapper objectMapper, ThrowingBiFunction<String, String, String, SQLException> validator) {
         super(attributes, objectMapper);
 
-        post("/connection/:connection/statement", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), connection -> {
-            Integer type = intArg(req, "type");
-            Integer concurrency = intArg(req, "concurrency");
-            Integer holdability = intArg(req, "holdability");
-
-            if (type != null && concurrency != null && holdability != null) {
-                return connection.createStatement(type, concurrency, holdability);
-            }
-            if (type != null && concurrency != null) {
-                return connection.createStatement(type, concurrency);
-            }
-            return connection.createStatement();
-        },
-        StatementProxy::new, "statement", req.url()));
+        post("/connection/:connection/statement", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), connection -> createStatement(connection, req), StatementProxy::new, "statement", req.url()));
 
-        post("/connection/:connection/prepared-statement", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), connection -> {
+        post("/connection/:connection/prepared-statement", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), connection -> {
             String sql = getValidatedSql(validator, req);
             Integer type = intArg(req, "type");
             Integer concurrency = intArg(req, "concurrency");
@@ -81,7 +69,7 @@ public class ConnectionController extends BaseController {
             return connection.prepareStatement(sql);
         }, PreparedStatementProxy::new, "prepared-statement", req.url()));
 
-        post("/connection/:connection/callable-statement", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), connection -> {
+        post("/connection/:connection/callable-statement", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), connection -> {
             String sql = getValidatedSql(validator, req);
             Integer type = intArg(req, "type");
             Integer concurrency = intArg(req, "concurrency");
@@ -96,48 +84,56 @@ public class ConnectionController extends BaseController {
             return connection.prepareCall(sql);
         }, CallableStatementProxy::new, "callable-statement", req.url()));
 
-        post("/connection/:connection/nativesql", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), connection -> connection.nativeSQL(getValidatedSql(validator, req))));
+        post("/connection/:connection/nativesql", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), connection -> connection.nativeSQL(getValidatedSql(validator, req))));
 
         post("/connection/:connection/autocommit", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setAutoCommit(Boolean.parseBoolean(req.body()))));
-        get("/connection/:connection/autocommit", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getAutoCommit));
+        get("/connection/:connection/autocommit", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getAutoCommit));
 
         post("/connection/:connection/commit", JSON, (req, res) -> accept(() -> getConnection(attributes, req), Connection::commit));
-        delete("/connection/:connection", JSON, (req, res) -> accept(() -> getConnection(attributes, req), Connection::close));
-        get("/connection/:connection/closed", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::isClosed));
+        delete("/connection/:connection", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> {
+            if (connection != null) {
+                connection.close();
+                // the entities created by the connection are removed with it
+                attributes.remove(getEntityId(req, "connection", ":connection"));
+            }
+        }));
+        get("/connection/:connection/closed", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), c -> c == null || c.isClosed()));
+        // Renews the lease of an idle connection: reading the connection marks it as used, so it is not reaped as idle.
+        get("/connection/:connection/lease", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Objects::nonNull));
 
-        get("/connection/:connection/metadata", JSON, (req, res) -> retrieve2(() -> getConnection(attributes, req), Connection::getMetaData, TransportableDatabaseMetaData::new, "metadata", req.url()));
+        get("/connection/:connection/metadata", JSON, (req, res) -> retrieve2(res, () -> getConnection(attributes, req), Connection::getMetaData, TransportableDatabaseMetaData::new, "metadata", req.url()));
 
         post("/connection/:connection/readonly", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setReadOnly(Boolean.parseBoolean(req.body()))));
-        get("/connection/:connection/readonly", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::isReadOnly));
+        get("/connection/:connection/readonly", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::isReadOnly));
 
         post("/connection/:connection/catalog", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setCatalog(req.body())));
-        get("/connection/:connection/catalog", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getCatalog));
+        get("/connection/:connection/catalog", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getCatalog));
 
         post("/connection/:connection/transaction/isolation", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setTransactionIsolation(Integer.parseInt(req.body()))));
-        get("/connection/:connection/transaction/isolation", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getTransactionIsolation));
+        get("/connection/:connection/transaction/isolation", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getTransactionIsolation));
 
-        get("/connection/:connection/warnings", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getWarnings, TransportableSQLWarning::new));
+        get("/connection/:connection/warnings", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getWarnings, TransportableSQLWarning::new));
         delete("/connection/:connection/warnings", JSON, (req, res) -> accept(() -> getConnection(attributes, req), Connection::clearWarnings));
 
-        post("/connection/:connection/typemap", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setTypeMap(objectMapper.readValue(req.body(), HashMap.class))));
-        get("/connection/:connection/typemap", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getTypeMap));
+        post("/connection/:connection/typemap", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setTypeMap(readBody(req, HashMap.class))));
+        get("/connection/:connection/typemap", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getTypeMap));
 
         post("/connection/:connection/holdability", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setHoldability(Integer.parseInt(req.body()))));
-        get("/connection/:connection/holdability", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getHoldability));
+        get("/connection/:connection/holdability", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getHoldability));
 
-        post("/connection/:connection/savepoint", JSON, (req, res) -> retrieve2(() -> getConnection(attributes, req), connection -> {
-            String name = objectMapper.readValue(req.body(), String.class);
+        post("/connection/:connection/savepoint", JSON, (req, res) -> retrieve2(res, () -> getConnection(attributes, req), connection -> {
+            String name = readBody(req, String.class);
             return name == null ? connection.setSavepoint() : connection.setSavepoint(name);
         }, TransportableSavepoint::new, "savepoint", req.url()));
 
         delete("/connection/:connection/savepoint", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> {
-            String[] urlParts = objectMapper.readValue(req.body(), TransportableSavepoint.class).getEntityUrl().split("/");
+            String[] urlParts = readBody(req, TransportableSavepoint.class).getEntityUrl().split("/");
             String savepointId = urlParts[urlParts.length - 1];
             connection.releaseSavepoint(getEntity(attributes, "savepoint", savepointId));
         }));
 
         post("/connection/:connection/rollback", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> {
-            TransportableSavepoint ts = objectMapper.readValue(req.body(), TransportableSavepoint.class);
+            TransportableSavepoint ts = readBody(req, TransportableSavepoint.class);
             if (ts == null) {
                 connection.rollback();
             } else {
@@ -148,33 +144,33 @@ public class ConnectionController extends BaseController {
         }));
 
 
-        post("/connection/:connection/clob", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::createClob, ClobProxy::new, "clob", req.url()));
-        post("/connection/:connection/nclob", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::createNClob, ClobProxy::new, "nclob", req.url()));
-        post("/connection/:connection/blob", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::createBlob, BlobProxy::new, "blob", req.url()));
-        post("/connection/:connection/sqlxml", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::createSQLXML, SQLXMLProxy::new, "sqlxml", req.url()));
-        post("/connection/:connection/array/:type", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), connection -> connection.createArrayOf(req.params(":type"), objectMapper.readValue(req.body(), Object[].class)), ArrayProxy::new, "array", parentUrl(req.url())));
-        post("/connection/:connection/struct/:type", JSON, (req, res) -> retrieve2(() -> getConnection(attributes, req), connection -> connection.createStruct(req.params(":type"), objectMapper.readValue(req.body(), Object[].class)), StructProxy::new, "struct", parentUrl(req.url())));
+        post("/connection/:connection/clob", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::createClob, ClobProxy::new, "clob", req.url()));
+        post("/connection/:connection/nclob", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::createNClob, ClobProxy::new, "nclob", req.url()));
+        post("/connection/:connection/blob", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::createBlob, BlobProxy::new, "blob", req.url()));
+        post("/connection/:connection/sqlxml", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::createSQLXML, SQLXMLProxy::new, "sqlxml", req.url()));
+        post("/connection/:connection/array/:type", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), connection -> connection.createArrayOf(req.params(":type"), readBody(req, Object[].class)), ArrayProxy::new, "array", parentUrl(req.url())));
+        post("/connection/:connection/struct/:type", JSON, (req, res) -> retrieve2(res, () -> getConnection(attributes, req), connection -> connection.createStruct(req.params(":type"), readBody(req, Object[].class)), StructProxy::new, "struct", parentUrl(req.url())));
 
-        get("/connection/:connection/valid/:timeout", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), connection -> connection.isValid(intParam(req, ":timeout"))));
+        get("/connection/:connection/valid/:timeout", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), connection -> connection.isValid(intParam(req, ":timeout"))));
 
-        get("/connection/:connection/client/info/:name", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), connection -> connection.getClientInfo(decode(req.params(":name")))));
-        get("/connection/:connection/client/info/", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), connection -> connection.getClientInfo("")));
-        get("/connection/:connection/client/info", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getClientInfo));
+        get("/connection/:connection/client/info/:name", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), connection -> connection.getClientInfo(decode(req.params(":name")))));
+        get("/connection/:connection/client/info/", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), connection -> connection.getClientInfo("")));
+        get("/connection/:connection/client/info", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getClientInfo));
         post("/connection/:connection/client/info/:name", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setClientInfo(decode(req.params(":name")), req.body())));
-        post("/connection/:connection/client/info", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setClientInfo(objectMapper.readValue(req.body(), Properties.class))));
+        post("/connection/:connection/client/info", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setClientInfo(readBody(req, Properties.class))));
 
         post("/connection/:connection/schema", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setSchema(req.body())));
-        get("/connection/:connection/schema", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getSchema));
+        get("/connection/:connection/schema", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getSchema));
 
         post("/connection/:connection/networktimeout", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.setNetworkTimeout(executor, Integer.parseInt(req.body()))));
-        get("/connection/:connection/networktimeout", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), Connection::getNetworkTimeout));
+        get("/connection/:connection/networktimeout", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), Connection::getNetworkTimeout));
         post("/connection/:connection/abort", JSON, (req, res) -> accept(() -> getConnection(attributes, req), connection -> connection.abort(executor)));
 
-        get("/connection/:connection/wrapper/:class", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), c -> c.isWrapperFor(Class.forName(req.params(":class")))));
-        get("/connection/:connection/unwrap/:class", JSON, (req, res) -> retrieve(() -> getConnection(attributes, req), c -> c.unwrap(Class.forName(req.params(":class"))), ConnectionProxy::new, "connection", parentUrl(req.url())));
+        get("/connection/:connection/wrapper/:class", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), c -> c.isWrapperFor(Class.forName(req.params(":class")))));
+        get("/connection/:connection/unwrap/:class", JSON, (req, res) -> retrieve(res, () -> getConnection(attributes, req), c -> c.unwrap(Class.forName(req.params(":class"))), ConnectionProxy::new, "connection", parentUrl(req.url())));
 
         new DatabaseMetaDataController(attributes, objectMapper);
-        new StatementController(attributes, objectMapper, "/connection/:connection/statement/:statement", validator);
+        new StatementController(attributes, objectMapper, "/connection/:connection/statement/:statement", validator, req -> createStatement(getConnection(attributes, req), req));
         new PreparedStatementController(attributes, objectMapper, validator);
         new ArrayController(attributes, objectMapper, "/connection/:connection/array/:array");
         new BlobController(attributes, objectMapper, "/connection/:connection/blob/:blob");
@@ -185,7 +181,72 @@ public class ConnectionController extends BaseController {
         new ClosableController(attributes, objectMapper, "/connection/:connection/*/*/*/stream/:stream", "stream");
     }
 
-    private Connection getConnection(Map<String, Object> attributes, Request req) {
+    private Connection getConnection(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "connection", ":connection");
     }
+
+    // Options set on a statement that the client has created lazily are sent when the statement is created on server.
+    private Statement createStatement(Connection connection, Request req) throws SQLException {
+        Integer type = intArg(req, "type");
+        Integer concurrency = intArg(req, "concurrency");
+        Integer holdability = intArg(req, "holdability");
+
+        final Statement statement;
+        if (type != null && concurrency != null && holdability != null) {
+            statement = connection.createStatement(type, concurrency, holdability);
+        } else if (type != null && concurrency != null) {
+            statement = connection.createStatement(type, concurrency);
+        } else {
+            statement = connection.createStatement();
+        }
+        try {
+            configure(statement, req);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        return statement;
+    }
+
+    private void configure(Statement statement, Request req) throws SQLException {
+        Integer maxFieldSize = intArg(req, "maxfieldsize");
+        if (maxFieldSize != null) {
+            statement.setMaxFieldSize(maxFieldSize);
+        }
+        Integer maxRows = intArg(req, "maxrows");
+        if (maxRows != null) {
+            statement.setMaxRows(maxRows);
+        }
+        Long largeMaxRows = longArg(req, "largemaxrows");
+        if (largeMaxRows != null) {
+            statement.setLargeMaxRows(largeMaxRows);
+        }
+        String escapeProcessing = stringArg(req, "escapeprocessing");
+        if (escapeProcessing != null) {
+            statement.setEscapeProcessing(Boolean.parseBoolean(escapeProcessing));
+        }
+        Integer queryTimeout = intArg(req, "querytimeout");
+        if (queryTimeout != null) {
+            statement.setQueryTimeout(queryTimeout);
+        }
+        String cursorName = stringArg(req, "cursorname");
+        if (cursorName != null) {
+            statement.setCursorName(cursorName);
+        }
+        Integer fetchDirection = intArg(req, "fetchdirection");
+        if (fetchDirection != null) {
+            statement.setFetchDirection(fetchDirection);
+        }
+        Integer fetchSize = intArg(req, "fetchsize");
+        if (fetchSize != null) {
+            statement.setFetchSize(fetchSize);
+        }
+        String poolable = stringArg(req, "poolable");
+        if (poolable != null) {
+            statement.setPoolable(Boolean.parseBoolean(poolable));
+        }
+        if (Boolean.parseBoolean(stringArg(req, "closeoncompletion"))) {
+            statement.closeOnCompletion();
+        }
+    }
 }
@@ -0,0 +1,482 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.util.function.ThrowingSupplier;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Physical connections to one database, reused by the connections of the clients. A client gets a connection that
+ * returns its physical connection to the pool when it is closed, so the server does not pay the connection handshake
+ * for every client connection and does not open more than the maximal number of connections to the database.
+ * A connection is validated when it is borrowed, and when it is returned its statements are closed, its transaction
+ * is rolled back and its session state (auto commit, read only, isolation, catalog and schema) is restored.
+ * The pool is configured per alias of {@code jdbc.properties} by {@code <alias>.pool.<setting>}, and by system
+ * properties {@code jdbc.pool.<setting>} for all other databases: {@code max} (0 disables pooling), {@code min}
+ * (connections opened on startup), {@code validation} (timeout of validation in seconds, 0 disables it),
+ * {@code wait} (milliseconds to wait for a connection when all of them are in use) and {@code multiplex}
+ * (client connections hold physical ones only during transactions, see {@link MultiplexedConnection}).
+ */
+class ConnectionPool implements Closeable {
+    private final String name;
+    private final ThrowingSupplier<Connection, SQLException> factory;
+    private final int min;
+    private final int max;
+    private final int validationTimeout;
+    private final long wait;
+    private final boolean multiplex;
+    // the most recently returned connection is borrowed first
+    private final Deque<PhysicalConnection> idle = new ArrayDeque<>();
+    private int size = 0;
+    private boolean closed = false;
+    private long created = 0;
+    private long destroyed = 0;
+    private long borrowed = 0;
+    private long returned = 0;
+    private long invalid = 0;
+    private long waits = 0;
+    private long timeouts = 0;
+    // connections that could not be opened
+    private long failures = 0;
+    // connections given to the clients that have not been closed yet
+    private int clients = 0;
+    private long lastUsed = System.currentTimeMillis();
+    private boolean evicted = false;
+
+    static class PhysicalConnection {
+        final Connection connection;
+        private final boolean autoCommit;
+        private final boolean readOnly;
+        private final int isolation;
+        private final String catalog;
+        private final String schema;
+
+        private PhysicalConnection(Connection connection) throws SQLException {
+            this.connection = connection;
+            autoCommit = connection.getAutoCommit();
+            readOnly = connection.isReadOnly();
+            isolation = connection.getTransactionIsolation();
+            catalog = connection.getCatalog();
+            schema = schema(connection);
+        }
+
+        // The value of the session setting of a connection taken from the pool, or null if it is not known.
+        Object baseline(String setter) {
+            switch (setter) {
+                case "setAutoCommit": return autoCommit;
+                case "setReadOnly": return readOnly;
+                case "setTransactionIsolation": return isolation;
+                case "setCatalog": return catalog;
+                case "setSchema": return schema;
+                default: return null;
+            }
+        }
+
+        private void reset() throws SQLException {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            if (connection.getAutoCommit() != autoCommit) {
+                connection.setAutoCommit(autoCommit);
+            }
+            if (connection.isReadOnly() != readOnly) {
+                connection.setReadOnly(readOnly);
+            }
+            if (connection.getTransactionIsolation() != isolation) {
+                connection.setTransactionIsolation(isolation);
+            }
+            if (catalog != null && !catalog.equals(connection.getCatalog())) {
+                connection.setCatalog(catalog);
+            }
+            if (schema != null && !schema.equals(schema(connection))) {
+                connection.setSchema(schema);
+            }
+            connection.clearWarnings();
+        }
+
+        // Old drivers do not support schemas.
+        private static String schema(Connection connection) {
+            try {
+                return connection.getSchema();
+            } catch (SQLException | AbstractMethodError e) {
+                return null;
+            }
+        }
+    }
+
+    ConnectionPool(String name, ThrowingSupplier<Connection, SQLException> factory, int min, int max, int validationTimeout, long wait) {
+        this(name, factory, min, max, validationTimeout, wait, false);
+    }
+
+    ConnectionPool(String name, ThrowingSupplier<Connection, SQLException> factory, int min, int max, int validationTimeout, long wait, boolean multiplex) {
+        this.name = name;
+        this.factory = factory;
+        this.min = min;
+        this.max = max;
+        this.validationTimeout = validationTimeout;
+        this.wait = wait;
+        this.multiplex = multiplex;
+    }
+
+    static String setting(Properties jdbcProps, String alias, String setting, String defaultValue) {
+        String value = alias == null ? null : jdbcProps.getProperty(format("%s.pool.%s", alias, setting));
+        return value != null ? value : System.getProperty(format("jdbc.pool.%s", setting), defaultValue);
+    }
+
+    static ConnectionPool create(Properties jdbcProps, String alias, String name, ThrowingSupplier<Connection, SQLException> factory) {
+        return new ConnectionPool(name, factory,
+                Integer.parseInt(setting(jdbcProps, alias, "min", "0")),
+                Integer.parseInt(setting(jdbcProps, alias, "max", "0")),
+                Integer.parseInt(setting(jdbcProps, alias, "validation", "5")),
+                Long.parseLong(setting(jdbcProps, alias, "wait", "30000")),
+                Boolean.parseBoolean(setting(jdbcProps, alias, "multiplex", "false")));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Connection getConnection() throws SQLException {
+        synchronized (this) {
+            if (closed) {
+                throw new SQLException(format("Connection pool %s is closed", name));
+            }
+            clients++;
+            lastUsed = System.currentTimeMillis();
+        }
+        try {
+            if (multiplex) {
+                return MultiplexedConnection.create(this);
+            }
+            PhysicalConnection physical = borrow();
+            PooledConnection handler = new PooledConnection(physical);
+            handler.proxy = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+            return handler.proxy;
+        } catch (SQLException | RuntimeException e) {
+            disconnected();
+            throw e;
+        }
+    }
+
+    // The client has closed the connection given by getConnection().
+    synchronized void disconnected() {
+        clients--;
+    }
+
+    synchronized long getLastUsed() {
+        return lastUsed;
+    }
+
+    // Closes the pool unless a client uses it; false if the pool is still in use.
+    boolean evict() {
+        synchronized (this) {
+            if (closed || clients > 0) {
+                return false;
+            }
+            closed = true;
+            evicted = true;
+        }
+        close();
+        return true;
+    }
+
+    synchronized boolean isEvicted() {
+        return evicted;
+    }
+
+    // Opens the minimal number of connections.
+    void warmUp() throws SQLException {
+        while (true) {
+            synchronized (this) {
+                if (closed || size >= min) {
+                    return;
+                }
+                size++;
+            }
+            PhysicalConnection physical = open();
+            synchronized (this) {
+                idle.offerLast(physical);
+                notifyAll();
+            }
+        }
+    }
+
+    PhysicalConnection borrow() throws SQLException {
+        long deadline = System.currentTimeMillis() + wait;
+        while (true) {
+            PhysicalConnection physical;
+            synchronized (this) {
+                boolean waiting = false;
+                while (!closed && idle.isEmpty() && size >= max) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        timeouts++;
+                        throw new SQLException(format("Connection pool %s is exhausted: all %d connections are in use", name, max));
+                    }
+                    if (!waiting) {
+                        waits++;
+                        waiting = true;
+                    }
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a connection", e);
+                    }
+                }
+                if (closed) {
+                    throw new SQLException(format("Connection pool %s is closed", name));
+                }
+                physical = idle.pollFirst();
+                if (physical == null) {
+                    size++;
+                }
+            }
+            if (physical == null) {
+                physical = open();
+            } else if (!isValid(physical)) {
+                discard(physical);
+                continue;
+            }
+            synchronized (this) {
+                borrowed++;
+            }
+            return physical;
+        }
+    }
+
+    // The caller has already counted the connection in the size of the pool.
+    private PhysicalConnection open() throws SQLException {
+        Connection connection = null;
+        try {
+            connection = factory.get();
+            PhysicalConnection physical = new PhysicalConnection(connection);
+            synchronized (this) {
+                created++;
+            }
+            return physical;
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(connection);
+            synchronized (this) {
+                size--;
+                failures++;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isValid(PhysicalConnection physical) {
+        if (validationTimeout <= 0) {
+            return true;
+        }
+        boolean valid;
+        try {
+            valid = physical.connection.isValid(validationTimeout);
+        } catch (SQLException e) {
+            valid = false;
+        }
+        if (!valid) {
+            synchronized (this) {
+                invalid++;
+            }
+        }
+        return valid;
+    }
+
+    void release(PhysicalConnection physical) {
+        try {
+            physical.reset();
+        } catch (SQLException e) {
+            discard(physical);
+            return;
+        }
+        synchronized (this) {
+            returned++;
+            if (!closed) {
+                idle.offerFirst(physical);
+                notifyAll();
+                return;
+            }
+        }
+        discard(physical);
+    }
+
+    private void discard(PhysicalConnection physical) {
+        closeQuietly(physical.connection);
+        synchronized (this) {
+            size--;
+            destroyed++;
+            notifyAll();
+        }
+    }
+
+    synchronized Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("min", (long)min);
+        counters.put("max", (long)max);
+        counters.put("size", (long)size);
+        counters.put("idle", (long)idle.size());
+        counters.put("active", (long)(size - idle.size()));
+        counters.put("clients", (long)clients);
+        counters.put("created", created);
+        counters.put("destroyed", destroyed);
+        counters.put("borrowed", borrowed);
+        counters.put("returned", returned);
+        counters.put("invalid", invalid);
+        counters.put("waits", waits);
+        counters.put("timeouts", timeouts);
+        counters.put("failures", failures);
+        return counters;
+    }
+
+    // Connections that are in use are closed when they are returned.
+    @Override
+    public void close() {
+        List<PhysicalConnection> connections;
+        synchronized (this) {
+            closed = true;
+            connections = new ArrayList<>(idle);
+            idle.clear();
+            notifyAll();
+        }
+        connections.forEach(this::discard);
+    }
+
+    static void closeQuietly(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // The physical connection is not exposed to the client, so it cannot be used or closed bypassing the pool.
+    static Object unwrap(Connection connection, Connection proxy, Class<?> iface) throws SQLException {
+        if (iface.isInstance(proxy)) {
+            return proxy;
+        }
+        if (Connection.class.isAssignableFrom(iface)) {
+            throw new SQLException(format("Pooled connection cannot be unwrapped to %s", iface.getName()));
+        }
+        return connection.unwrap(iface);
+    }
+
+    static boolean isWrapperFor(Connection connection, Connection proxy, Class<?> iface) throws SQLException {
+        return iface.isInstance(proxy) || (!Connection.class.isAssignableFrom(iface) && connection.isWrapperFor(iface));
+    }
+
+    // The connection given to a client; closing it returns the physical connection to the pool.
+    private class PooledConnection implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final Set<Statement> statements = Collections.newSetFromMap(new WeakHashMap<>());
+        private Connection proxy;
+        private volatile boolean closed = false;
+
+        private PooledConnection(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    if (closed) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return format("%s of pool %s", physical.connection, name);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            switch (method.getName()) {
+                case "unwrap":
+                    return unwrap(physical.connection, this.proxy, (Class<?>)args[0]);
+                case "isWrapperFor":
+                    return isWrapperFor(physical.connection, this.proxy, (Class<?>)args[0]);
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(physical.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                synchronized (statements) {
+                    statements.add((Statement)result);
+                }
+                return wrap((Statement)result, method.getReturnType());
+            }
+            return result;
+        }
+
+        // The statement returns the connection of the client rather than the physical one.
+        private Statement wrap(Statement statement, Class<?> type) {
+            return (Statement)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getConnection":
+                        return this.proxy;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+
+        private synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            List<Statement> open;
+            synchronized (statements) {
+                open = new ArrayList<>(statements);
+                statements.clear();
+            }
+            open.forEach(ConnectionPool::closeQuietly);
+            release(physical);
+            disconnected();
+        }
+    }
+}
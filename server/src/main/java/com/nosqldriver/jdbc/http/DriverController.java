@@ -24,22 +24,38 @@ import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.get;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
 import static java.lang.String.format;
 import static spark.Spark.options;
-import static spark.Spark.post;
 
 public class DriverController extends BaseController implements Closeable {
     private static final String JDBC_CONF_PROP = "jdbc.conf";
     private final Properties jdbcProps = new Properties();
     private String defaultDb;
     private final Closeable[] closeables;
+    // pools of the URLs and properties sent by the clients; the least recently used pools nobody uses are closed above this number
+    private static final int MAX_POOLS = Integer.parseInt(System.getProperty("jdbc.pools.max", "100"));
+    private final Map<List<Object>, ConnectionPool> pools = new ConcurrentHashMap<>();
+    // counters of the statement caches of the connections by the name of their pool, whether the connections are pooled or not
+    private final Map<String, StatementCache.Counters> statementCounters = new ConcurrentHashMap<>();
 
-    public DriverController(Map<String, Object> attributes, ObjectMapper objectMapper, ThrowingBiFunction<String, String, String, SQLException> validator, Closeable ... closeables) throws IOException {
+    public DriverController(EntityRegistry attributes, ObjectMapper objectMapper, ThrowingBiFunction<String, String, String, SQLException> validator, Closeable ... closeables) throws IOException {
         super(attributes, objectMapper);
+        RouteDispatcher.reset();
 
         Spark.exception(Exception.class, (exception, request, response) -> {
             exception.printStackTrace();
@@ -52,12 +68,15 @@ public class DriverController extends BaseController implements Closeable {
             }
         });
 
-        Spark.afterAfter((req, res) -> {
+        // responses are written directly to the output stream, so the headers are set before the routes
+        Spark.before((req, res) -> {
             res.header("Access-Control-Allow-Origin", "*");
             res.header("Access-Control-Allow-Headers", "content-type");
             res.header("Access-Control-Allow-Methods","PUT, POST, GET, DELETE, PATCH, OPTIONS");
         });
 
+        Spark.afterAfter((req, res) -> ResponseMemory.INSTANCE.release());
+
         options("*", (req, res) -> {
             res.status(HttpURLConnection.HTTP_NO_CONTENT);
             return "";
@@ -72,25 +91,29 @@ public class DriverController extends BaseController implements Closeable {
 
         boolean authRequired = authConfigProperty != null;
 
-        post("/connection", JSON, (req, res) -> retrieve(() -> {
-            ConnectionInfo connectionInfo = retrieveConnectionInfo(objectMapper.readValue(req.bodyAsBytes(), ConnectionInfo.class), authRequired);
-            String configuredUrl = connectionInfo.getUrl();
-            String jdbcUrl = configuredUrl;
-            if (!configuredUrl.startsWith("jdbc:")) {
-                jdbcUrl = jdbcProps.getProperty(configuredUrl);
-            }
-            Properties connectionProperties = null;
-            if (jdbcUrl.endsWith("#properties")) {
-                jdbcUrl = jdbcUrl.substring(0, jdbcUrl.length() - "#properties".length());
-                connectionProperties = connectionInfo.getProperties();
-            }
-            Connection connection = DriverManager.getConnection(jdbcUrl, connectionProperties);
-            setAttribute("connection-info", System.identityHashCode(connection), connectionInfo);
-            return connection;
-        }, connection -> connection, ConnectionProxy::new, "connection", req.url()));
+        post("/connection", JSON, (req, res) -> {
+            ConnectionInfo connectionInfo = retrieveConnectionInfo(readBody(req, ConnectionInfo.class), authRequired);
+            return retrieve2(res, () -> connect(connectionInfo), connection -> connection, (url, connection) -> {
+                String id = url.substring(url.lastIndexOf('/') + 1);
+                setAttribute(getEntityId("connection-info", id), connectionInfo, getEntityId("connection", id));
+                return new ConnectionProxy(url);
+            }, "connection", req.url());
+        });
+
+        get("/stats/memory", JSON, (req, res) -> retrieve(res, () -> ResponseMemory.INSTANCE, ResponseMemory::getCounters));
+        get("/stats/pools", JSON, (req, res) -> retrieve(res, () -> pools, p -> {
+            Map<String, Map<String, Long>> counters = new TreeMap<>();
+            p.values().forEach(pool -> counters.put(pool.getName(), pool.getCounters()));
+            return counters;
+        }));
+        get("/stats/statements", JSON, (req, res) -> retrieve(res, () -> statementCounters, c -> {
+            Map<String, Map<String, Object>> counters = new TreeMap<>();
+            c.forEach((name, counter) -> counters.put(name, counter.toMap()));
+            return counters;
+        }));
 
-        post("/acceptsurl", JSON, (req, res) -> retrieve(() -> {
-            String url = objectMapper.readValue(req.body(), String.class);
+        post("/acceptsurl", JSON, (req, res) -> retrieve(res, () -> {
+            String url = readBody(req, String.class);
             String[] parts = url.split("#", 2);
             if (parts.length < 2) {
                 return true;
@@ -114,11 +137,115 @@ public class DriverController extends BaseController implements Closeable {
         if (jdbcConf.exists()) {
             jdbcProps.load(new FileReader(jdbcConf));
             defaultDb = jdbcProps.getProperty("default", Configuration.getConfigurationParameter("default_db", null));
+            warmUpPools();
         }
 
         this.closeables = closeables;
     }
 
+    private Connection connect(ConnectionInfo connectionInfo) throws SQLException {
+        String configuredUrl = connectionInfo.getUrl();
+        String alias = null;
+        String jdbcUrl = configuredUrl;
+        if (!configuredUrl.startsWith("jdbc:")) {
+            alias = configuredUrl;
+            jdbcUrl = jdbcProps.getProperty(configuredUrl);
+        }
+        Properties connectionProperties = null;
+        if (jdbcUrl.endsWith("#properties")) {
+            jdbcUrl = jdbcUrl.substring(0, jdbcUrl.length() - "#properties".length());
+            connectionProperties = connectionInfo.getProperties();
+        }
+        if (Integer.parseInt(ConnectionPool.setting(jdbcProps, alias, "max", "0")) <= 0) {
+            StatementCache.Counters counters = statementCounters(poolName(alias, jdbcUrl, connectionProperties));
+            return StatementCache.wrap(DriverManager.getConnection(jdbcUrl, connectionProperties), StatementCache.size(jdbcProps, alias), counters);
+        }
+        while (true) {
+            ConnectionPool pool = pool(alias, jdbcUrl, connectionProperties);
+            try {
+                return pool.getConnection();
+            } catch (SQLException e) {
+                // the pool has been evicted after it was found, so the next attempt creates a new one
+                if (!pool.isEvicted()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Connections are shared by the clients that connect to the same URL with the same properties (user, but also password),
+    // so a client cannot get a connection opened with credentials of another one.
+    private ConnectionPool pool(String alias, String jdbcUrl, Properties connectionProperties) {
+        List<Object> key = Arrays.asList(jdbcUrl, connectionProperties == null ? null : new HashMap<>(connectionProperties));
+        ConnectionPool pool = pools.computeIfAbsent(key, k -> {
+            String name = poolName(alias, jdbcUrl, connectionProperties);
+            int statementCacheSize = StatementCache.size(jdbcProps, alias);
+            StatementCache.Counters counters = statementCounters(name);
+            return ConnectionPool.create(jdbcProps, alias, name,
+                    () -> StatementCache.wrap(DriverManager.getConnection(jdbcUrl, connectionProperties), statementCacheSize, counters));
+        });
+        if (pools.size() > MAX_POOLS) {
+            evictPools(pool);
+        }
+        return pool;
+    }
+
+    private static String poolName(String alias, String jdbcUrl, Properties connectionProperties) {
+        // the URL may contain credentials
+        String name = alias != null ? alias : jdbcUrl.split("[?;]", 2)[0];
+        String user = connectionProperties == null ? null : connectionProperties.getProperty("user");
+        return user == null ? name : format("%s (%s)", name, user);
+    }
+
+    private StatementCache.Counters statementCounters(String name) {
+        return statementCounters.computeIfAbsent(name, n -> new StatementCache.Counters());
+    }
+
+    // The times of the last use are taken once, because they change while the pools are being sorted.
+    private void evictPools(ConnectionPool used) {
+        Map<List<Object>, Long> lastUsed = new HashMap<>();
+        pools.forEach((key, pool) -> lastUsed.put(key, pool.getLastUsed()));
+        List<List<Object>> keys = new ArrayList<>(lastUsed.keySet());
+        keys.sort(Comparator.comparing(lastUsed::get));
+        for (List<Object> key : keys) {
+            if (pools.size() <= MAX_POOLS) {
+                return;
+            }
+            ConnectionPool pool = pools.get(key);
+            if (pool != null && pool != used && pool.evict()) {
+                pools.remove(key, pool);
+            }
+        }
+    }
+
+    // Opens the minimal number of connections of aliases that do not depend on the properties sent by the clients.
+    // The pools are warmed up one by one by a background thread, so the server does not wait for the databases to start.
+    // A connection that cannot be opened is counted in the failures of its pool, and the pool opens it when a client needs it.
+    private void warmUpPools() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (String alias : jdbcProps.stringPropertyNames()) {
+            String jdbcUrl = jdbcProps.getProperty(alias);
+            if (!jdbcUrl.startsWith("jdbc:") || jdbcUrl.endsWith("#properties")
+                    || Integer.parseInt(ConnectionPool.setting(jdbcProps, alias, "max", "0")) <= 0
+                    || Integer.parseInt(ConnectionPool.setting(jdbcProps, alias, "min", "0")) <= 0) {
+                continue;
+            }
+            ConnectionPool pool = pool(alias, jdbcUrl, null);
+            executor.execute(() -> {
+                try {
+                    pool.warmUp();
+                } catch (SQLException | RuntimeException e) {
+                    // already counted by the pool
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
     private ConnectionInfo retrieveConnectionInfo(ConnectionInfo clientConnectionInfo, boolean authRequired) throws LoginException {
         authenticate(clientConnectionInfo.getProperties(), authRequired);
         String url = clientConnectionInfo.getUrl();
@@ -164,6 +291,7 @@ public class DriverController extends BaseController implements Closeable {
     @Override
     public void close() throws IOException {
         Spark.stop();
+        pools.values().forEach(ConnectionPool::close);
         for (Closeable closeable : closeables) {
             closeable.close();
         }
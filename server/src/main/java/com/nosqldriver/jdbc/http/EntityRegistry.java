@@ -0,0 +1,237 @@
+package com.nosqldriver.jdbc.http;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entities that the server keeps for the clients, by keys {@code prefix@handle}. Handles are unique 64 bit numbers
+ * given in increasing order, so a handle is never reused while the server runs. The entities are spread over shards,
+ * each guarded by its own lock, so requests of different clients rarely wait for each other.
+ * An entity may be registered as a child of another one, usually the entity whose URL is the prefix of its URL.
+ * Removing an entity removes its children too, so closing a connection forgets its statements, result sets
+ * and other entities without scanning all the entities of the server.
+ * Entities of types that have idle time to live configured (see {@link IdleReaper}) are closed and removed if neither
+ * they nor their descendants have been accessed during this time, so entities abandoned by dead clients do not stay forever.
+ */
+public class EntityRegistry extends AbstractMap<String, Object> {
+    private static final int SHARDS = 64;
+
+    private final AtomicLong handles = new AtomicLong();
+    private final Shard[] shards = new Shard[SHARDS];
+    private final IdleReaper reaper;
+
+    private static class Shard {
+        private final Map<String, Record> records = new HashMap<>();
+    }
+
+    private static class Record {
+        private final Object entity;
+        private final String parent;
+        private Set<String> children;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Record(Object entity, String parent) {
+            this.entity = entity;
+            this.parent = parent;
+        }
+    }
+
+    public EntityRegistry() {
+        this(IdleReaper.TTLS, IdleReaper.TICK);
+    }
+
+    EntityRegistry(Map<String, Long> ttls, long tick) {
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+        reaper = new IdleReaper(this, ttls, tick);
+    }
+
+    long nextHandle() {
+        return handles.incrementAndGet();
+    }
+
+    /**
+     * Registers the entity as a child of the parent. If the parent is not registered (e.g. it has been just removed)
+     * the entity is registered without parent.
+     */
+    Object put(String key, Object entity, String parent) {
+        Record previous;
+        int index = shardIndex(key);
+        int parentIndex = parent == null ? index : shardIndex(parent);
+        // The parent cannot be removed between adding the entity to its children and registering the entity, otherwise the
+        // entity would stay registered after its parent. The shards are always locked in the order of their indexes.
+        synchronized (shards[Math.min(index, parentIndex)]) {
+            synchronized (shards[Math.max(index, parentIndex)]) {
+                boolean child = parent != null && addChild(parent, key);
+                previous = shards[index].records.put(key, new Record(entity, child ? parent : null));
+            }
+        }
+        if (previous != null && previous.parent != null && !previous.parent.equals(parent)) {
+            removeChild(previous.parent, key);
+        }
+        reaper.schedule(key);
+        return previous == null ? null : previous.entity;
+    }
+
+    @Override
+    public Object put(String key, Object entity) {
+        return put(key, entity, null);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Shard shard = shard(key);
+        synchronized (shard) {
+            Record record = shard.records.get(key);
+            if (record == null) {
+                return null;
+            }
+            record.lastAccess = System.currentTimeMillis();
+            return record.entity;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Shard shard = shard(key);
+        synchronized (shard) {
+            return shard.records.containsKey(key);
+        }
+    }
+
+    /**
+     * Removes the entity and all its descendants.
+     */
+    @Override
+    public Object remove(Object key) {
+        Record record = removeTree(key, null);
+        if (record == null) {
+            return null;
+        }
+        if (record.parent != null) {
+            removeChild(record.parent, (String)key);
+        }
+        return record.entity;
+    }
+
+    /**
+     * Removes the entity and all its descendants and returns all of them, the descendants before their ancestors.
+     */
+    List<Object> removeAll(String key) {
+        List<Object> removed = new ArrayList<>();
+        Record record = removeTree(key, removed);
+        if (record != null && record.parent != null) {
+            removeChild(record.parent, key);
+        }
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.records.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.records.clear();
+            }
+        }
+    }
+
+    // A snapshot of the entities; changes of the registry are not reflected in it.
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Set<Entry<String, Object>> entries = new HashSet<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.records.forEach((key, record) -> entries.add(new SimpleImmutableEntry<>(key, record.entity)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the last time the entity or any of its descendants was accessed or -1 if the entity is not registered.
+     */
+    long lastAccess(String key) {
+        Shard shard = shard(key);
+        long lastAccess;
+        List<String> children;
+        synchronized (shard) {
+            Record record = shard.records.get(key);
+            if (record == null) {
+                return -1;
+            }
+            lastAccess = record.lastAccess;
+            children = record.children == null ? List.of() : new ArrayList<>(record.children);
+        }
+        for (String child : children) {
+            lastAccess = Math.max(lastAccess, lastAccess(child));
+        }
+        return lastAccess;
+    }
+
+    private Record removeTree(Object key, List<Object> removed) {
+        Shard shard = shard(key);
+        Record record;
+        List<String> children;
+        synchronized (shard) {
+            record = shard.records.remove(key);
+            children = record == null || record.children == null ? List.of() : new ArrayList<>(record.children);
+        }
+        children.forEach(child -> removeTree(child, removed));
+        if (record != null && removed != null) {
+            removed.add(record.entity);
+        }
+        return record;
+    }
+
+    private boolean addChild(String parent, String key) {
+        Shard shard = shard(parent);
+        synchronized (shard) {
+            Record record = shard.records.get(parent);
+            if (record == null) {
+                return false;
+            }
+            if (record.children == null) {
+                record.children = new HashSet<>();
+            }
+            record.children.add(key);
+            return true;
+        }
+    }
+
+    private void removeChild(String parent, String key) {
+        Shard shard = shard(parent);
+        synchronized (shard) {
+            Record record = shard.records.get(parent);
+            if (record != null && record.children != null) {
+                record.children.remove(key);
+            }
+        }
+    }
+
+    private Shard shard(Object key) {
+        return shards[shardIndex(key)];
+    }
+
+    private static int shardIndex(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (SHARDS - 1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.nosqldriver.jdbc.http;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import spark.embeddedserver.jetty.JettyServerFactory;
+
+/**
+ * Creates Jetty server that accepts cleartext HTTP/2 (h2c) in addition to HTTP/1.1 on plain connectors,
+ * both using upgrade and prior knowledge. Spark creates connectors itself, so h2c is added when they are set to the server.
+ */
+class H2cJettyServerFactory implements JettyServerFactory {
+    @Override
+    public Server create(int maxThreads, int minThreads, int threadTimeoutMillis) {
+        return maxThreads > 0 ? new H2cServer(new QueuedThreadPool(maxThreads, minThreads, threadTimeoutMillis)) : new H2cServer(null);
+    }
+
+    @Override
+    public Server create(ThreadPool threadPool) {
+        return new H2cServer(threadPool);
+    }
+
+    private static class H2cServer extends Server {
+        private H2cServer(ThreadPool threadPool) {
+            super(threadPool);
+        }
+
+        @Override
+        public void setConnectors(Connector[] connectors) {
+            if (connectors != null) {
+                for (Connector connector : connectors) {
+                    if (connector instanceof ServerConnector && connector.getConnectionFactory(SslConnectionFactory.class) == null && connector.getConnectionFactory(HTTP2CServerConnectionFactory.class) == null) {
+                        HttpConnectionFactory http = connector.getConnectionFactory(HttpConnectionFactory.class);
+                        HttpConfiguration configuration = http == null ? new HttpConfiguration() : http.getHttpConfiguration();
+                        ((ServerConnector)connector).addConnectionFactory(new HTTP2CServerConnectionFactory(configuration));
+                    }
+                }
+            }
+            super.setConnectors(connectors);
+        }
+    }
+}
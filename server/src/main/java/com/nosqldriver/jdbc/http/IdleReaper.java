@@ -0,0 +1,148 @@
+package com.nosqldriver.jdbc.http;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes and removes entities of {@link EntityRegistry} that have not been used longer than the idle time to live of
+ * their type. The time to live is configured in seconds by system property {@code jdbc.idle.<type>} where the type is
+ * the prefix of the entity key, e.g. {@code jdbc.idle.connection=1800}. Entities of types without it are never expired.
+ * Entities are kept in a timing wheel by the time they may expire, so each tick checks only the entities of its slot.
+ * An entity that has been used since it was scheduled is scheduled again instead of being expired, so using
+ * an entity does not touch the wheel.
+ */
+class IdleReaper {
+    private static final String TTL_PREFIX = "jdbc.idle.";
+    static final long TICK = Long.parseLong(System.getProperty("jdbc.idle.tick", "1000"));
+    static final Map<String, Long> TTLS = ttls(System.getProperties());
+    private static final int SLOTS = 512;
+
+    private final EntityRegistry registry;
+    private final Map<String, Long> ttls;
+    private final long tick;
+    private final List<Set<String>> wheel = new ArrayList<>(SLOTS);
+    // ticks at which the entities are checked
+    private final Map<String, Long> ticks = new ConcurrentHashMap<>();
+    private volatile long lastTick;
+    private volatile ScheduledExecutorService executor;
+
+    IdleReaper(EntityRegistry registry, Map<String, Long> ttls, long tick) {
+        this.registry = registry;
+        this.ttls = ttls;
+        this.tick = tick;
+        for (int i = 0; i < SLOTS; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        lastTick = System.currentTimeMillis() / tick;
+    }
+
+    void schedule(String key) {
+        Long ttl = ttls.get(type(key));
+        if (ttl != null) {
+            schedule(key, System.currentTimeMillis() + ttl);
+        }
+    }
+
+    private void schedule(String key, long deadline) {
+        start();
+        // the first tick not earlier than the deadline, but the slot of the current tick may have been already checked
+        long t = Math.max((deadline + tick - 1) / tick, lastTick + 1);
+        ticks.put(key, t);
+        wheel.get(slot(t)).add(key);
+    }
+
+    private void start() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "idle-entity-reaper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    service.scheduleWithFixedDelay(this::run, tick, tick, TimeUnit.MILLISECONDS);
+                    executor = service;
+                }
+            }
+        }
+    }
+
+    private void run() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / tick;
+        // ticks could have been skipped if the thread was late
+        for (long t = lastTick + 1; t <= currentTick; t++) {
+            check(t, now);
+            lastTick = t;
+        }
+    }
+
+    private void check(long t, long now) {
+        int slot = slot(t);
+        for (Iterator<String> it = wheel.get(slot).iterator(); it.hasNext();) {
+            String key = it.next();
+            Long scheduled = ticks.get(key);
+            if (scheduled == null || slot(scheduled) != slot) {
+                // scheduled again to another slot
+                it.remove();
+                continue;
+            }
+            if (scheduled > t) {
+                // is checked after one of the next turns of the wheel
+                continue;
+            }
+            it.remove();
+            ticks.remove(key, scheduled);
+            long lastAccess = registry.lastAccess(key);
+            if (lastAccess < 0) {
+                continue;
+            }
+            long ttl = ttls.get(type(key));
+            if (now - lastAccess >= ttl) {
+                expire(key);
+            } else {
+                schedule(key, lastAccess + ttl);
+            }
+        }
+    }
+
+    // Statements and result sets of an expired connection are closed before it.
+    private void expire(String key) {
+        for (Object entity : registry.removeAll(key)) {
+            if (entity instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable)entity).close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private int slot(long t) {
+        return (int)(t % SLOTS);
+    }
+
+    private static String type(String key) {
+        int at = key.indexOf('@');
+        return at < 0 ? key : key.substring(0, at);
+    }
+
+    static Map<String, Long> ttls(Properties properties) {
+        Map<String, Long> ttls = new ConcurrentHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(TTL_PREFIX) && !name.equals(TTL_PREFIX + "tick")) {
+                ttls.put(name.substring(TTL_PREFIX.length()), Long.parseLong(properties.getProperty(name)) * 1000);
+            }
+        }
+        return ttls;
+    }
+}
@@ -4,17 +4,33 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import spark.Request;
 
 import java.io.InputStream;
-import java.util.Map;
+import java.io.OutputStream;
 
-import static spark.Spark.get;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.get;
+import static java.lang.String.format;
 
 public class InputStreamController extends BaseController {
-    protected InputStreamController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl) {
+    protected InputStreamController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl) {
         super(attributes, objectMapper);
-        get(baseUrl, JSON, (req, res) -> retrieve(() -> getInputStream(attributes, req), InputStream::read));
+        get(baseUrl, JSON, (req, res) -> retrieve(res, () -> getInputStream(attributes, req), InputStream::read));
+        get(format("%s/bytes/:len", baseUrl), (req, res) -> {
+            InputStream in = getInputStream(attributes, req);
+            int remaining = intParam(req, ":len");
+            byte[] buf = new byte[Math.min(remaining, COPY_BUFFER_SIZE)];
+            // the first read is done before the response is committed, so its failure is still reported as a regular error
+            int n = in.read(buf, 0, buf.length);
+            res.type(OCTET_STREAM);
+            OutputStream out = res.raw().getOutputStream();
+            while (n > 0) {
+                out.write(buf, 0, n);
+                remaining -= n;
+                n = remaining > 0 ? in.read(buf, 0, Math.min(remaining, buf.length)) : -1;
+            }
+            return "";
+        });
     }
 
-    private InputStream getInputStream(Map<String, Object> attributes, Request req) {
+    private InputStream getInputStream(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "stream", ":stream");
     }
 }
@@ -0,0 +1,299 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.ConnectionPool.PhysicalConnection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * A client connection that holds a physical connection of the pool only while it needs one: during a transaction
+ * and while it has open statements (and therefore cursors). Between them the physical connection serves other
+ * client connections, so clients that keep their connections open for a long time but use them rarely share a few
+ * physical connections.
+ * Session settings (auto commit, read only, isolation, catalog, schema, holdability, type map, client info and network
+ * timeout) are recorded and applied every time a physical connection is bound, except those that already have the
+ * value of a connection taken from the pool. A setting is applied when it is set as well, so the errors of the driver
+ * and the values it actually uses are the same as without multiplexing.
+ * Database metadata is read from the physical connection bound at the time of each call; the result sets it returns
+ * keep the physical connection bound like statements do. LOBs, savepoints, arrays and structs belong to the physical
+ * connection and pin the client connection to it until the client connection is closed.
+ */
+class MultiplexedConnection implements InvocationHandler {
+    private static final Set<String> setters = Set.of(
+            "setAutoCommit", "setReadOnly", "setTransactionIsolation", "setCatalog", "setSchema",
+            "setHoldability", "setTypeMap", "setClientInfo", "setNetworkTimeout");
+
+    private final ConnectionPool pool;
+    private final Map<String, Setting> session = new LinkedHashMap<>();
+    private final Set<Statement> statements = Collections.newSetFromMap(new WeakHashMap<>());
+    private final Set<ResultSet> resultSets = Collections.newSetFromMap(new WeakHashMap<>());
+    private Connection proxy;
+    private PhysicalConnection physical;
+    private boolean inTransaction = false;
+    private boolean pinned = false;
+    private boolean closed = false;
+
+    private static class Setting {
+        private final Method method;
+        private final Object[] args;
+
+        private Setting(Method method, Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+
+        private Object value() {
+            return args[args.length - 1];
+        }
+    }
+
+    private MultiplexedConnection(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    static Connection create(ConnectionPool pool) {
+        MultiplexedConnection handler = new MultiplexedConnection(pool);
+        handler.proxy = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed || (physical != null && physical.connection.isClosed());
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return format("multiplexed connection of pool %s", pool.getName());
+            default:
+                break;
+        }
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        if ("getMetaData".equals(name)) {
+            return metaData();
+        }
+        if (physical == null) {
+            switch (name) {
+                // there is neither transaction nor warnings without physical connection
+                case "commit":
+                case "rollback":
+                    if (args == null) {
+                        return null;
+                    }
+                    break;
+                case "clearWarnings":
+                case "getWarnings":
+                    return null;
+                default:
+                    break;
+            }
+            bind();
+        }
+        try {
+            Object result;
+            switch (name) {
+                case "unwrap":
+                    result = ConnectionPool.unwrap(physical.connection, this.proxy, (Class<?>)args[0]);
+                    break;
+                case "isWrapperFor":
+                    result = ConnectionPool.isWrapperFor(physical.connection, this.proxy, (Class<?>)args[0]);
+                    break;
+                default:
+                    result = call(physical.connection, method, args);
+                    break;
+            }
+            if (setters.contains(name)) {
+                String key = "setClientInfo".equals(name) && args.length == 2 ? format("%s:%s", name, args[0]) : name;
+                session.put(key, new Setting(method, args));
+                if ("setAutoCommit".equals(name) && (Boolean)args[0]) {
+                    // switching auto commit on commits the transaction
+                    inTransaction = false;
+                }
+            } else if (("commit".equals(name) || "rollback".equals(name)) && args == null) {
+                inTransaction = false;
+            } else if (result instanceof Statement) {
+                statements.add((Statement)result);
+                inTransaction |= !autoCommit();
+                result = wrap(result, method.getReturnType());
+            } else if (result instanceof Properties) {
+                // the driver may return the client info of the physical connection itself
+                Properties clientInfo = new Properties();
+                clientInfo.putAll((Properties)result);
+                result = clientInfo;
+            } else if (result instanceof Blob || result instanceof Clob || result instanceof SQLXML || result instanceof Savepoint || result instanceof Array || result instanceof Struct) {
+                pinned = true;
+            }
+            return result;
+        } finally {
+            releaseIfIdle();
+        }
+    }
+
+    private void bind() throws Throwable {
+        PhysicalConnection connection = pool.borrow();
+        try {
+            for (Setting setting : session.values()) {
+                Object baseline = connection.baseline(setting.method.getName());
+                if (baseline == null || !Objects.equals(baseline, setting.value())) {
+                    call(connection.connection, setting.method, setting.args);
+                }
+            }
+        } catch (Throwable e) {
+            pool.release(connection);
+            throw e;
+        }
+        physical = connection;
+        inTransaction = false;
+    }
+
+    private synchronized Object invokeMetaData(Method method, Object[] args) throws Throwable {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        if (physical == null) {
+            bind();
+        }
+        try {
+            Object result = call(physical.connection.getMetaData(), method, args);
+            if (result instanceof ResultSet) {
+                resultSets.add((ResultSet)result);
+                result = wrap(result, ResultSet.class);
+            }
+            return result;
+        } finally {
+            releaseIfIdle();
+        }
+    }
+
+    private boolean autoCommit() {
+        Setting setting = session.get("setAutoCommit");
+        return setting != null ? (Boolean)setting.value() : (Boolean)physical.baseline("setAutoCommit");
+    }
+
+    private void releaseIfIdle() {
+        if (physical == null || pinned || inTransaction || hasOpenCursors()) {
+            return;
+        }
+        pool.release(physical);
+        physical = null;
+    }
+
+    private boolean hasOpenCursors() {
+        statements.removeIf(statement -> {
+            try {
+                return statement.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        });
+        resultSets.removeIf(resultSet -> {
+            try {
+                return resultSet.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        });
+        return !statements.isEmpty() || !resultSets.isEmpty();
+    }
+
+    private synchronized void cursorClosed() {
+        if (!closed) {
+            releaseIfIdle();
+        }
+    }
+
+    private synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<AutoCloseable> open = new ArrayList<>(resultSets);
+        open.addAll(statements);
+        resultSets.clear();
+        statements.clear();
+        open.forEach(ConnectionPool::closeQuietly);
+        if (physical != null) {
+            pool.release(physical);
+            physical = null;
+        }
+        pool.disconnected();
+    }
+
+    // Every call of the metadata may be served by another physical connection, so the metadata does not pin the client connection.
+    private DatabaseMetaData metaData() {
+        return (DatabaseMetaData)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {DatabaseMetaData.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getConnection":
+                    return this.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invokeMetaData(method, args);
+            }
+        });
+    }
+
+    // The statement or result set notifies the connection when it is closed, so the physical connection is released as soon as it is not needed.
+    private Object wrap(Object cursor, Class<?> type) {
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getConnection":
+                    return this.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result = call(cursor, method, args);
+            if ("close".equals(method.getName())) {
+                cursorClosed();
+            }
+            return result;
+        });
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
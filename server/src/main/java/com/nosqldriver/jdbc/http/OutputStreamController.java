@@ -4,23 +4,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import spark.Request;
 
 import java.io.OutputStream;
-import java.util.Map;
 
-import static spark.Spark.post;
-import static spark.Spark.put;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.put;
+
 
 public class OutputStreamController extends BaseController {
-    protected OutputStreamController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl) {
+    protected OutputStreamController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl) {
         super(attributes, objectMapper);
         put(baseUrl, JSON, (req, res) ->
                 accept(
                         () -> getOutputStream(attributes, req),
-                        os -> os.write(objectMapper.readValue(req.body(), int.class)))
+                        os -> os.write(readBody(req, int.class)))
         );
+        put(baseUrl + "/bytes", (req, res) -> accept(() -> getOutputStream(attributes, req), os -> req.raw().getInputStream().transferTo(os)));
         post(baseUrl + "/flush", JSON, (req, res) -> accept(() -> getOutputStream(attributes, req), OutputStream::flush));
     }
 
-    private OutputStream getOutputStream(Map<String, Object> attributes, Request req) {
+    private OutputStream getOutputStream(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "stream", ":stream");
     }
 }
@@ -1,6 +1,7 @@
 package com.nosqldriver.jdbc.http;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nosqldriver.jdbc.http.model.ParameterBatch;
 import com.nosqldriver.jdbc.http.model.ParameterValue;
 import com.nosqldriver.jdbc.http.model.ResultSetProxy;
 import com.nosqldriver.jdbc.http.model.TransportableParameterMetaData;
@@ -9,45 +10,90 @@ import com.nosqldriver.util.function.ThrowingBiFunction;
 import com.nosqldriver.util.function.ThrowingTriConsumer;
 import spark.Request;
 
+import java.io.IOException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Date;
 import java.sql.NClob;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Map;
 import java.util.TreeMap;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.get;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.put;
 import static java.lang.String.format;
-import static spark.Spark.get;
-import static spark.Spark.put;
 
 public class PreparedStatementController extends StatementController {
     private static final String baseUrl = "/connection/:connection/prepared-statement/:statement";
-    protected PreparedStatementController(Map<String, Object> attributes, ObjectMapper objectMapper, ThrowingBiFunction<String, String, String, SQLException> validator) {
+    protected PreparedStatementController(EntityRegistry attributes, ObjectMapper objectMapper, ThrowingBiFunction<String, String, String, SQLException> validator) {
         super(attributes, objectMapper, baseUrl, validator);
-        get(format("%s/query", baseUrl), JSON, (req, res) -> retrieve(() -> getStatement(attributes, req), PreparedStatement::executeQuery, resultSetProxyFactory, "resultset", req.url()));
-        get(format("%s/update", baseUrl), JSON, (req, res) -> retrieve(() -> getStatement(attributes, req), PreparedStatement::executeUpdate));
-        get(format("%s/execute", baseUrl), JSON, (req, res) -> retrieve(() -> getStatement(attributes, req), PreparedStatement::execute));
-        get(format("%s/:resultset/metadata", baseUrl), JSON, (req, res) -> retrieve2(() -> getStatement(attributes, req), PreparedStatement::getMetaData, TransportableResultSetMetaData::new, "metadata", req.url()));
-        get(format("%s/:resultset/parametermetadata", baseUrl), JSON, (req, res) -> retrieve2(() -> getStatement(attributes, req), PreparedStatement::getParameterMetaData, TransportableParameterMetaData::new, "metadata", req.url()));
+        get(format("%s/query", baseUrl), JSON, (req, res) -> retrieve2(res, () -> getStatement(attributes, req), PreparedStatement::executeQuery, this::resultSetWithFirstRows, "resultset", req.url()));
+        get(format("%s/update", baseUrl), JSON, (req, res) -> retrieve(res, () -> getStatement(attributes, req), PreparedStatement::executeUpdate));
+        get(format("%s/execute", baseUrl), JSON, (req, res) -> retrieve(res, () -> getStatement(attributes, req), PreparedStatement::execute));
+        get(format("%s/:resultset/metadata", baseUrl), JSON, (req, res) -> retrieve2(res, () -> getStatement(attributes, req), PreparedStatement::getMetaData, TransportableResultSetMetaData::new, "metadata", req.url()));
+        get(format("%s/:resultset/parametermetadata", baseUrl), JSON, (req, res) -> retrieve2(res, () -> getStatement(attributes, req), PreparedStatement::getParameterMetaData, TransportableParameterMetaData::new, "metadata", req.url()));
 
-        put(baseUrl, JSON, (req, res) -> accept(() -> getStatement(attributes, req), rs -> {
-            ParameterValue<?, ?> parameterValue = objectMapper.readValue(req.body(), ParameterValue.class);
-            int index = parameterValue.getIndex();
-            String typeName = parameterValue.getTypeName();
-            setByIndex.get(typeName).accept(rs, index, parameterValue.getValue());
-        }));
+        // Parameters are buffered by client and sent together with execute*() and addBatch()
+        post(format("%s/bind/query", baseUrl), JSON, (req, res) -> retrieve2(res, () -> getStatement(attributes, req), ps -> withParameters(ps, req).executeQuery(), this::resultSetWithFirstRows, "resultset", parentUrl(req.url())));
+        post(format("%s/bind/update", baseUrl), JSON, (req, res) -> retrieve(res, () -> getStatement(attributes, req), ps -> withParameters(ps, req).executeUpdate()));
+        post(format("%s/bind/execute", baseUrl), JSON, (req, res) -> retrieve(res, () -> getStatement(attributes, req), ps -> withParameters(ps, req).execute()));
+        put(format("%s/bind/batch", baseUrl), JSON, (req, res) -> accept(() -> getStatement(attributes, req), ps -> addBatch(ps, req)));
+        post(format("%s/bind/batch", baseUrl), JSON, (req, res) -> retrieve(res, () -> getStatement(attributes, req), ps -> addBatch(ps, req).executeBatch()));
+        post(format("%s/bind/large/batch", baseUrl), JSON, (req, res) -> retrieve(res, () -> getStatement(attributes, req), ps -> addBatch(ps, req).executeLargeBatch()));
+
+        put(baseUrl, JSON, (req, res) -> accept(() -> getStatement(attributes, req), ps -> bind(ps, readBody(req, ParameterValue.class))));
 
         new SQLXMLController(attributes, objectMapper, baseUrl);
     }
 
-    private PreparedStatement getStatement(Map<String, Object> attributes, Request req) {
+    private PreparedStatement getStatement(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "prepared-statement", ":statement");
     }
 
+    private PreparedStatement withParameters(PreparedStatement ps, Request req) throws IOException, SQLException {
+        ps.clearParameters();
+        for (ParameterValue<?, ?> parameterValue : readBody(req, ParameterValue[].class)) {
+            bind(ps, parameterValue);
+        }
+        return ps;
+    }
+
+    private PreparedStatement addBatch(PreparedStatement ps, Request req) throws IOException, SQLException {
+        ParameterBatch batch = readBody(req, ParameterBatch.class);
+        for (int i = 0; i < batch.size(); i++) {
+            ps.clearParameters();
+            for (ParameterValue<?, ?> parameterValue : batch.getRow(i)) {
+                bind(ps, parameterValue);
+            }
+            ps.addBatch();
+        }
+        return ps;
+    }
+
+    private void bind(PreparedStatement ps, ParameterValue<?, ?> parameterValue) throws SQLException {
+        int index = parameterValue.getIndex();
+        String typeName = parameterValue.getTypeName();
+        if (typeName == null) {
+            Object sqlTypeName = parameterValue.getAdditionalArgument();
+            if (sqlTypeName == null) {
+                ps.setNull(index, (Integer)parameterValue.getValue());
+            } else {
+                ps.setNull(index, (Integer)parameterValue.getValue(), (String)sqlTypeName);
+            }
+            return;
+        }
+        ThrowingTriConsumer<PreparedStatement, Integer, Object, SQLException> setter = setByIndex.get(typeName);
+        if (setter == null) {
+            throw new SQLFeatureNotSupportedException(format("Parameter of type %s is not supported", typeName));
+        }
+        setter.accept(ps, index, parameterValue.getValue());
+    }
+
 
     private static final Map<String, ThrowingTriConsumer<PreparedStatement, Integer, Object, SQLException>> setByIndex = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
     static {
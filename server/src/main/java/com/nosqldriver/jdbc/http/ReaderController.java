@@ -4,16 +4,41 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nosqldriver.util.function.ThrowingFunction;
 import spark.Request;
 
+import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.util.Map;
+import java.io.Writer;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.get;
 import static java.lang.String.format;
-import static spark.Spark.get;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class ReaderController extends BaseController {
-    protected ReaderController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl) {
+    protected ReaderController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl) {
         super(attributes, objectMapper);
-        get(format("%s/:off/:len", baseUrl), JSON, (req, res) -> retrieve(() -> getReader(attributes, req), (ThrowingFunction<Reader, Object, Exception>) reader -> {
+        // must be registered before :off/:len that matches the same number of path segments
+        get(format("%s/chars/:len", baseUrl), (req, res) -> {
+            Reader reader = getReader(attributes, req);
+            int remaining = intParam(req, ":len");
+            char[] buf = new char[Math.min(remaining, COPY_BUFFER_SIZE) + 1];
+            int n = reader.read(buf, 0, buf.length - 1);
+            res.type(TEXT);
+            Writer out = new OutputStreamWriter(res.raw().getOutputStream(), UTF_8);
+            while (n > 0) {
+                remaining -= n;
+                // a surrogate pair cannot be encoded in halves, so the chunk is extended by its low surrogate
+                if (Character.isHighSurrogate(buf[n - 1])) {
+                    int low = reader.read();
+                    if (low >= 0) {
+                        buf[n++] = (char)low;
+                    }
+                }
+                out.write(buf, 0, n);
+                n = remaining > 0 ? reader.read(buf, 0, Math.min(remaining, buf.length - 1)) : -1;
+            }
+            out.flush();
+            return "";
+        });
+        get(format("%s/:off/:len", baseUrl), JSON, (req, res) -> retrieve(res, () -> getReader(attributes, req), (ThrowingFunction<Reader, Object, Exception>) reader -> {
             int length = intParam(req, ":len");
             char[] buf = new char[length];
             int actual = reader.read(buf, intParam(req, ":off"), intParam(req, ":len"));
@@ -29,7 +54,7 @@ public class ReaderController extends BaseController {
         }));
     }
 
-    private Reader getReader(Map<String, Object> attributes, Request req) {
+    private Reader getReader(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "stream", ":stream");
     }
 }
@@ -0,0 +1,113 @@
+package com.nosqldriver.jdbc.http;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Accounts estimated memory taken by rows of responses that are being built and sent. The rows read while handling
+ * a request are reserved by the handling thread and released when the response is complete. A response does not get
+ * more rows than its byte budget. When the memory of all responses in flight reaches the limit a response that already
+ * has rows is cut short, and a response that has none waits until others release memory or is rejected if it waits too long.
+ */
+class ResponseMemory {
+    private static final long RESPONSE_BYTES = Long.parseLong(System.getProperty("jdbc.response.bytes", "16777216"));
+    private static final long LIMIT = Long.parseLong(System.getProperty("jdbc.response.memory", Long.toString(Runtime.getRuntime().maxMemory() / 4)));
+    private static final long TIMEOUT = Long.parseLong(System.getProperty("jdbc.response.memory.wait", "10000"));
+    static final ResponseMemory INSTANCE = new ResponseMemory(LIMIT, RESPONSE_BYTES, TIMEOUT);
+
+    private final long limit;
+    private final long responseBytes;
+    private final long timeout;
+    private final ThreadLocal<long[]> reserved = ThreadLocal.withInitial(() -> new long[1]);
+    private long used = 0;
+    private long peak = 0;
+    private long responses = 0;
+    private long truncated = 0;
+    private long waits = 0;
+    private long rejections = 0;
+
+    ResponseMemory(long limit, long responseBytes, long timeout) {
+        this.limit = limit;
+        this.responseBytes = responseBytes;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Checks whether the current response may take one more row of the given estimated size. The first row of a response
+     * is always admitted unless the memory stays exhausted longer than the timeout.
+     * @return false if the response should end before the next row
+     * @throws SQLException if the response does not get memory for its first row in time
+     */
+    boolean admit(long rowBytes) throws SQLException {
+        long response = reserved.get()[0];
+        synchronized (this) {
+            if (response > 0) {
+                if (response + rowBytes <= responseBytes && used + rowBytes <= limit) {
+                    return true;
+                }
+                truncated++;
+                return false;
+            }
+            if (used + rowBytes <= limit || used == 0) {
+                return true;
+            }
+            waits++;
+            long deadline = System.currentTimeMillis() + timeout;
+            while (used + rowBytes > limit && used > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    rejections++;
+                    throw new SQLException(format("Server is out of response memory: %d of %d bytes are in use", used, limit));
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for response memory", e);
+                }
+            }
+            return true;
+        }
+    }
+
+    void reserve(long bytes) {
+        reserved.get()[0] += bytes;
+        synchronized (this) {
+            used += bytes;
+            peak = Math.max(peak, used);
+        }
+    }
+
+    long reserved() {
+        return reserved.get()[0];
+    }
+
+    // Called when the response of the current thread is complete.
+    void release() {
+        long[] response = reserved.get();
+        if (response[0] == 0) {
+            return;
+        }
+        synchronized (this) {
+            used -= response[0];
+            responses++;
+            notifyAll();
+        }
+        response[0] = 0;
+    }
+
+    synchronized Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("limit", limit);
+        counters.put("used", used);
+        counters.put("peak", peak);
+        counters.put("responses", responses);
+        counters.put("truncated", truncated);
+        counters.put("waits", waits);
+        counters.put("rejections", rejections);
+        return counters;
+    }
+}
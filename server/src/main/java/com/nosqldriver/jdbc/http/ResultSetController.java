@@ -1,18 +1,29 @@
 package com.nosqldriver.jdbc.http;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.nosqldriver.jdbc.http.model.ArrayProxy;
 import com.nosqldriver.jdbc.http.model.BlobProxy;
 import com.nosqldriver.jdbc.http.model.ClobProxy;
 import com.nosqldriver.jdbc.http.model.ConnectionProxy;
+import com.nosqldriver.jdbc.http.model.EntityProxy;
 import com.nosqldriver.jdbc.http.model.ParameterValue;
+import com.nosqldriver.jdbc.http.model.ResultSetProxy;
+import com.nosqldriver.jdbc.http.model.RowBatch;
 import com.nosqldriver.jdbc.http.model.RowData;
+import com.nosqldriver.jdbc.http.model.TransportableException;
 import com.nosqldriver.jdbc.http.model.TransportableResultSetMetaData;
 import com.nosqldriver.util.function.ThrowingBiFunction;
 import com.nosqldriver.util.function.ThrowingFunction;
 import com.nosqldriver.util.function.ThrowingTriConsumer;
 import spark.Request;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.Clob;
@@ -25,37 +36,52 @@ import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.WeakHashMap;
 import java.util.function.Function;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.delete;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.get;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.put;
 import static java.lang.String.format;
-import static spark.Spark.delete;
-import static spark.Spark.get;
-import static spark.Spark.post;
-import static spark.Spark.put;
 
 public class ResultSetController extends AutoClosableController {
+    // size of the first batch; the following batches are sized by BatchSizer
     private static final int MAX_FETCH_SIZE = Integer.parseInt(System.getProperty("jdbc.fetch.size", "100"));
+    // string columns with up to this number of distinct values in a batch are sent as dictionary and codes
+    private static final int MAX_DICTIONARY_SIZE = Integer.parseInt(System.getProperty("jdbc.dictionary.size", "64"));
     private final String prefix;
     private final String id;
+    private final ObjectWriter rowWriter;
+    private final Map<ResultSet, ColumnReader[]> columnReaders = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<ResultSet, BatchSizer> batchSizers = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<ResultSet, int[]> columnTypes = Collections.synchronizedMap(new WeakHashMap<>());
 
-    protected ResultSetController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl, boolean withComplexTypes) {
+    protected ResultSetController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl, boolean withComplexTypes) {
         super(attributes, objectMapper, baseUrl);
 
         String[] urlParts =  baseUrl.split("/");
         prefix = urlParts[urlParts.length - 2];
         id = urlParts[urlParts.length - 1];
+        rowWriter = objectMapper.writerFor(RowData.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
 
-        get(format("%s/metadata", baseUrl), JSON, (req, res) -> retrieve2(() -> getResultSet(attributes, req), ResultSet::getMetaData, TransportableResultSetMetaData::new, "metadata", req.url()));
+        get(format("%s/metadata", baseUrl), JSON, (req, res) -> retrieve2(res, () -> getResultSet(attributes, req), ResultSet::getMetaData, TransportableResultSetMetaData::new, "metadata", req.url()));
 
-        get(format("%s/next", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::next));
-        get(format("%s/previous", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::previous));
-        get(format("%s/absolute/:row", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> rs.absolute(intParam(req, "row"))));
-        get(format("%s/relative/:row", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> rs.relative(intParam(req, "row"))));
+        get(format("%s/next", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::next));
+        get(format("%s/previous", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::previous));
+        get(format("%s/absolute/:row", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> rs.absolute(intParam(req, "row"))));
+        get(format("%s/relative/:row", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> rs.relative(intParam(req, "row"))));
 
         post(format("%s/move", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), rs -> {
             switch (req.body()) {
@@ -69,46 +95,57 @@ public class ResultSetController extends AutoClosableController {
         post(format("%s/first", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), ResultSet::first));
         post(format("%s/after/last", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), ResultSet::afterLast));
         post(format("%s/last", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), ResultSet::last));
-        get(format("%s/is/before/first", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::isBeforeFirst));
-        get(format("%s/is/first", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::isFirst));
-        get(format("%s/is/after/last", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::isAfterLast));
-        get(format("%s/is/last", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::isLast));
+        get(format("%s/is/before/first", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::isBeforeFirst));
+        get(format("%s/is/first", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::isFirst));
+        get(format("%s/is/after/last", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::isAfterLast));
+        get(format("%s/is/last", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::isLast));
 
         ///////// navigation with cache
-        get(format("%s/nextrow", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> move(rs, ResultSet::next, req.url())));
-        get(format("%s/previousrow", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> move(rs, ResultSet::previous, req.url())));
-        get(format("%s/firstrow", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> move(rs, ResultSet::first, req.url())));
-        get(format("%s/lastrow", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> move(rs, ResultSet::last, req.url())));
-        get(format("%s/absoluterow/:row", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> move(rs, r -> r.absolute(intParam(req, "row")), req.url())));
-        get(format("%s/relativerow/:row", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> move(rs, r -> r.relative(intParam(req, "row")), req.url())));
+        get(format("%s/nextrow", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> move(rs, ResultSet::next, req.url(), longArg(req, "rtt"))));
+        get(format("%s/nextbatch", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> RowBatch.of(move(rs, ResultSet::next, req.url(), longArg(req, "rtt")), columnTypes(rs), MAX_DICTIONARY_SIZE)));
+        get(format("%s/previousrow", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> moveOnce(rs, ResultSet::previous, req.url())));
+        get(format("%s/firstrow", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> moveOnce(rs, ResultSet::first, req.url())));
+        get(format("%s/lastrow", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> moveOnce(rs, ResultSet::last, req.url())));
+        get(format("%s/absoluterow/:row", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> moveOnce(rs, r -> r.absolute(intParam(req, "row")), req.url())));
+        get(format("%s/relativerow/:row", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> moveOnce(rs, r -> r.relative(intParam(req, "row")), req.url())));
+        get(format("%s/stream", baseUrl), (req, res) -> {
+            ResultSet rs = getResultSet(attributes, req);
+            // the cursor is closed at the end of the stream, so result sets that can be scrolled back or updated are read in batches
+            if (rs.getType() != ResultSet.TYPE_FORWARD_ONLY || rs.getConcurrency() != ResultSet.CONCUR_READ_ONLY) {
+                throw new SQLException("Only forward-only read-only result set can be streamed");
+            }
+            res.type(NDJSON);
+            stream(rs, parentUrl(req.url()), res.raw().getOutputStream());
+            return "";
+        });
 
 
-        get(format("%s/fetch/size", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::getFetchSize));
+        get(format("%s/fetch/size", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::getFetchSize));
         post(format("%s/fetch/size", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), rs -> rs.setFetchSize(Integer.parseInt(req.body()))));
 
-        get(format("%s/fetch/direction", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::getFetchDirection));
+        get(format("%s/fetch/direction", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::getFetchDirection));
         post(format("%s/fetch/direction", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), rs -> rs.setFetchDirection(Integer.parseInt(req.body()))));
 
-        get(format("%s/type", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::getType));
-        get(format("%s/concurrency", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::getConcurrency));
+        get(format("%s/type", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::getType));
+        get(format("%s/concurrency", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::getConcurrency));
 
-        get(format("%s/row/updated", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::rowUpdated));
-        get(format("%s/row/inserted", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::rowInserted));
-        get(format("%s/row/deleted", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::rowDeleted));
+        get(format("%s/row/updated", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::rowUpdated));
+        get(format("%s/row/inserted", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::rowInserted));
+        get(format("%s/row/deleted", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::rowDeleted));
 
         get(format("%s/row", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), ResultSet::refreshRow));
         post(format("%s/row", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), ResultSet::insertRow));
         put(format("%s/row", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), rs -> {if("cancel".equals(req.body())) rs.cancelRowUpdates(); else rs.updateRow();}));
         delete(format("%s/row", baseUrl), JSON, (req, res) -> accept(() -> getResultSet(attributes, req), ResultSet::deleteRow));
 
-        get(format("%s/wasnull", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), ResultSet::wasNull));
-        get(format("%s/column/label/:label", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> rs.findColumn(req.params(":label"))));
+        get(format("%s/wasnull", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), ResultSet::wasNull));
+        get(format("%s/column/label/:label", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> rs.findColumn(req.params(":label"))));
 
         mapGetters(attributes, baseUrl, "index", getterByIndex, req -> intParam(req, ":index"));
         mapGetters(attributes, baseUrl, "label", getterByLabel, req -> req.params(":label"));
 
         put(baseUrl, JSON, (req, res) -> accept(() -> getResultSet(attributes, req), rs -> {
-            ParameterValue parameterValue = objectMapper.readValue(req.body(), ParameterValue.class);
+            ParameterValue parameterValue = readBody(req, ParameterValue.class);
             String label = parameterValue.getName();
             String typeName = parameterValue.getTypeName();
             if (label != null) {
@@ -119,10 +156,10 @@ public class ResultSetController extends AutoClosableController {
             }
         }));
 
-        get(format("%s/wrapper/:class", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), w -> w.isWrapperFor(Class.forName(req.params(":class")))));
-        get(format("%s/unwrap/:class", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), w -> w.unwrap(Class.forName(req.params(":class"))), ConnectionProxy::new, "resultset", parentUrl(req.url())));
+        get(format("%s/wrapper/:class", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), w -> w.isWrapperFor(Class.forName(req.params(":class")))));
+        get(format("%s/unwrap/:class", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), w -> w.unwrap(Class.forName(req.params(":class"))), ConnectionProxy::new, "resultset", parentUrl(req.url())));
 
-        get(format("%s/closed", baseUrl), JSON, (req, res) -> retrieve(() -> getResultSet(attributes, req), rs -> rs == null || rs.isClosed()));
+        get(format("%s/closed", baseUrl), JSON, (req, res) -> retrieve(res, () -> getResultSet(attributes, req), rs -> rs == null || rs.isClosed()));
 
         if (withComplexTypes) {
             new ArrayController(attributes, objectMapper, format("%s/array/:array", baseUrl));
@@ -132,17 +169,17 @@ public class ResultSetController extends AutoClosableController {
         }
     }
 
-    private <T> void mapGetters(Map<String, Object> attributes, String baseUrl, String markerName, Map<String, ThrowingBiFunction<ResultSet, T, ?, SQLException>> getterByMarker, Function<Request, T> markerValueGetter) {
-        get(format("%s/:type/%s/:%s", baseUrl, markerName, markerName), JSON, (req, resp) -> {
+    private <T> void mapGetters(EntityRegistry attributes, String baseUrl, String markerName, Map<String, ThrowingBiFunction<ResultSet, T, ?, SQLException>> getterByMarker, Function<Request, T> markerValueGetter) {
+        get(format("%s/:type/%s/:%s", baseUrl, markerName, markerName), JSON, (req, res) -> {
             String type = req.params(":type");
             ThrowingBiFunction<ResultSet, T, Object, SQLException> getter = (ThrowingBiFunction<ResultSet, T, Object, SQLException>)getOrThrow(getterByMarker, type, k -> new IllegalArgumentException(format("Unsupported column type '%s'",k)));
             ThrowingBiFunction<String, Object, Object, Exception> transformer = transformers.get(type);
 
             T labelValue = markerValueGetter.apply(req);
             if(transformer == null) {
-                return retrieve(() -> getResultSet(attributes, req), rs -> getter.apply(rs, labelValue));
+                return retrieve(res, () -> getResultSet(attributes, req), rs -> getter.apply(rs, labelValue));
             } else {
-                return retrieve2(() -> getResultSet(attributes, req), rs -> getter.apply(rs, labelValue), transformer, type, req.url());
+                return retrieve2(res, () -> getResultSet(attributes, req), rs -> getter.apply(rs, labelValue), transformer, type, req.url());
             }
         });
     }
@@ -261,7 +298,6 @@ public class ResultSetController extends AutoClosableController {
         getterByType.put(Types.INTEGER, ResultSet::getInt);
         getterByType.put(Types.BIGINT, ResultSet::getLong);
         getterByType.put(Types.BOOLEAN, ResultSet::getBoolean);
-        getterByType.put(Types.BIT, ResultSet::getByte);
         getterByType.put(Types.FLOAT, ResultSet::getFloat);
         getterByType.put(Types.DOUBLE, ResultSet::getDouble);
         getterByType.put(Types.DATE, ResultSet::getDate);
@@ -280,7 +316,7 @@ public class ResultSetController extends AutoClosableController {
     }
 
 
-    private ResultSet getResultSet(Map<String, Object> attributes, Request req) {
+    private ResultSet getResultSet(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, prefix, id);
     }
 
@@ -289,30 +325,48 @@ public class ResultSetController extends AutoClosableController {
     }
 
     private Object[] readRow(ResultSet rs, String rsUrl) throws Exception {
-        ResultSetMetaData md = rs.getMetaData();
+        ColumnReader[] readers = columnReaders.get(rs);
+        if (readers == null) {
+            readers = createColumnReaders(rs.getMetaData());
+            columnReaders.put(rs, readers);
+        }
+        Object[] row = new Object[readers.length];
+        for (int i = 0; i < readers.length; i++) {
+            row[i] = readers[i].read(rs, rsUrl);
+        }
+        return row;
+    }
+
+    private ColumnReader[] createColumnReaders(ResultSetMetaData md) throws SQLException {
         int n = md.getColumnCount();
-        Object[] row = new Object[n];
+        ColumnReader[] readers = new ColumnReader[n];
         for (int i = 0; i < n; i++) {
             int column = i + 1;
-            Object value;
-            ThrowingBiFunction<ResultSet, Integer, ?, SQLException> getter = getterByType.get(md.getColumnType(column));
-            if (getter != null) {
-                try {
-                    value = getter.apply(rs, column);
-                } catch (SQLException e) {
-                    value = getObjectOrException(rs, column);
-                }
-            } else {
-                value = getObjectOrException(rs, column);
-            }
             String type = md.getColumnTypeName(column);
-            ThrowingBiFunction<String, Object, Object, Exception> transformer = transformers.get(type);
-            row[i] = value == null || transformer == null ? value : entityToProxy(value, transformer, type.toLowerCase(), format("%s/%d", rsUrl, column));
+            readers[i] = new ColumnReader(column, getter(md, column), type.toLowerCase(), transformers.get(type));
+        }
+        return readers;
+    }
+
+    // The typed getter of the column type is used unless the metadata shows that the value may not be converted to it:
+    // unsigned integers may not fit the signed type of the same size, and only a single bit reported as boolean is read
+    // by getBoolean(). Such columns and columns of other types are read by getObject().
+    static ThrowingBiFunction<ResultSet, Integer, ?, SQLException> getter(ResultSetMetaData md, int column) throws SQLException {
+        int type = md.getColumnType(column);
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return md.isSigned(column) ? getterByType.get(type) : ResultSetController::getObjectOrException;
+            case Types.BIT:
+                return Boolean.class.getName().equals(md.getColumnClassName(column)) ? ResultSet::getBoolean : ResultSetController::getObjectOrException;
+            default:
+                return getterByType.getOrDefault(type, ResultSetController::getObjectOrException);
         }
-        return row;
     }
 
-    private Object getObjectOrException(ResultSet rs, int column) {
+    private static Object getObjectOrException(ResultSet rs, int column) {
         try {
             return rs.getObject(column);
         } catch (SQLException e) {
@@ -320,44 +374,139 @@ public class ResultSetController extends AutoClosableController {
         }
     }
 
+    /**
+     * Reads value of one column of the current row. The reader is created once per result set, so the metadata is not
+     * examined for every row.
+     */
+    private class ColumnReader {
+        private final int column;
+        private final String type;
+        private final ThrowingBiFunction<String, Object, Object, Exception> transformer;
+        private final ThrowingBiFunction<ResultSet, Integer, ?, SQLException> getter;
+
+        private ColumnReader(int column, ThrowingBiFunction<ResultSet, Integer, ?, SQLException> getter, String type, ThrowingBiFunction<String, Object, Object, Exception> transformer) {
+            this.column = column;
+            this.getter = getter;
+            this.type = type;
+            this.transformer = transformer;
+        }
+
+        private Object read(ResultSet rs, String rsUrl) throws Exception {
+            Object value = getter.apply(rs, column);
+            return value == null || transformer == null ? value : entityToProxy(value, transformer, type, format("%s/%d", rsUrl, column));
+        }
+    }
+
     public List<RowData> move(ResultSet rs, ThrowingFunction<ResultSet, Boolean, SQLException> move, String url) throws Exception {
-        return readRows(rs, move, url);
+        return move(rs, move, url, null);
     }
 
-    private List<RowData> readRows(ResultSet rs, ThrowingFunction<ResultSet, Boolean, SQLException> move, String url) throws Exception {
-        String parentUrl = parentUrl(url);
+    private List<RowData> move(ResultSet rs, ThrowingFunction<ResultSet, Boolean, SQLException> move, String url, Long roundTrip) throws Exception {
+        return readBatch(rs, move, parentUrl(url), roundTrip);
+    }
 
-        int fetchSize;
-        if(rs.getConcurrency() == ResultSet.CONCUR_UPDATABLE) {
-            fetchSize = 1;
-        } else {
-            fetchSize = MAX_FETCH_SIZE;
-            Statement statement = rs.getStatement();
-            if (statement != null) {
-                int statementFetchSize = statement.getFetchSize();
-                if (statementFetchSize > 0 && statementFetchSize < fetchSize) {
-                    fetchSize = statementFetchSize;
+    private int[] columnTypes(ResultSet rs) throws SQLException {
+        int[] cached = columnTypes.get(rs);
+        if (cached != null) {
+            return cached;
+        }
+        ResultSetMetaData md = rs.getMetaData();
+        int[] types = new int[md.getColumnCount()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = md.getColumnType(i + 1);
+        }
+        columnTypes.put(rs, types);
+        return types;
+    }
+
+    // Applying scrolling move repeatedly does not produce subsequent rows, so such moves return the target row only.
+    // This also keeps the cursor on the row the client is positioned on.
+    private List<RowData> moveOnce(ResultSet rs, ThrowingFunction<ResultSet, Boolean, SQLException> move, String url) throws Exception {
+        return readRows(rs, move, parentUrl(url), 1);
+    }
+
+    // Inlines metadata and the first batch of rows of forward-only read-only result set into its proxy, so the client does not need
+    // separate round trips for them. If the batch contains the whole result the cursor is closed right away.
+    ResultSetProxy withFirstRows(ResultSetProxy proxy, ResultSet rs) throws Exception {
+        if (rs.getType() != ResultSet.TYPE_FORWARD_ONLY || rs.getConcurrency() != ResultSet.CONCUR_READ_ONLY) {
+            return proxy;
+        }
+        String rsUrl = proxy.getEntityUrl();
+        TransportableResultSetMetaData md = (TransportableResultSetMetaData)entityToProxy(rs.getMetaData(), (url, m) -> new TransportableResultSetMetaData(url, m), "metadata", format("%s/metadata", rsUrl));
+        List<RowData> rows = readBatch(rs, ResultSet::next, rsUrl, null);
+        boolean exhausted = !rows.get(rows.size() - 1).isMoved() &&
+                rows.stream().map(RowData::getRow).filter(Objects::nonNull).flatMap(Arrays::stream).noneMatch(v -> v instanceof EntityProxy);
+        if (exhausted) {
+            rs.close();
+        }
+        return proxy.withRows(md, rows.toArray(new RowData[0]), exhausted);
+    }
+
+    // Writes all remaining rows of forward-only result set as new line delimited JSON. The response is sent in chunks while it is
+    // being written, so the memory does not depend on the size of the result, and a slow client slows down reading of the cursor.
+    private void stream(ResultSet rs, String rsUrl, OutputStream out) throws Exception {
+        boolean entities = false;
+        try (SequenceWriter writer = rowWriter.writeValues(out)) {
+            try {
+                while (rs.next()) {
+                    Object[] row = readRow(rs, rsUrl);
+                    entities |= Arrays.stream(row).anyMatch(v -> v instanceof EntityProxy);
+                    writer.write(new RowData(true, row));
                 }
+                // the cursor is closed before the client gets the end of the result, so the client can rely on it
+                if (!entities) {
+                    rs.close();
+                }
+                writer.write(new RowData(false, null));
+            } catch (JsonProcessingException | SQLException | RuntimeException e) {
+                // the response has already been committed, so the error is sent as the last row; the client fails
+                // on it instead of taking the result for complete
+                writer.write(new RowData(false, null, new TransportableException(e)));
             }
+        } catch (IOException e) {
+            // the client has closed the result set before reading all rows
+            rs.close();
+            return;
         }
-        List<RowData> rows = new LinkedList<>();
-        for (int i = 0; i < fetchSize && move.apply(rs); i++) {
-            rows.add(rowData(rs, true, readRow(rs, parentUrl)));
+        out.flush();
+    }
+
+    private List<RowData> readBatch(ResultSet rs, ThrowingFunction<ResultSet, Boolean, SQLException> move, String rsUrl, Long roundTrip) throws Exception {
+        if(rs.getConcurrency() == ResultSet.CONCUR_UPDATABLE) {
+            return readRows(rs, move, rsUrl, 1);
         }
-        return rows.isEmpty() && fetchSize > 0 ? List.of(rowData(rs, false, null)) : rows;
+        BatchSizer sizer = batchSizers.computeIfAbsent(rs, r -> new BatchSizer(MAX_FETCH_SIZE));
+        int fetchSize = sizer.next(maxFetchSize(rs), roundTrip);
+        long start = System.nanoTime();
+        long reserved = ResponseMemory.INSTANCE.reserved();
+        List<RowData> rows = readRows(rs, move, rsUrl, fetchSize);
+        long nanos = System.nanoTime() - start;
+        sizer.update((int)rows.stream().filter(RowData::isMoved).count(), ResponseMemory.INSTANCE.reserved() - reserved, nanos);
+        return rows;
     }
 
-    private RowData rowData(ResultSet rs, boolean moved, Object[] row) throws SQLException {
-        return new RowData(moved, getPositionSafely(rs, ResultSet::isFirst), getPositionSafely(rs, ResultSet::isLast), row);
+    private int maxFetchSize(ResultSet rs) throws SQLException {
+        Statement statement = rs.getStatement();
+        int statementFetchSize = statement == null ? 0 : statement.getFetchSize();
+        return statementFetchSize > 0 ? statementFetchSize : BatchSizer.MAX_SIZE;
     }
 
-    private Boolean getPositionSafely(ResultSet rs, ThrowingFunction<ResultSet, Boolean, SQLException> getter) {
-        try {
-            return getter.apply(rs);
-        } catch (SQLException e) {
-            // some DBs do not support isFirst and isLast.
-            // For example derby throws java.sql.SQLException: The 'isFirst' method is only allowed on scroll cursors.
-            return null;
+    // Reads rows until the batch is full or the cursor has reached the end. In the latter case the batch ends with a row that is
+    // not moved, so the client derives position of each row itself instead of asking the server about every row.
+    // The batch also ends earlier if the response memory does not admit one more row of the size of the previous one.
+    private List<RowData> readRows(ResultSet rs, ThrowingFunction<ResultSet, Boolean, SQLException> move, String rsUrl, int fetchSize) throws Exception {
+        List<RowData> rows = new ArrayList<>();
+        long rowBytes = 0;
+        while (rows.size() < fetchSize && ResponseMemory.INSTANCE.admit(rowBytes)) {
+            if (!move.apply(rs)) {
+                rows.add(new RowData(false, null));
+                break;
+            }
+            Object[] row = readRow(rs, rsUrl);
+            rowBytes = BatchSizer.estimateSize(row);
+            ResponseMemory.INSTANCE.reserve(rowBytes);
+            rows.add(new RowData(true, row));
         }
+        return rows;
     }
 }
@@ -0,0 +1,249 @@
+package com.nosqldriver.jdbc.http;
+
+import spark.CustomErrorPages;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+import spark.Spark;
+import spark.route.HttpMethod;
+import spark.routematch.RouteMatch;
+import spark.utils.MimeParse;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.lang.String.format;
+
+/**
+ * Dispatches requests to the routes of the controllers. Spark matches a request against its routes one by one, and
+ * the controllers register thousands of them, so the routes are kept in a trie of path segments, and Spark gets a single
+ * route per HTTP method that looks the request up in the trie. The URL contract is the one of Spark: static segments
+ * are compared exactly, parameters and {@code *} match any single segment, a trailing slash has to match, a route
+ * registered with an accept type matches only the requests that accept it, and if several routes match the first
+ * registered one wins.
+ * With the routes of the controllers {@code RouteDispatcherBenchmark} measured about 0.7 ms for Spark and 1 µs for
+ * the trie to find the route of a GET request (1102 routes), and 0.2 ms against 0.5 µs for a POST request (362 routes).
+ * The request gets the match of the found route through a private method of Spark. The server does not start if the
+ * method is not available, unless system property {@code jdbc.routes} is {@code spark}: then the routes are registered
+ * in Spark itself.
+ */
+class RouteDispatcher {
+    private static final Map<HttpMethod, RouteDispatcher> dispatchers = new ConcurrentHashMap<>();
+    private static final String ROUTES_PROP = "jdbc.routes";
+    private static final boolean sparkRoutes = "spark".equals(System.getProperty(ROUTES_PROP, "trie"));
+    private static final Method changeMatch = sparkRoutes ? null : changeMatchMethod();
+
+    private final Node root = new Node();
+    private int count = 0;
+
+    static class Entry {
+        private final String path;
+        private final String acceptType;
+        private final Route route;
+        private final int order;
+
+        private Entry(String path, String acceptType, Route route, int order) {
+            this.path = path;
+            this.acceptType = acceptType;
+            this.route = route;
+            this.order = order;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        String getAcceptType() {
+            return acceptType;
+        }
+    }
+
+    private interface SparkRoute {
+        void add(String path, String acceptType, Route route);
+    }
+
+    // Routes of the same path differ by their accept types.
+    private static class Node {
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+        private volatile Node wildcard;
+        private final List<Entry> entries = new CopyOnWriteArrayList<>();
+        private final List<Entry> slashEntries = new CopyOnWriteArrayList<>();
+    }
+
+    static void get(String path, String acceptType, Route route) {
+        add(HttpMethod.get, Spark::get, path, acceptType, route);
+    }
+
+    static void get(String path, Route route) {
+        get(path, null, route);
+    }
+
+    static void post(String path, String acceptType, Route route) {
+        add(HttpMethod.post, Spark::post, path, acceptType, route);
+    }
+
+    static void post(String path, Route route) {
+        post(path, null, route);
+    }
+
+    static void put(String path, String acceptType, Route route) {
+        add(HttpMethod.put, Spark::put, path, acceptType, route);
+    }
+
+    static void put(String path, Route route) {
+        put(path, null, route);
+    }
+
+    static void delete(String path, String acceptType, Route route) {
+        add(HttpMethod.delete, Spark::delete, path, acceptType, route);
+    }
+
+    static void delete(String path, Route route) {
+        delete(path, null, route);
+    }
+
+    // Spark forgets its routes when it is stopped, so the routes are registered again from scratch when the server is set up.
+    static void reset() {
+        dispatchers.clear();
+    }
+
+    static RouteDispatcher dispatcher(HttpMethod method) {
+        return dispatchers.get(method);
+    }
+
+    private static void add(HttpMethod method, SparkRoute sparkRoute, String path, String acceptType, Route route) {
+        if (sparkRoutes) {
+            sparkRoute.add(path, acceptType, route);
+        } else {
+            dispatcher(method, sparkRoute).add(path, acceptType, route);
+        }
+    }
+
+    private static RouteDispatcher dispatcher(HttpMethod method, SparkRoute sparkRoute) {
+        return dispatchers.computeIfAbsent(method, m -> {
+            RouteDispatcher dispatcher = new RouteDispatcher();
+            sparkRoute.add("*", null, dispatcher::handle);
+            return dispatcher;
+        });
+    }
+
+    synchronized void add(String path, String acceptType, Route route) {
+        List<String> segments = segments(path);
+        if (!segments.isEmpty() && "*".equals(segments.get(segments.size() - 1))) {
+            throw new IllegalArgumentException(format("Trailing wildcard of route %s is not supported", path));
+        }
+        Node node = root;
+        for (String segment : segments) {
+            if (segment.startsWith(":") || "*".equals(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        List<Entry> entries = hasTrailingSlash(path) ? node.slashEntries : node.entries;
+        if (entries.stream().noneMatch(e -> Objects.equals(e.acceptType, acceptType))) {
+            entries.add(new Entry(path, acceptType, route, count++));
+        }
+    }
+
+    Entry find(String uri) {
+        return find(uri, null);
+    }
+
+    // The accept type is the Accept header of the request; null accepts everything.
+    Entry find(String uri, String acceptType) {
+        return find(root, segments(uri), 0, hasTrailingSlash(uri), acceptType);
+    }
+
+    List<String> paths() {
+        List<String> paths = new ArrayList<>();
+        collect(root, paths);
+        return paths;
+    }
+
+    private Object handle(Request req, Response res) throws Exception {
+        String uri = req.uri();
+        Entry entry = find(uri, req.headers("Accept"));
+        if (entry == null) {
+            res.status(404);
+            return CustomErrorPages.getFor(404, req, res);
+        }
+        changeMatch.invoke(req, new RouteMatch(entry.route, entry.path, uri, entry.acceptType));
+        return entry.route.handle(req, res);
+    }
+
+    private static Entry find(Node node, List<String> segments, int i, boolean slash, String acceptType) {
+        if (i == segments.size()) {
+            for (Entry entry : slash ? node.slashEntries : node.entries) {
+                if (accepts(entry, acceptType)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+        Node child = node.children.get(segments.get(i));
+        Entry found = child == null ? null : find(child, segments, i + 1, slash, acceptType);
+        Node wildcard = node.wildcard;
+        if (wildcard != null) {
+            Entry other = find(wildcard, segments, i + 1, slash, acceptType);
+            if (other != null && (found == null || other.order < found.order)) {
+                found = other;
+            }
+        }
+        return found;
+    }
+
+    // Accept types are compared the way Spark does it.
+    private static boolean accepts(Entry entry, String acceptType) {
+        return entry.acceptType == null || acceptType == null || "*/*".equals(acceptType)
+                || !MimeParse.NO_MIME_TYPE.equals(MimeParse.bestMatch(List.of(entry.acceptType), acceptType));
+    }
+
+    private static void collect(Node node, List<String> paths) {
+        node.entries.forEach(entry -> paths.add(entry.path));
+        node.slashEntries.forEach(entry -> paths.add(entry.path));
+        node.children.values().forEach(child -> collect(child, paths));
+        if (node.wildcard != null) {
+            collect(node.wildcard, paths);
+        }
+    }
+
+    // Empty segments are ignored like Spark does.
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int n = path.length();
+        for (int i = 0; i <= n; i++) {
+            if (i == n || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    private static boolean hasTrailingSlash(String path) {
+        return path.length() > 1 && path.endsWith("/");
+    }
+
+    // Spark extracts the path parameters when the request is matched to a route, so the request gets the match of the route found in the trie.
+    private static Method changeMatchMethod() {
+        try {
+            Method method = Request.class.getDeclaredMethod("changeMatch", RouteMatch.class);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            throw new IllegalStateException(format("Request of this version of Spark cannot be matched to a route; set system property %s=spark to let Spark match the routes", ROUTES_PROP), e);
+        }
+    }
+}
@@ -8,26 +8,25 @@ import com.nosqldriver.jdbc.http.model.WriterProxy;
 import spark.Request;
 
 import java.sql.SQLXML;
-import java.util.Map;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.delete;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.get;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
 import static java.lang.String.format;
-import static spark.Spark.delete;
-import static spark.Spark.get;
-import static spark.Spark.post;
 
 public class SQLXMLController extends BaseController {
-    protected SQLXMLController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl) {
+    protected SQLXMLController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl) {
         super(attributes, objectMapper);
 
         delete(baseUrl, JSON, (req, res) -> accept(() -> getSQLXML(attributes, req), SQLXML::free));
-        get(format("%s/binary/stream", baseUrl), JSON, (req, res) -> retrieve(() -> getSQLXML(attributes, req), SQLXML::getBinaryStream, InputStreamProxy::new, "stream", req.url()));
-        post(format("%s/binary/stream", baseUrl), JSON, (req, res) -> retrieve(() -> getSQLXML(attributes, req), SQLXML::setBinaryStream, OutputStreamProxy::new, "stream", req.url()));
-        get(format("%s/character/stream", baseUrl), JSON, (req, res) -> retrieve(() -> getSQLXML(attributes, req), SQLXML::getCharacterStream, ReaderProxy::new, "stream", req.url()));
-        post(format("%s/character/stream", baseUrl), JSON, (req, res) -> retrieve(() -> getSQLXML(attributes, req), SQLXML::setCharacterStream, WriterProxy::new, "stream", req.url()));
-        get(format("%s/string", baseUrl), JSON, (req, res) -> retrieve(() -> getSQLXML(attributes, req), SQLXML::getString));
-        post(format("%s/string", baseUrl), JSON, (req, res) -> accept(() -> getSQLXML(attributes, req), sqlxml -> sqlxml.setString(objectMapper.readValue(req.body(), String.class))));
-        get(format("%s/source/:class", baseUrl), JSON, (req, res) -> retrieve(() -> getSQLXML(attributes, req), sqlxml -> sqlxml.getSource((Class)Class.forName(stringParam(req, ":class")))));
-        post(format("%s/source", baseUrl), JSON, (req, res) -> accept(() -> getSQLXML(attributes, req), sqlxml -> sqlxml.getSource((Class)Class.forName(objectMapper.readValue(req.body(), String.class)))));
+        get(format("%s/binary/stream", baseUrl), JSON, (req, res) -> retrieve(res, () -> getSQLXML(attributes, req), SQLXML::getBinaryStream, InputStreamProxy::new, "stream", req.url()));
+        post(format("%s/binary/stream", baseUrl), JSON, (req, res) -> retrieve(res, () -> getSQLXML(attributes, req), SQLXML::setBinaryStream, OutputStreamProxy::new, "stream", req.url()));
+        get(format("%s/character/stream", baseUrl), JSON, (req, res) -> retrieve(res, () -> getSQLXML(attributes, req), SQLXML::getCharacterStream, ReaderProxy::new, "stream", req.url()));
+        post(format("%s/character/stream", baseUrl), JSON, (req, res) -> retrieve(res, () -> getSQLXML(attributes, req), SQLXML::setCharacterStream, WriterProxy::new, "stream", req.url()));
+        get(format("%s/string", baseUrl), JSON, (req, res) -> retrieve(res, () -> getSQLXML(attributes, req), SQLXML::getString));
+        post(format("%s/string", baseUrl), JSON, (req, res) -> accept(() -> getSQLXML(attributes, req), sqlxml -> sqlxml.setString(readBody(req, String.class))));
+        get(format("%s/source/:class", baseUrl), JSON, (req, res) -> retrieve(res, () -> getSQLXML(attributes, req), sqlxml -> sqlxml.getSource((Class)Class.forName(stringParam(req, ":class")))));
+        post(format("%s/source", baseUrl), JSON, (req, res) -> accept(() -> getSQLXML(attributes, req), sqlxml -> sqlxml.getSource((Class)Class.forName(readBody(req, String.class)))));
 
         String readWriterFormat = "/connection/:connection/sqlxml/:sqlxml/%s/stream/:stream";
         String characterStreamPath = format(readWriterFormat, "character");
@@ -38,7 +37,7 @@ public class SQLXMLController extends BaseController {
         new InputStreamController(attributes, objectMapper, binaryStreamPath);
     }
 
-    private SQLXML getSQLXML(Map<String, Object> attributes, Request req) {
+    private SQLXML getSQLXML(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "sqlxml", ":sqlxml");
     }
 }
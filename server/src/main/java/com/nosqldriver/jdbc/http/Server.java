@@ -4,17 +4,19 @@ import com.nosqldriver.jdbc.http.json.ObjectMapperFactory;
 import com.nosqldriver.jdbc.http.permissions.StatementPermissionsValidatorsConfigurer;
 import com.nosqldriver.util.function.ThrowingBiFunction;
 import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.URL;
 import java.sql.SQLException;
-import java.util.HashMap;
 
 public class Server {
     public static void main(String[] args) throws IOException {
         String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080/";
         int port = new URL(baseUrl).getPort();
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, new EmbeddedJettyFactory(new H2cJettyServerFactory()));
         Spark.staticFiles.location("/");
         if (port > 0) {
             spark.Spark.port(new URL(baseUrl).getPort());
@@ -22,7 +24,7 @@ public class Server {
 
         StatementPermissionsValidatorsConfigurer configurer = new StatementPermissionsValidatorsConfigurer();
         ThrowingBiFunction<String, String, String, SQLException> validator = configurer.config();
-        Closeable driverController = new DriverController(new HashMap<>(), ObjectMapperFactory.createObjectMapper(), validator, configurer);
+        Closeable driverController = new DriverController(new EntityRegistry(), ObjectMapperFactory.createObjectMapper(), validator, configurer);
         Spark.awaitInitialization();
         System.out.println("ready");
 
@@ -0,0 +1,305 @@
+package com.nosqldriver.jdbc.http;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Prepared statements of a physical connection that are kept open when the client closes them, so preparing the same
+ * statement again does not make the database parse and plan it again. A statement is found by its SQL and all other
+ * arguments it was prepared with. When a statement is returned to the cache its parameters, batch, warnings and
+ * result set are cleared and the limits and options set by the client are restored, and the least recently used
+ * statement is closed if the cache is full. Statements that are not poolable or close on completion are not cached.
+ * Changing the catalog or schema of the connection closes the cached statements, because the same SQL may refer to
+ * other tables then.
+ * The size of the cache of each connection is configured by {@code <alias>.statement.cache} in {@code jdbc.properties}
+ * or by system property {@code jdbc.statement.cache}; 0 disables caching.
+ * The caches of the connections of the same pool count their hits, misses and evictions together.
+ */
+class StatementCache implements InvocationHandler {
+    private final Connection connection;
+    private final int size;
+    private final Counters counters;
+    private final Map<List<Object>, Entry> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private Connection proxy;
+    private boolean closed = false;
+    // incremented when the cached statements are dropped, so statements prepared before are not cached when they are closed
+    private int generation = 0;
+
+    static class Counters {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+        private final AtomicLong cached = new AtomicLong();
+
+        Map<String, Object> toMap() {
+            long hitCount = hits.get();
+            long missCount = misses.get();
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("hits", hitCount);
+            counters.put("misses", missCount);
+            counters.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double)hitCount / (hitCount + missCount));
+            counters.put("evictions", evictions.get());
+            counters.put("cached", cached.get());
+            return counters;
+        }
+    }
+
+    // The statement and the settings it had when it was prepared.
+    private static class Entry {
+        private final PreparedStatement statement;
+        private final int maxRows;
+        private final int fetchSize;
+        private final int fetchDirection;
+        private final int queryTimeout;
+        private final int maxFieldSize;
+        // there is no getter, so the value set by the client is recorded; escape processing is enabled by default
+        private volatile boolean escapeProcessing = true;
+
+        private Entry(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            maxRows = statement.getMaxRows();
+            fetchSize = statement.getFetchSize();
+            fetchDirection = statement.getFetchDirection();
+            queryTimeout = statement.getQueryTimeout();
+            maxFieldSize = statement.getMaxFieldSize();
+        }
+
+        private boolean reset() throws SQLException {
+            if (statement.isClosed() || !statement.isPoolable() || statement.isCloseOnCompletion()) {
+                return false;
+            }
+            ResultSet rs = statement.getResultSet();
+            if (rs != null) {
+                rs.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            if (statement.getMaxRows() != maxRows) {
+                statement.setMaxRows(maxRows);
+            }
+            if (statement.getFetchSize() != fetchSize) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (statement.getFetchDirection() != fetchDirection) {
+                statement.setFetchDirection(fetchDirection);
+            }
+            if (statement.getQueryTimeout() != queryTimeout) {
+                statement.setQueryTimeout(queryTimeout);
+            }
+            if (statement.getMaxFieldSize() != maxFieldSize) {
+                statement.setMaxFieldSize(maxFieldSize);
+            }
+            if (!escapeProcessing) {
+                statement.setEscapeProcessing(true);
+                escapeProcessing = true;
+            }
+            return true;
+        }
+    }
+
+    private StatementCache(Connection connection, int size, Counters counters) {
+        this.connection = connection;
+        this.size = size;
+        this.counters = counters;
+    }
+
+    static Connection wrap(Connection connection, int size, Counters counters) {
+        if (size <= 0) {
+            return connection;
+        }
+        StatementCache cache = new StatementCache(connection, size, counters);
+        cache.proxy = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, cache);
+        return cache.proxy;
+    }
+
+    static int size(Properties jdbcProps, String alias) {
+        String value = alias == null ? null : jdbcProps.getProperty(format("%s.statement.cache", alias));
+        return Integer.parseInt(value != null ? value : System.getProperty("jdbc.statement.cache", "0"));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "prepareStatement":
+            case "prepareCall":
+                return prepare((Connection)proxy, method, args);
+            case "setCatalog":
+            case "setSchema":
+                call(connection, method, args);
+                flush();
+                return null;
+            case "close":
+                closeAll();
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        return call(connection, method, args);
+    }
+
+    private PreparedStatement prepare(Connection owner, Method method, Object[] args) throws Throwable {
+        List<Object> key = key(method, args);
+        Entry entry;
+        int currentGeneration;
+        synchronized (this) {
+            entry = idle.remove(key);
+            currentGeneration = generation;
+        }
+        if (entry != null) {
+            counters.hits.incrementAndGet();
+            counters.cached.decrementAndGet();
+        } else {
+            counters.misses.incrementAndGet();
+            PreparedStatement statement = (PreparedStatement)call(connection, method, args);
+            try {
+                entry = new Entry(statement);
+            } catch (SQLException e) {
+                statement.close();
+                throw e;
+            }
+        }
+        return (PreparedStatement)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {method.getReturnType()}, new CachedStatement(owner, key, entry, currentGeneration));
+    }
+
+    // Arrays of column names and indexes are compared by their elements.
+    private static List<Object> key(Method method, Object[] args) {
+        List<Object> key = new ArrayList<>();
+        key.add(method.getName());
+        for (Object arg : args) {
+            if (arg instanceof int[]) {
+                key.add(Arrays.stream((int[])arg).boxed().collect(Collectors.toList()));
+            } else if (arg instanceof Object[]) {
+                key.add(Arrays.asList((Object[])arg));
+            } else {
+                key.add(arg);
+            }
+        }
+        return key;
+    }
+
+    private void release(List<Object> key, Entry entry, int entryGeneration) {
+        boolean reusable;
+        try {
+            reusable = entry.reset();
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        List<Entry> obsolete = new ArrayList<>();
+        synchronized (this) {
+            if (!reusable || closed || entryGeneration != generation || idle.containsKey(key)) {
+                obsolete.add(entry);
+            } else {
+                idle.put(key, entry);
+                counters.cached.incrementAndGet();
+                for (Iterator<Entry> it = idle.values().iterator(); idle.size() > size && it.hasNext();) {
+                    obsolete.add(it.next());
+                    it.remove();
+                    counters.cached.decrementAndGet();
+                    counters.evictions.incrementAndGet();
+                }
+            }
+        }
+        obsolete.forEach(e -> ConnectionPool.closeQuietly(e.statement));
+    }
+
+    private void closeAll() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    private void flush() {
+        List<Entry> entries;
+        synchronized (this) {
+            generation++;
+            entries = new ArrayList<>(idle.values());
+            idle.clear();
+        }
+        counters.cached.addAndGet(-entries.size());
+        entries.forEach(e -> ConnectionPool.closeQuietly(e.statement));
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // The statement given to the client; closing it returns the statement to the cache.
+    private class CachedStatement implements InvocationHandler {
+        private final Connection owner;
+        private final List<Object> key;
+        private final Entry entry;
+        private final int generation;
+        private volatile boolean closed = false;
+
+        private CachedStatement(Connection owner, List<Object> key, Entry entry, int generation) {
+            this.owner = owner;
+            this.key = key;
+            this.entry = entry;
+            this.generation = generation;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    if (closed) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return owner;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result = call(entry.statement, method, args);
+            if ("setEscapeProcessing".equals(method.getName())) {
+                entry.escapeProcessing = (Boolean)args[0];
+            }
+            return result;
+        }
+
+        private synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(key, entry, generation);
+            }
+        }
+    }
+}
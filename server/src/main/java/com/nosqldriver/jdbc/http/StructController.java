@@ -7,16 +7,16 @@ import java.sql.Clob;
 import java.sql.Struct;
 import java.util.Map;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
 import static java.lang.String.format;
-import static spark.Spark.post;
 
 public class StructController extends BaseController {
-    protected StructController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl) {
+    protected StructController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl) {
         super(attributes, objectMapper);
-        post(format("%s/attributes", baseUrl), JSON, (req, res) -> retrieve(() -> getStruct(attributes, req), b -> b.getAttributes(objectMapper.readValue(req.body(), Map.class))));
+        post(format("%s/attributes", baseUrl), JSON, (req, res) -> retrieve(res, () -> getStruct(attributes, req), b -> b.getAttributes(readBody(req, Map.class))));
     }
 
-    private Struct getStruct(Map<String, Object> attributes, Request req) {
+    private Struct getStruct(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "struct", ":struct");
     }
 }
@@ -3,21 +3,23 @@ package com.nosqldriver.jdbc.http;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import spark.Request;
 
+import java.io.InputStreamReader;
 import java.io.Writer;
-import java.util.Map;
 
+import static com.nosqldriver.jdbc.http.RouteDispatcher.post;
+import static com.nosqldriver.jdbc.http.RouteDispatcher.put;
 import static java.lang.String.format;
-import static spark.Spark.post;
-import static spark.Spark.put;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class WriterController extends BaseController {
-    protected WriterController(Map<String, Object> attributes, ObjectMapper objectMapper, String baseUrl) {
+    protected WriterController(EntityRegistry attributes, ObjectMapper objectMapper, String baseUrl) {
         super(attributes, objectMapper);
-        put(format("%s/:off/:len", baseUrl), JSON, (req, res) -> accept(() -> getWriter(attributes, req), writer -> writer.write(objectMapper.readValue(req.bodyAsBytes(), char[].class), intParam(req, ":off"), intParam(req, ":len"))));
+        put(format("%s/:off/:len", baseUrl), JSON, (req, res) -> accept(() -> getWriter(attributes, req), writer -> writer.write(readBody(req, char[].class), intParam(req, ":off"), intParam(req, ":len"))));
+        put(baseUrl + "/chars", (req, res) -> accept(() -> getWriter(attributes, req), writer -> new InputStreamReader(req.raw().getInputStream(), UTF_8).transferTo(writer)));
         post(baseUrl + "/flush", JSON, (req, res) -> accept(() -> getWriter(attributes, req), Writer::flush));
     }
 
-    private Writer getWriter(Map<String, Object> attributes, Request req) {
+    private Writer getWriter(EntityRegistry attributes, Request req) {
         return getEntity(attributes, req, "stream", ":stream");
     }
 }
@@ -435,9 +435,11 @@ function ResultSet(proxy, statement) {
         throw "Cannot create result set";
     }
     this.valueWasNull = false;
-    this.rows = null;
-    this.localRowIndex = 0;
-    this.metadata = null;
+    // metadata and first rows may be sent together with the result set itself
+    this.rows = proxy.rows ? proxy.rows : null;
+    this.exhausted = proxy.exhausted === true;
+    this.localRowIndex = -1;
+    this.metadata = proxy.metadata ? new ResultSetMetadata(proxy.metadata) : null;
     this.closed = false;
 
     this.getStatement = function() {
@@ -447,8 +449,11 @@ function ResultSet(proxy, statement) {
     this.next = function(callback) {
           if (callback) {
               var index = this.localRowIndex + 1;
-              if (rows != null && index >= 0 && index < rows.length) {
-                    localRowIndex = index;
+              if (this.rows != null && index >= 0 && index < this.rows.length) {
+                    this.localRowIndex = index;
+                    callback(this);
+              } else if (this.exhausted) {
+                    this.localRowIndex = this.rows.length - 1;
                     callback(this);
               } else {
                   var rs = this;
@@ -465,6 +470,10 @@ function ResultSet(proxy, statement) {
                     this.localRowIndex = index;
                     return this.rows[this.localRowIndex].moved;
               }
+              if (this.exhausted) {
+                    this.localRowIndex = this.rows.length - 1;
+                    return false;
+              }
               this.rows = get(this.entityUrl + "/nextrow");
               this.wasNull = false;
               this.localRowIndex = 0;
@@ -0,0 +1,74 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSizerTest {
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    @Test
+    void growsWhileSmallRowsAreFast() {
+        BatchSizer sizer = new BatchSizer(10);
+        assertEquals(10, sizer.next(UNBOUNDED, null));
+        sizer.update(10, 10 * 20, 0);
+        assertEquals(20, sizer.next(UNBOUNDED, 1L));
+        sizer.update(20, 20 * 20, 0);
+        assertEquals(40, sizer.next(UNBOUNDED, 1L));
+    }
+
+    @Test
+    void growsAtMostTwice() {
+        BatchSizer sizer = new BatchSizer(1);
+        int previous = sizer.next(UNBOUNDED, null);
+        for (int i = 0; i < 20; i++) {
+            sizer.update(previous, previous, 0);
+            int size = sizer.next(UNBOUNDED, null);
+            assertTrue(size > previous && size <= previous * 2, previous + " -> " + size);
+            previous = size;
+        }
+    }
+
+    @Test
+    void shrinksToByteTarget() {
+        BatchSizer sizer = new BatchSizer(100);
+        sizer.next(UNBOUNDED, null);
+        // a tenth of the byte budget per row
+        sizer.update(100, 100 * (BatchSizer.TARGET_BYTES / 10), 0);
+        assertEquals(10, sizer.next(UNBOUNDED, 1L));
+    }
+
+    @Test
+    void shrinksToLatencyTarget() {
+        BatchSizer sizer = new BatchSizer(100);
+        sizer.next(UNBOUNDED, null);
+        sizer.update(100, 100, 0);
+        // a quarter of the target latency per row, measured by the client
+        assertEquals(4, sizer.next(UNBOUNDED, 100 * BatchSizer.TARGET_LATENCY / 4));
+
+        // without the round trip time of the client the time spent by the server counts
+        sizer.update(4, 4, 4 * BatchSizer.TARGET_LATENCY / 2 * 1_000_000);
+        assertEquals(2, sizer.next(UNBOUNDED, null));
+    }
+
+    @Test
+    void keepsSizeAfterPartialBatch() {
+        BatchSizer sizer = new BatchSizer(100);
+        sizer.next(UNBOUNDED, null);
+        // the last rows of the result set tell nothing about the budget
+        sizer.update(3, 3 * BatchSizer.TARGET_BYTES, 0);
+        assertEquals(100, sizer.next(UNBOUNDED, null));
+    }
+
+    @Test
+    void doesNotExceedFetchSize() {
+        BatchSizer sizer = new BatchSizer(100);
+        int fetchSize = 7;
+        for (int i = 0; i < 10; i++) {
+            int size = sizer.next(fetchSize, null);
+            assertEquals(fetchSize, size);
+            sizer.update(size, size, 0);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnGetterTest {
+    private static final Object[][] columns = {
+            // type, signed, class, expected getter
+            {Types.VARCHAR, false, String.class, "getString"},
+            {Types.INTEGER, true, Integer.class, "getInt"},
+            {Types.INTEGER, false, Long.class, "getObject"},
+            {Types.TINYINT, true, Integer.class, "getByte"},
+            {Types.TINYINT, false, Integer.class, "getObject"},
+            {Types.BIGINT, false, BigInteger.class, "getObject"},
+            {Types.BIT, false, Boolean.class, "getBoolean"},
+            {Types.BIT, false, byte[].class, "getObject"},
+            {Types.TIMESTAMP, false, Timestamp.class, "getTimestamp"},
+            {Types.OTHER, false, Object.class, "getObject"},
+    };
+
+    @Test
+    void getterIsChosenByMetadata() throws SQLException {
+        ResultSetMetaData md = (ResultSetMetaData)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+            Object[] column = columns[(int)args[0] - 1];
+            switch (method.getName()) {
+                case "getColumnType": return column[0];
+                case "isSigned": return column[1];
+                case "getColumnClassName": return ((Class<?>)column[2]).getName();
+                default: throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        List<String> calls = new ArrayList<>();
+        ResultSet rs = (ResultSet)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+            calls.add(method.getName());
+            return defaultValue(method.getReturnType());
+        });
+
+        for (int i = 1; i <= columns.length; i++) {
+            calls.clear();
+            ResultSetController.getter(md, i).apply(rs, i);
+            assertEquals(List.of(columns[i - 1][3]), calls, "column " + i);
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (boolean.class.equals(type)) {
+            return false;
+        }
+        if (byte.class.equals(type)) {
+            return (byte)0;
+        }
+        if (short.class.equals(type)) {
+            return (short)0;
+        }
+        if (int.class.equals(type)) {
+            return 0;
+        }
+        if (long.class.equals(type)) {
+            return 0L;
+        }
+        return null;
+    }
+}
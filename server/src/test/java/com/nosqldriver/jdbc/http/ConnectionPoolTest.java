@@ -0,0 +1,272 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+    private final List<Map<String, Object>> connections = new ArrayList<>();
+
+    private interface VendorConnection extends Connection {
+    }
+
+    @Test
+    void reuseConnection() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 2, 5, 0);
+        Connection c1 = pool.getConnection();
+        c1.close();
+        assertTrue(c1.isClosed());
+        assertThrows(SQLException.class, c1::getAutoCommit);
+        Connection c2 = pool.getConnection();
+        assertFalse(c2.isClosed());
+        assertEquals(1, connections.size());
+        c2.close();
+        assertEquals(1L, pool.getCounters().get("created"));
+        assertEquals(2L, pool.getCounters().get("borrowed"));
+        assertEquals(1L, pool.getCounters().get("idle"));
+    }
+
+    @Test
+    void resetStateOnReturn() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 1, 5, 0);
+        Connection c1 = pool.getConnection();
+        c1.setAutoCommit(false);
+        c1.setReadOnly(true);
+        c1.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        c1.setSchema("other");
+        c1.createStatement();
+        c1.close();
+        Map<String, Object> state = connections.get(0);
+        assertEquals(true, state.get("rolledBack"));
+        assertEquals(true, state.get("closedStatement"));
+        Connection c2 = pool.getConnection();
+        assertTrue(c2.getAutoCommit());
+        assertFalse(c2.isReadOnly());
+        assertEquals(Connection.TRANSACTION_READ_COMMITTED, c2.getTransactionIsolation());
+        assertEquals("public", c2.getSchema());
+        c2.close();
+    }
+
+    @Test
+    void replaceInvalidConnection() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 1, 5, 0);
+        pool.getConnection().close();
+        connections.get(0).put("valid", false);
+        pool.getConnection().close();
+        assertEquals(2, connections.size());
+        assertEquals(true, connections.get(0).get("closed"));
+        assertEquals(1L, pool.getCounters().get("invalid"));
+        assertEquals(1L, pool.getCounters().get("size"));
+    }
+
+    @Test
+    void exhausted() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 1, 5, 10);
+        Connection c1 = pool.getConnection();
+        assertThrows(SQLException.class, pool::getConnection);
+        assertEquals(1L, pool.getCounters().get("timeouts"));
+        c1.close();
+        pool.getConnection().close();
+    }
+
+    @Test
+    void warmUp() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 3, 5, 5, 0);
+        pool.warmUp();
+        assertEquals(3, connections.size());
+        assertEquals(3L, pool.getCounters().get("idle"));
+        pool.close();
+        assertTrue(connections.stream().allMatch(c -> Boolean.TRUE.equals(c.get("closed"))));
+    }
+
+    @Test
+    void countFailures() {
+        ConnectionPool pool = new ConnectionPool("test", () -> {
+            throw new SQLException("Database is not available");
+        }, 2, 5, 5, 0);
+        assertThrows(SQLException.class, pool::warmUp);
+        assertThrows(SQLException.class, pool::getConnection);
+        assertEquals(2L, pool.getCounters().get("failures"));
+        assertEquals(0L, pool.getCounters().get("size"));
+    }
+
+    @Test
+    void multiplexBetweenStatements() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 1, 5, 0, true);
+        Connection c1 = pool.getConnection();
+        Connection c2 = pool.getConnection();
+        assertEquals(0, connections.size());
+        c1.setSchema("other");
+        Statement statement = c1.createStatement();
+        assertEquals("other", connections.get(0).get("schema"));
+        assertEquals(1L, pool.getCounters().get("active"));
+        assertThrows(SQLException.class, c2::createStatement);
+        assertSame(c1, statement.getConnection());
+        statement.close();
+        assertEquals(0L, pool.getCounters().get("active"));
+        assertEquals("public", connections.get(0).get("schema"));
+        assertEquals("other", c1.getSchema());
+        c2.createStatement().close();
+        assertEquals("public", c2.getSchema());
+        assertEquals(1, connections.size());
+        c1.close();
+        c2.close();
+    }
+
+    @Test
+    void multiplexBetweenTransactions() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 1, 5, 0, true);
+        Connection c1 = pool.getConnection();
+        Connection c2 = pool.getConnection();
+        c1.setAutoCommit(false);
+        c1.createStatement().close();
+        assertEquals(false, connections.get(0).get("autoCommit"));
+        assertThrows(SQLException.class, c2::createStatement);
+        c1.commit();
+        assertEquals(true, connections.get(0).get("autoCommit"));
+        c2.createStatement().close();
+        c1.close();
+        c2.close();
+        assertEquals(0L, pool.getCounters().get("active"));
+    }
+
+    @Test
+    void multiplexMetaData() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 1, 5, 0, true);
+        Connection c1 = pool.getConnection();
+        Connection c2 = pool.getConnection();
+        DatabaseMetaData md = c1.getMetaData();
+        assertSame(c1, md.getConnection());
+        assertEquals("test", md.getDatabaseProductName());
+        assertEquals(0L, pool.getCounters().get("active"));
+        c2.createStatement().close();
+
+        // the result set of the metadata keeps the physical connection like a statement
+        ResultSet tables = md.getTables(null, null, "%", null);
+        assertEquals(1L, pool.getCounters().get("active"));
+        assertThrows(SQLException.class, c2::createStatement);
+        tables.close();
+        assertEquals(0L, pool.getCounters().get("active"));
+        c2.createStatement().close();
+
+        c1.getClientInfo().setProperty("name", "c1");
+        assertFalse(((Properties)connections.get(0).get("clientInfo")).containsKey("name"));
+        assertEquals(0L, pool.getCounters().get("active"));
+        c1.close();
+        c2.close();
+    }
+
+    @Test
+    void physicalConnectionIsNotExposed() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 1, 5, 0);
+        Connection c = pool.getConnection();
+        assertSame(c, c.createStatement().getConnection());
+        assertSame(c, c.unwrap(Connection.class));
+        assertTrue(c.isWrapperFor(Connection.class));
+        assertThrows(SQLException.class, () -> c.unwrap(VendorConnection.class));
+        assertFalse(c.isWrapperFor(VendorConnection.class));
+        c.close();
+    }
+
+    @Test
+    void evictUnused() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("test", this::connect, 0, 1, 5, 0, true);
+        Connection c = pool.getConnection();
+        assertFalse(pool.evict());
+        c.close();
+        assertTrue(pool.evict());
+        assertTrue(pool.isEvicted());
+        assertThrows(SQLException.class, pool::getConnection);
+    }
+
+    @Test
+    void settings() {
+        Properties jdbcProps = new Properties();
+        jdbcProps.setProperty("db", "jdbc:db");
+        jdbcProps.setProperty("db.pool.max", "7");
+        assertEquals("7", ConnectionPool.setting(jdbcProps, "db", "max", "0"));
+        assertEquals("0", ConnectionPool.setting(jdbcProps, "other", "max", "0"));
+        assertEquals("0", ConnectionPool.setting(jdbcProps, null, "max", "0"));
+    }
+
+    // A connection that only keeps its session state.
+    private Connection connect() {
+        Map<String, Object> state = new HashMap<>(Map.of("autoCommit", true, "readOnly", false, "isolation", Connection.TRANSACTION_READ_COMMITTED, "schema", "public", "valid", true, "clientInfo", new Properties()));
+        connections.add(state);
+        return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getAutoCommit": return state.get("autoCommit");
+                case "setAutoCommit": return state.put("autoCommit", args[0]);
+                case "isReadOnly": return state.get("readOnly");
+                case "setReadOnly": return state.put("readOnly", args[0]);
+                case "getTransactionIsolation": return state.get("isolation");
+                case "setTransactionIsolation": return state.put("isolation", args[0]);
+                case "getSchema": return state.get("schema");
+                case "setSchema": return state.put("schema", args[0]);
+                case "rollback": return state.put("rolledBack", true);
+                case "isValid": return state.get("valid");
+                case "close": return state.put("closed", true);
+                case "isClosed": return state.containsKey("closed");
+                case "createStatement": return statement(state);
+                case "getMetaData": return metaData();
+                case "getClientInfo": return args == null ? state.get("clientInfo") : null;
+                default: return null;
+            }
+        });
+    }
+
+    private DatabaseMetaData metaData() {
+        return (DatabaseMetaData)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DatabaseMetaData.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getDatabaseProductName": return "test";
+                case "getTables": return resultSet();
+                default: return null;
+            }
+        });
+    }
+
+    private ResultSet resultSet() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        return (ResultSet)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close": closed.set(true); return null;
+                case "isClosed": return closed.get();
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default: return null;
+            }
+        });
+    }
+
+    private Statement statement(Map<String, Object> state) {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        return (Statement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Statement.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    closed.set(true);
+                    return state.put("closedStatement", true);
+                case "isClosed": return closed.get();
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default: return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityRegistryTest {
+    @Test
+    void removeWithDescendants() {
+        EntityRegistry registry = new EntityRegistry();
+        Object connection = new Object();
+        registry.put("connection@1", connection);
+        registry.put("statement@2", new Object(), "connection@1");
+        registry.put("resultset@3", new Object(), "statement@2");
+        registry.put("statement@4", new Object(), "connection@1");
+        registry.put("connection@5", new Object());
+        registry.put("statement@6", new Object(), "connection@5");
+        assertEquals(6, registry.size());
+
+        registry.remove("statement@4");
+        assertEquals(5, registry.size());
+        assertSame(connection, registry.remove("connection@1"));
+        assertEquals(Set.of("connection@5", "statement@6"), registry.keySet());
+    }
+
+    @Test
+    void parentIsMissing() {
+        EntityRegistry registry = new EntityRegistry();
+        registry.put("statement@2", new Object(), "connection@1");
+        registry.put("connection@1", new Object());
+        registry.remove("connection@1");
+        assertTrue(registry.containsKey("statement@2"));
+    }
+
+    @Test
+    void concurrentRegistration() throws InterruptedException {
+        EntityRegistry registry = new EntityRegistry();
+        Set<Long> handles = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                long connection = registry.nextHandle();
+                handles.add(connection);
+                registry.put("connection@" + connection, new Object());
+                for (int i = 0; i < 1000; i++) {
+                    long statement = registry.nextHandle();
+                    handles.add(statement);
+                    registry.put("statement@" + statement, new Object(), "connection@" + connection);
+                }
+                registry.remove("connection@" + connection);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(8 * 1001, handles.size());
+        assertTrue(registry.isEmpty());
+        assertFalse(registry.containsKey("connection@1"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdleReaperTest {
+    @Test
+    void ttls() {
+        Properties properties = new Properties();
+        properties.setProperty("jdbc.idle.connection", "30");
+        properties.setProperty("jdbc.idle.tick", "10");
+        properties.setProperty("jdbc.fetch.size.max", "100");
+        assertEquals(Map.of("connection", 30000L), IdleReaper.ttls(properties));
+    }
+
+    @Test
+    void expireIdleEntity() throws InterruptedException {
+        EntityRegistry registry = new EntityRegistry(Map.of("connection", 100L), 10);
+        List<String> closed = new CopyOnWriteArrayList<>();
+        registry.put("connection@1", (AutoCloseable)() -> closed.add("connection"));
+        registry.put("statement@2", (AutoCloseable)() -> closed.add("statement"), "connection@1");
+        registry.put("other@3", "other");
+        waitUntil(() -> !registry.containsKey("statement@2"), 5000);
+        waitUntil(() -> closed.size() == 2, 5000);
+        // descendants are closed before the entity they belong to
+        assertEquals(List.of("statement", "connection"), closed);
+        assertFalse(registry.containsKey("connection@1"));
+        assertSame("other", registry.get("other@3"));
+    }
+
+    @Test
+    void keepUsedEntity() throws InterruptedException {
+        EntityRegistry registry = new EntityRegistry(Map.of("connection", 300L), 10);
+        registry.put("connection@1", "connection");
+        registry.put("statement@2", "statement", "connection@1");
+        long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() - start < 1000) {
+            // using a descendant keeps the parent alive
+            assertSame("statement", registry.get("statement@2"));
+            Thread.sleep(50);
+        }
+        assertTrue(registry.containsKey("connection@1"));
+        // descendants are removed after the entity
+        waitUntil(() -> !registry.containsKey("statement@2"), 5000);
+        assertNull(registry.get("connection@1"));
+    }
+
+    private void waitUntil(BooleanSupplier condition, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,73 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseMemoryTest {
+    @Test
+    void responseBudget() throws SQLException {
+        ResponseMemory memory = new ResponseMemory(1000, 100, 0);
+        assertTrue(memory.admit(0));
+        memory.reserve(60);
+        assertTrue(memory.admit(40));
+        memory.reserve(40);
+        assertFalse(memory.admit(1));
+        assertEquals(100, memory.reserved());
+        memory.release();
+        assertEquals(0, memory.reserved());
+        assertEquals(0, memory.getCounters().get("used"));
+        assertEquals(100, memory.getCounters().get("peak"));
+        assertEquals(1, memory.getCounters().get("responses"));
+        assertEquals(1, memory.getCounters().get("truncated"));
+    }
+
+    @Test
+    void rejectWhenMemoryIsExhausted() throws Exception {
+        ResponseMemory memory = new ResponseMemory(100, 1000, 10);
+        memory.reserve(150);
+        assertFalse(memory.admit(1));
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> admit(memory));
+        assertThrows(SQLException.class, () -> unwrap(other));
+        assertEquals(1, memory.getCounters().get("rejections"));
+        memory.release();
+    }
+
+    @Test
+    void waitForMemory() throws Exception {
+        ResponseMemory memory = new ResponseMemory(100, 1000, 10000);
+        memory.reserve(150);
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> admit(memory));
+        while (memory.getCounters().get("waits") == 0) {
+            Thread.sleep(1);
+        }
+        assertFalse(other.isDone());
+        memory.release();
+        assertTrue(other.get(10, TimeUnit.SECONDS));
+        assertEquals(0, memory.getCounters().get("rejections"));
+    }
+
+    private boolean admit(ResponseMemory memory) {
+        try {
+            return memory.admit(0);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void unwrap(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw (Exception)e.getCause().getCause();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.nosqldriver.jdbc.http;
+
+import com.nosqldriver.jdbc.http.json.ObjectMapperFactory;
+import spark.RouteImpl;
+import spark.Spark;
+import spark.route.HttpMethod;
+import spark.route.Routes;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the cost of finding the route of a request by Spark, that matches the request against all routes one by one,
+ * and by {@link RouteDispatcher}. The routes are the ones registered by the controllers, the requests are made of the
+ * routes by replacing their parameters. Run it using {@code main}; it is not a test.
+ */
+public class RouteDispatcherBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        DriverController driverController = new DriverController(new EntityRegistry(), ObjectMapperFactory.createObjectMapper(), (user, sql) -> sql);
+        try {
+            for (HttpMethod method : new HttpMethod[] {HttpMethod.get, HttpMethod.post, HttpMethod.put, HttpMethod.delete}) {
+                RouteDispatcher dispatcher = RouteDispatcher.dispatcher(method);
+                List<String> paths = dispatcher.paths();
+                Routes routes = Routes.create();
+                paths.forEach(path -> routes.add(method, RouteImpl.create(path, (req, res) -> "")));
+                List<String> uris = paths.stream().map(path -> path.replaceAll("/[:*][^/]*", "/1")).collect(Collectors.toList());
+
+                double spark = measure(uris, uri -> routes.find(method, uri, "*/*"));
+                double trie = measure(uris, dispatcher::find);
+                System.out.println(format("%-6s%5d routes: Spark %6.0f ns/request, trie %3.0f ns/request", method.name().toUpperCase(), paths.size(), spark, trie));
+            }
+        } finally {
+            driverController.close();
+        }
+    }
+
+    // Returns the best average time of a lookup in nanoseconds; the first round warms up.
+    private static double measure(List<String> uris, Consumer<String> lookup) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            int repeat = Math.max(1, 20_000 / uris.size());
+            long start = System.nanoTime();
+            for (int i = 0; i < repeat; i++) {
+                uris.forEach(lookup);
+            }
+            double average = (double)(System.nanoTime() - start) / repeat / uris.size();
+            if (round > 0) {
+                best = Math.min(best, average);
+            }
+        }
+        return best;
+    }
+}
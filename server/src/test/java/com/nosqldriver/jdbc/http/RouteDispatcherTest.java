@@ -0,0 +1,74 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+import spark.Route;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouteDispatcherTest {
+    private static final Route route = (req, res) -> "";
+
+    @Test
+    void staticAndParameterSegments() {
+        RouteDispatcher dispatcher = new RouteDispatcher();
+        dispatcher.add("/connection/:connection/statement/:statement", null, route);
+        dispatcher.add("/connection/:connection/statement/:statement/resultset/:resultset/nextbatch", null, route);
+        dispatcher.add("/connection/:connection/statement/:statement/resultset/:resultset/:type/index/:index", null, route);
+        dispatcher.add("/connection/:connection/*/*/*/stream/:stream", null, route);
+
+        assertEquals("/connection/:connection/statement/:statement", dispatcher.find("/connection/1/statement/2").getPath());
+        assertEquals("/connection/:connection/statement/:statement/resultset/:resultset/nextbatch", dispatcher.find("/connection/1/statement/2/resultset/3/nextbatch").getPath());
+        assertEquals("/connection/:connection/statement/:statement/resultset/:resultset/:type/index/:index", dispatcher.find("/connection/1/statement/2/resultset/3/int/index/4").getPath());
+        assertEquals("/connection/:connection/*/*/*/stream/:stream", dispatcher.find("/connection/1/blob/2/binary/stream/3").getPath());
+        assertNull(dispatcher.find("/connection/1/statement"));
+        assertNull(dispatcher.find("/connection/1/statement/2/resultset/3"));
+        assertNull(dispatcher.find("/connection/1/Statement/2"));
+    }
+
+    @Test
+    void firstRegisteredRouteWins() {
+        RouteDispatcher dispatcher = new RouteDispatcher();
+        dispatcher.add("/resultset/:resultset/:type", null, route);
+        dispatcher.add("/resultset/:resultset/metadata", null, route);
+        dispatcher.add("/resultset/:id/next", null, route);
+        assertEquals("/resultset/:resultset/:type", dispatcher.find("/resultset/1/metadata").getPath());
+        assertEquals("/resultset/:resultset/:type", dispatcher.find("/resultset/1/next").getPath());
+        dispatcher.add("/resultset/:resultset/:type", null, route);
+        assertEquals(3, dispatcher.paths().size());
+    }
+
+    @Test
+    void trailingSlash() {
+        RouteDispatcher dispatcher = new RouteDispatcher();
+        dispatcher.add("/connection", null, route);
+        dispatcher.add("/statement/", null, route);
+        assertEquals("/connection", dispatcher.find("/connection").getPath());
+        assertEquals("/connection", dispatcher.find("//connection").getPath());
+        assertNull(dispatcher.find("/connection/"));
+        assertEquals("/statement/", dispatcher.find("/statement/").getPath());
+        assertNull(dispatcher.find("/statement"));
+    }
+
+    @Test
+    void acceptType() {
+        RouteDispatcher dispatcher = new RouteDispatcher();
+        dispatcher.add("/resultset/:resultset", "application/json", route);
+        dispatcher.add("/resultset/:resultset", "application/x-ndjson", route);
+        dispatcher.add("/connection", null, route);
+        assertEquals("application/json", dispatcher.find("/resultset/1", "application/json").getAcceptType());
+        assertEquals("application/x-ndjson", dispatcher.find("/resultset/1", "application/x-ndjson").getAcceptType());
+        assertEquals("application/x-ndjson", dispatcher.find("/resultset/1", "text/html, application/x-ndjson;q=0.5").getAcceptType());
+        assertEquals("application/json", dispatcher.find("/resultset/1", "*/*").getAcceptType());
+        assertEquals("application/json", dispatcher.find("/resultset/1").getAcceptType());
+        assertNull(dispatcher.find("/resultset/1", "text/html"));
+        assertEquals("/connection", dispatcher.find("/connection", "text/html").getPath());
+        assertEquals(3, dispatcher.paths().size());
+    }
+
+    @Test
+    void trailingWildcardIsNotSupported() {
+        assertThrows(IllegalArgumentException.class, () -> new RouteDispatcher().add("/connection/*", null, route));
+    }
+}
@@ -0,0 +1,166 @@
+package com.nosqldriver.jdbc.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheTest {
+    private final List<Map<String, Object>> statements = new ArrayList<>();
+
+    @Test
+    void reusePreparedStatement() throws SQLException {
+        Connection connection = StatementCache.wrap(connect(), 2, new StatementCache.Counters());
+        PreparedStatement ps1 = connection.prepareStatement("select ?");
+        ps1.setMaxRows(10);
+        ps1.setFetchDirection(ResultSet.FETCH_REVERSE);
+        ps1.setEscapeProcessing(false);
+        ps1.close();
+        assertTrue(ps1.isClosed());
+        assertThrows(SQLException.class, ps1::executeQuery);
+        Map<String, Object> state = statements.get(0);
+        assertEquals(true, state.get("clearParameters"));
+        assertEquals(0, state.get("maxRows"));
+        assertEquals(ResultSet.FETCH_FORWARD, state.get("fetchDirection"));
+        assertEquals(true, state.get("escapeProcessing"));
+        assertFalse(state.containsKey("closed"));
+
+        PreparedStatement ps2 = connection.prepareStatement("select ?");
+        assertFalse(ps2.isClosed());
+        assertSame(connection, ps2.getConnection());
+        assertEquals(1, statements.size());
+        ps2.close();
+    }
+
+    @Test
+    void keyIncludesOptions() throws SQLException {
+        Connection connection = StatementCache.wrap(connect(), 10, new StatementCache.Counters());
+        connection.prepareStatement("select 1").close();
+        connection.prepareStatement("select 1", Statement.RETURN_GENERATED_KEYS).close();
+        connection.prepareStatement("select 1", new String[] {"id"}).close();
+        connection.prepareStatement("select 1", new String[] {"id"}).close();
+        connection.prepareStatement("select 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).close();
+        connection.prepareCall("select 1").close();
+        assertEquals(5, statements.size());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() throws SQLException {
+        Connection connection = StatementCache.wrap(connect(), 2, new StatementCache.Counters());
+        connection.prepareStatement("select 1").close();
+        connection.prepareStatement("select 2").close();
+        connection.prepareStatement("select 1").close();
+        connection.prepareStatement("select 3").close();
+        assertEquals(true, statements.get(1).get("closed"));
+        assertFalse(statements.get(0).containsKey("closed"));
+        connection.close();
+        assertTrue(statements.stream().allMatch(s -> Boolean.TRUE.equals(s.get("closed"))));
+    }
+
+    @Test
+    void concurrentUseOfSameStatement() throws SQLException {
+        Connection connection = StatementCache.wrap(connect(), 2, new StatementCache.Counters());
+        PreparedStatement ps1 = connection.prepareStatement("select 1");
+        PreparedStatement ps2 = connection.prepareStatement("select 1");
+        assertEquals(2, statements.size());
+        ps1.close();
+        ps2.close();
+        assertEquals(1, statements.stream().filter(s -> s.containsKey("closed")).count());
+    }
+
+    @Test
+    void schemaChangeDropsCachedStatements() throws SQLException {
+        Connection connection = StatementCache.wrap(connect(), 2, new StatementCache.Counters());
+        connection.prepareStatement("select 1").close();
+        PreparedStatement open = connection.prepareStatement("select 2");
+        connection.setSchema("other");
+        assertEquals(true, statements.get(0).get("closed"));
+        open.close();
+        assertEquals(true, statements.get(1).get("closed"));
+        connection.prepareStatement("select 1").close();
+        assertEquals(3, statements.size());
+        connection.setCatalog("other");
+        assertEquals(true, statements.get(2).get("closed"));
+    }
+
+    @Test
+    void countersOfConnectionsAreAddedUp() throws SQLException {
+        StatementCache.Counters counters = new StatementCache.Counters();
+        Connection c1 = StatementCache.wrap(connect(), 1, counters);
+        Connection c2 = StatementCache.wrap(connect(), 1, counters);
+        Connection other = StatementCache.wrap(connect(), 1, new StatementCache.Counters());
+        c1.prepareStatement("select 1").close();
+        c1.prepareStatement("select 1").close();
+        c2.prepareStatement("select 1").close();
+        c2.prepareStatement("select 2").close();
+        other.prepareStatement("select 1").close();
+
+        Map<String, Object> stats = counters.toMap();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(3L, stats.get("misses"));
+        assertEquals(0.25, stats.get("hitRate"));
+        assertEquals(1L, stats.get("evictions"));
+        assertEquals(2L, stats.get("cached"));
+        c1.close();
+        assertEquals(1L, counters.toMap().get("cached"));
+    }
+
+    @Test
+    void disabled() {
+        Connection raw = connect();
+        assertSame(raw, StatementCache.wrap(raw, 0, new StatementCache.Counters()));
+    }
+
+    // A connection that creates statements that only keep their state.
+    private Connection connect() {
+        return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement": return statement(PreparedStatement.class);
+                case "prepareCall": return statement(CallableStatement.class);
+                default: return null;
+            }
+        });
+    }
+
+    private PreparedStatement statement(Class<? extends PreparedStatement> type) {
+        Map<String, Object> state = new HashMap<>(Map.of("maxRows", 0, "fetchSize", 0, "fetchDirection", ResultSet.FETCH_FORWARD, "queryTimeout", 0, "maxFieldSize", 0));
+        statements.add(state);
+        return (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            String name = method.getName();
+            switch (name) {
+                case "isClosed": return state.containsKey("closed");
+                case "isPoolable": return true;
+                case "isCloseOnCompletion": return false;
+                case "close": return state.put("closed", true);
+                case "getMaxRows": return state.get("maxRows");
+                case "setMaxRows": return state.put("maxRows", args[0]);
+                case "getFetchSize": return state.get("fetchSize");
+                case "getFetchDirection": return state.get("fetchDirection");
+                case "setFetchDirection": return state.put("fetchDirection", args[0]);
+                case "setEscapeProcessing": return state.put("escapeProcessing", args[0]);
+                case "getQueryTimeout": return state.get("queryTimeout");
+                case "getMaxFieldSize": return state.get("maxFieldSize");
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default:
+                    state.put(name, true);
+                    return null;
+            }
+        });
+    }
+}